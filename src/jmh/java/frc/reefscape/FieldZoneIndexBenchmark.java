@@ -0,0 +1,155 @@
+package frc.reefscape;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.spectrumLib.LoopEpoch;
+import frc.spectrumLib.util.Util;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One loop's worth of Zones trigger polls, the old inXzone/inXzoneAlliance Trigger chains against
+ * the triggers that read FieldZones. The old chains are built the way Swerve built them, with the
+ * pose read through a supplier in every lambda and flipXifRed written out, since Swerve and
+ * FieldHelpers can't load without a Robot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldZoneIndexBenchmark {
+    private final Pose2d[] poses = new Pose2d[1024];
+    private int next = 0;
+    private Pose2d pose;
+
+    private Trigger[] oldTriggers;
+    private Trigger[] indexTriggers;
+
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        Random random = new Random(1);
+        for (int i = 0; i < poses.length; i++) {
+            poses[i] =
+                    new Pose2d(
+                            random.nextDouble() * Field.fieldLength,
+                            random.nextDouble() * Field.fieldWidth,
+                            new Rotation2d());
+        }
+        pose = poses[0];
+
+        double half = Field.getHalfLength();
+        double width = Field.getFieldWidth();
+        double reefX = Field.Reef.getCenter().getX();
+        double reefY = Field.Reef.getCenter().getY();
+        double netX = FieldZones.netAlgaeX;
+        double tolerance = FieldZones.netAlgaeZoneTolerance;
+        Trigger blueFieldSide = inXzone(0, half);
+        oldTriggers =
+                new Trigger[] {
+                    blueFieldSide,
+                    inXzoneAlliance(reefX, half).and(inYzoneAlliance(reefY, width)),
+                    inXzoneAlliance(reefX, half).and(inYzoneAlliance(0, reefY)),
+                    inXzoneAlliance(0, reefX).and(inYzoneAlliance(reefY, width)),
+                    inXzoneAlliance(0, reefX).and(inYzoneAlliance(0, reefY)),
+                    inXzone(netX - tolerance, netX + tolerance)
+                            .or(
+                                    inXzone(
+                                            (Field.getFieldLength() - netX) - tolerance,
+                                            (Field.getFieldLength() - netX) + tolerance)),
+                    new Trigger(() -> withinReefRange(blueFieldSide)),
+                };
+
+        FieldZones zones = new FieldZones(() -> pose);
+        FieldZoneIndex index = zones.index;
+        int[] bits = {
+            zones.blueFieldSide,
+            zones.topLeft,
+            zones.topRight,
+            zones.bottomLeft,
+            zones.bottomRight,
+            zones.netAlgae,
+            zones.closeToReef
+        };
+        indexTriggers = new Trigger[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            int bit = bits[i];
+            indexTriggers[i] = new Trigger(() -> index.isIn(bit));
+        }
+    }
+
+    @Benchmark
+    public int oldTriggerChains() {
+        pose = poses[next++ & 1023];
+        return poll(oldTriggers);
+    }
+
+    @Benchmark
+    public int fieldZoneIndex() {
+        pose = poses[next++ & 1023];
+        LoopEpoch.advance();
+        return poll(indexTriggers);
+    }
+
+    private static int poll(Trigger[] triggers) {
+        int inside = 0;
+        for (Trigger trigger : triggers) {
+            if (trigger.getAsBoolean()) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+
+    private Pose2d getRobotPose() {
+        return pose;
+    }
+
+    private Trigger inXzone(double min, double max) {
+        return new Trigger(() -> Util.inRange(() -> getRobotPose().getX(), () -> min, () -> max));
+    }
+
+    private Trigger inXzoneAlliance(double min, double max) {
+        return new Trigger(() -> Util.inRange(flipXifRed(getRobotPose().getX()), min, max));
+    }
+
+    private Trigger inYzoneAlliance(double min, double max) {
+        return new Trigger(() -> Util.inRange(flipYifRed(getRobotPose().getY()), min, max));
+    }
+
+    private static double flipXifRed(double x) {
+        return Field.isRed() ? Field.fieldLength - x : x;
+    }
+
+    private static double flipYifRed(double y) {
+        return Field.isRed() ? Field.fieldWidth - y : y;
+    }
+
+    /** Zones.withinReefRange with FieldHelpers.flipIfRedSide written out */
+    private boolean withinReefRange(Trigger blueFieldSide) {
+        Translation2d reefCenter = Field.Reef.getCenter();
+        if (!blueFieldSide.getAsBoolean()) {
+            reefCenter =
+                    new Translation2d(
+                            Field.fieldLength - reefCenter.getX(),
+                            Field.fieldWidth - reefCenter.getY());
+        }
+        return reefCenter.getDistance(getRobotPose().getTranslation())
+                < FieldZones.reefRangeRadius;
+    }
+}
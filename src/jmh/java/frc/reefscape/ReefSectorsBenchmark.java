@@ -0,0 +1,108 @@
+package frc.reefscape;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reef zone tag lookup, the old FieldHelpers path (flip the pose, atan2, tag switch) against
+ * ReefSectors. The old path is copied here since FieldHelpers can't load without a Robot, the field
+ * side is passed in instead of read from Zones.blueFieldSide.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReefSectorsBenchmark {
+    private static final Translation2d center =
+            new Translation2d(Units.inchesToMeters(176.746), Units.inchesToMeters(158.501));
+
+    private final ReefSectors sectors =
+            new ReefSectors(center.getX(), center.getY(), 4.5, Math.toRadians(3));
+    private final Pose2d[] poses = new Pose2d[1024];
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        for (int i = 0; i < poses.length; i++) {
+            poses[i] =
+                    new Pose2d(
+                            random.nextDouble() * Field.fieldLength,
+                            random.nextDouble() * Field.fieldWidth,
+                            Rotation2d.fromDegrees(random.nextDouble() * 360));
+        }
+    }
+
+    @Benchmark
+    public int oldPath() {
+        Pose2d pose = poses[next++ & 1023];
+        boolean blueSide = pose.getX() < Field.fieldLength / 2;
+        if (!blueSide) {
+            pose =
+                    new Pose2d(
+                            new Translation2d(
+                                    Field.fieldLength - pose.getX(),
+                                    Field.fieldWidth - pose.getY()),
+                            pose.getRotation().rotateBy(Rotation2d.fromDegrees(180)));
+        }
+        int tag = oldZone(pose) + 17;
+        return blueSide ? tag : blueToRed(tag);
+    }
+
+    @Benchmark
+    public int sectors() {
+        Pose2d pose = poses[next++ & 1023];
+        boolean blueSide = pose.getX() < Field.fieldLength / 2;
+        double position = sectors.getPosition(pose.getX(), pose.getY(), blueSide);
+        return ReefSectors.getTag(ReefSectors.getZone(position), blueSide);
+    }
+
+    private static int oldZone(Pose2d pose) {
+        Translation2d relativePoint = pose.getTranslation().minus(center);
+        double angle = Math.atan2(relativePoint.getX(), relativePoint.getY());
+        double distance = relativePoint.getNorm();
+        if (angle < 0) {
+            angle += 2 * Math.PI;
+        }
+        if (distance > 4.5) {
+            return -1;
+        }
+        int index = (int) ((angle + Math.PI) / (Math.PI / 3));
+        return index % 6;
+    }
+
+    private static int blueToRed(int tag) {
+        switch (tag) {
+            case 17:
+                return 8;
+            case 18:
+                return 7;
+            case 19:
+                return 6;
+            case 20:
+                return 11;
+            case 21:
+                return 10;
+            case 22:
+                return 9;
+            default:
+                return tag;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package frc.spectrumLib;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * One robot loop's scheduler run and cached value reads, with the old CachedDouble that registered
+ * itself as a Subsystem to clear its flag in periodic() against the LoopEpoch CachedDouble. Each
+ * value is read a few times a loop like the mechanism triggers do. The default count is six values
+ * for each of seven mechanisms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachedDoubleBenchmark {
+    private static final int readsPerLoop = 3;
+
+    /** CachedDouble before LoopEpoch */
+    private static class OldCachedDouble implements DoubleSupplier, Subsystem {
+        private boolean isCached;
+        private double value;
+        private final DoubleSupplier canCall;
+
+        OldCachedDouble(DoubleSupplier canCall) {
+            this.canCall = canCall;
+            value = canCall.getAsDouble();
+            isCached = true;
+            this.register();
+        }
+
+        @Override
+        public void periodic() {
+            isCached = false;
+        }
+
+        @Override
+        public double getAsDouble() {
+            if (!isCached) {
+                value = canCall.getAsDouble();
+                isCached = true;
+            }
+            return value;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Before {
+        @Param({"42"})
+        int values;
+
+        OldCachedDouble[] cached;
+
+        @Setup
+        public void setup() {
+            HAL.initialize(500, 0);
+            CommandScheduler.getInstance().unregisterAllSubsystems();
+            cached = new OldCachedDouble[values];
+            for (int i = 0; i < values; i++) {
+                double value = i;
+                cached[i] = new OldCachedDouble(() -> value);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            CommandScheduler.getInstance().unregisterAllSubsystems();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class After {
+        @Param({"42"})
+        int values;
+
+        CachedDouble[] cached;
+
+        @Setup
+        public void setup() {
+            HAL.initialize(500, 0);
+            CommandScheduler.getInstance().unregisterAllSubsystems();
+            cached = new CachedDouble[values];
+            for (int i = 0; i < values; i++) {
+                double value = i;
+                cached[i] = new CachedDouble(() -> value);
+            }
+        }
+    }
+
+    @Benchmark
+    public void subsystemCachedDouble(Before state, Blackhole bh) {
+        CommandScheduler.getInstance().run();
+        for (int r = 0; r < readsPerLoop; r++) {
+            for (OldCachedDouble value : state.cached) {
+                bh.consume(value.getAsDouble());
+            }
+        }
+    }
+
+    @Benchmark
+    public void loopEpochCachedDouble(After state, Blackhole bh) {
+        LoopEpoch.advance();
+        CommandScheduler.getInstance().run();
+        for (int r = 0; r < readsPerLoop; r++) {
+            for (CachedDouble value : state.cached) {
+                bh.consume(value.getAsDouble());
+            }
+        }
+    }
+}
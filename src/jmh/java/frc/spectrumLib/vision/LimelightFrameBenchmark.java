@@ -0,0 +1,102 @@
+package frc.spectrumLib.vision;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.networktables.NetworkTable;
+import frc.spectrumLib.LoopEpoch;
+import frc.spectrumLib.vision.LimelightHelpers.PoseEstimate;
+import frc.spectrumLib.vision.LimelightHelpers.RawFiducial;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * One camera's MegaTag1 integration pass, the old per getter LimelightHelpers reads against one
+ * LimelightFrame read per loop. The camera is a local NT table with two tags in view. The old path
+ * is the getter sequence Vision used before the frame, written out with the LimelightHelpers calls
+ * the old Limelight getters made.
+ *
+ * <p>The ntReads counter is NT reads per pass. Run with {@code -prof gc} for the allocations:
+ * ./gradlew jmh --args="LimelightFrame -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LimelightFrameBenchmark {
+    private static final String name = "limelight-bench";
+
+    private LimelightFrame frame;
+
+    /** NT reads done by the benchmarked pass */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class NtReads {
+        public long ntReads;
+    }
+
+    @Setup
+    public void setup() {
+        NetworkTable table = LimelightHelpers.getLimelightNTTable(name);
+        double[] botpose = {
+            4.2, 3.1, 0.0, 0.4, -0.3, 35.0, 22.0, 2, 0.8, 2.4, 0.6, //
+            17, 0.1, 0.2, 0.7, 2.3, 2.5, 0.1, //
+            18, -0.1, 0.2, 0.5, 2.6, 2.8, 0.2
+        };
+        table.getEntry("tv").setDouble(1);
+        table.getEntry("tx").setDouble(3.5);
+        table.getEntry("ty").setDouble(-1.5);
+        table.getEntry("ta").setDouble(0.6);
+        table.getEntry("tid").setDouble(17);
+        table.getEntry("botpose_wpiblue").setDoubleArray(botpose);
+        table.getEntry("botpose_orb_wpiblue").setDoubleArray(botpose);
+        table.getEntry("targetpose_robotspace")
+                .setDoubleArray(new double[] {0.3, 0.1, 2.2, 0, 0, 12.0});
+        frame = new LimelightFrame(name);
+    }
+
+    @Benchmark
+    public void oldGetters(NtReads reads, Blackhole bh) {
+        // targetInView()
+        bh.consume(LimelightHelpers.getTV(name));
+        // multipleTagsInView() -> getTagCountInView()
+        PoseEstimate estimate = LimelightHelpers.getBotPoseEstimate_wpiBlue(name);
+        bh.consume(estimate.tagCount > 1);
+        // getTargetSize()
+        bh.consume(LimelightHelpers.getTA(name));
+        // getMegaTag1_Pose3d()
+        Pose3d pose = LimelightHelpers.getBotPose3d_wpiBlue(name);
+        bh.consume(pose);
+        // getRawFiducial()
+        RawFiducial[] tags = LimelightHelpers.getBotPoseEstimate_wpiBlue(name).rawFiducials;
+        bh.consume(tags);
+        // getMegaTag1PoseTimestamp()
+        bh.consume(LimelightHelpers.getBotPoseEstimate_wpiBlue(name).timestampSeconds);
+        reads.ntReads += 6;
+    }
+
+    @Benchmark
+    public void frame(NtReads reads, Blackhole bh) {
+        long before = LimelightFrame.getNtReads();
+        LoopEpoch.advance();
+        LimelightFrame current = frame.refresh();
+        bh.consume(current.isTargetInView());
+        bh.consume(current.getMt1TagCount() > 1);
+        bh.consume(current.getTa());
+        bh.consume(current.getMegaTag1Pose3d());
+        bh.consume(current.getRawFiducials());
+        bh.consume(current.getMt1Timestamp());
+        reads.ntReads += LimelightFrame.getNtReads() - before;
+    }
+}
@@ -21,9 +21,11 @@ import lombok.Getter;
  * have a blue alliance origin.
  */
 public class Field {
-    @Getter public static final double fieldLength = Units.inchesToMeters(690.876);
+    // Inches to meters as constant expressions, so code running off the robot (vision replay) can
+    // read them without loading Field and its Triggers
+    @Getter public static final double fieldLength = 690.876 * 0.0254;
     @Getter private static final double halfLength = fieldLength / 2.0;
-    @Getter public static final double fieldWidth = Units.inchesToMeters(317);
+    @Getter public static final double fieldWidth = 317 * 0.0254;
     @Getter private static final double halfWidth = fieldWidth / 2.0;
 
     @Getter
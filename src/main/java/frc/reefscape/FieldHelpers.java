@@ -5,10 +5,11 @@ import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Translation3d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.reefscape.Field.Reef;
 import frc.reefscape.offsets.HomeOffsets;
 import frc.robot.Robot;
+import frc.robot.RobotStates;
+import frc.spectrumLib.LoopEpoch;
 
 public class FieldHelpers {
 
@@ -211,22 +212,49 @@ public class FieldHelpers {
         }
     }
 
+    /* Reef zones, six 60 degree sectors around the blue reef center out to 4.5m. The robot's zone
+    only changes once it's 3 degrees past the zone's edge */
+    private static final ReefSectors reefSectors =
+            new ReefSectors(
+                    Reef.getCenter().getX(), Reef.getCenter().getY(), 4.5, Math.toRadians(3));
+
+    private static long robotReefZoneEpoch = Long.MIN_VALUE;
+    private static int robotReefZone = -1;
+    private static boolean robotReefZoneBlueSide = true;
+
     /**
      * Returns the reef tag ID based on the robot's pose
      *
      * @param pose
-     * @return
+     * @return 16 if the pose isn't in a reef zone
      */
     public static int getReefZoneTagID(Pose2d pose) {
-        pose = flipIfRedSide(pose);
-        int tag = indexToReefTagID(getReefZone(pose));
+        boolean blueSide = Zones.blueFieldSide.getAsBoolean();
+        double position = reefSectors.getPosition(pose.getX(), pose.getY(), blueSide);
+        return ReefSectors.getTag(ReefSectors.getZone(position), blueSide);
+    }
 
-        if (!Zones.blueFieldSide.getAsBoolean()) {
-            tag = blueToRedTagID(tag);
+    /**
+     * The reef tag of the zone the robot is in, worked out once a loop. The zone only changes once
+     * the robot is past its edge by the hysteresis angle, so it doesn't flicker at the edges.
+     *
+     * @return 16 if the robot isn't in a reef zone
+     */
+    public static int getRobotReefZoneTagID() {
+        long epoch = LoopEpoch.get();
+        if (robotReefZoneEpoch != epoch) {
+            boolean blueSide = Zones.blueFieldSide.getAsBoolean();
+            if (blueSide != robotReefZoneBlueSide) {
+                // zones are numbered around the other reef now
+                robotReefZone = -1;
+                robotReefZoneBlueSide = blueSide;
+            }
+            Pose2d pose = Robot.getSwerve().getRobotPose();
+            double position = reefSectors.getPosition(pose.getX(), pose.getY(), blueSide);
+            robotReefZone = reefSectors.getZoneWithHysteresis(position, robotReefZone);
+            robotReefZoneEpoch = epoch;
         }
-
-        SmartDashboard.putNumber("Target ID getReefZone: ", tag);
-        return tag;
+        return ReefSectors.getTag(robotReefZone, robotReefZoneBlueSide);
     }
 
     /* Reef pose methods */
@@ -239,28 +267,7 @@ public class FieldHelpers {
      * @return
      */
     public static int getReefZone(Pose2d pose) {
-        Translation2d point = pose.getTranslation();
-        Translation2d relativePoint = point.minus(Reef.getCenter());
-        double angle = Math.atan2(relativePoint.getX(), relativePoint.getY()); // Standard atan2
-        double distance = relativePoint.getNorm();
-
-        // Normalize angle to be between 0 and 2*PI
-        if (angle < 0) {
-            angle += 2 * Math.PI;
-        }
-
-        // Check if the point is within the 4.5 meters radius
-        if (distance > 4.5) {
-            // System.out.println("Distance Error");
-            return -1; // Outside the zones
-        }
-
-        // Determine the zone based on the angle
-        double zoneAngle = Math.PI / 3; // 60 degrees per zone
-        int index = (int) ((angle + Math.PI) / zoneAngle); // Convert angle to zone index
-
-        return index % 6; // Modular for safety, definitely works without the modular just don't
-        // remove it
+        return ReefSectors.getZone(reefSectors.getPosition(pose.getX(), pose.getY(), true));
     }
 
     public static Pose2d getOffsetPosition(int tagID, double offsetMeters, double offsetRadians) {
@@ -273,33 +280,53 @@ public class FieldHelpers {
             return Robot.getSwerve().getRobotPose();
         }
 
-        // System.out.println("Tag ID getOffsetPosition" + tagID);
-        // System.out.println("Index: " + faceIndex);
-        Pose2d face = flipIfRed(Reef.centerFaces[faceIndex]);
+        return getFaceOffsetPosition(
+                faceIndex, offsetMeters, offsetRadians, reverseRotationBlue(), Field.isRed());
+    }
+
+    /**
+     * Offsets from a reef face, used to fill the {@link ReefPoseTable}
+     *
+     * @param faceIndex index into the blue center faces
+     * @param reverseChecker true if the back of the robot is closer to facing the face
+     * @param red flips the face to the red reef
+     */
+    static Pose2d getFaceOffsetPosition(
+            int faceIndex,
+            double offsetMeters,
+            double offsetRadians,
+            boolean reverseChecker,
+            boolean red) {
+        Pose2d face = Reef.centerFaces[faceIndex];
+        if (red) {
+            face =
+                    new Pose2d(
+                            new Translation2d(flipX(face.getX()), flipY(face.getY())),
+                            flipAngle(face.getRotation()));
+        }
         // System.out.println("FaceX: " + Units.metersToInches(face.getX()));
         // System.out.println("FaceY: " + Units.metersToInches(face.getY()));
         // System.out.println("FaceAngle: " + face.getRotation().getDegrees());
 
         // currently, only heading is set to front for facing the reef face
         double rotation = normalizeAngle(offsetRadians); // for angle values
-        boolean reverseChecker = reverseRotationBlue();
 
         double offsetChecker = 1; // for translation values
 
-        if (Field.isRed()) {
+        if (red) {
             offsetChecker = -1;
         }
 
-        if (reverseChecker && Field.isBlue()) {
+        if (reverseChecker && !red) {
             offsetChecker *= -1;
             rotation = normalizeAngle(rotation - Math.PI);
         }
         // Red checkers for when reverse: both rotation and translation
-        if (reverseChecker && Field.isRed()) {
+        if (reverseChecker && red) {
             offsetChecker *= -1;
             rotation = normalizeAngle(rotation);
         }
-        if (!reverseChecker && Field.isRed()) {
+        if (!reverseChecker && red) {
             offsetChecker = -1;
             rotation = normalizeAngle(rotation - Math.PI);
         }
@@ -335,7 +362,7 @@ public class FieldHelpers {
     public static boolean reverseRotationBlue() {
         Pose2d robotPose = Robot.getSwerve().getRobotPose();
 
-        int tagID = getReefZoneTagID(robotPose);
+        int tagID = getRobotReefZoneTagID();
         int tagIndex;
 
         if (Zones.blueFieldSide.getAsBoolean()) { // (Field.isBlue()) {
@@ -399,10 +426,19 @@ public class FieldHelpers {
             return Robot.getSwerve().getRobotPose();
         }
 
-        double offSetMeters = zones.getTagOffset(blueReefTagID);
-        double offsetRadians = zones.getTagAngleOffset(blueReefTagID);
+        int slot = ReefPoseTable.getSlot(blueReefTagID);
+        if (slot < 0) {
+            // not a reef tag, nothing to score on
+            return Robot.getSwerve().getRobotPose();
+        }
 
-        return getOffsetPosition(blueReefTagID, offSetMeters, offsetRadians);
+        return Zones.getScorePoses()
+                .getScorePose(
+                        slot,
+                        RobotStates.rightScore.getAsBoolean(),
+                        RobotStates.reverse.getAsBoolean(),
+                        Field.isRed(),
+                        reverseRotationBlue());
     }
 
     public static double offSetMeters(int tagID) {
@@ -429,8 +465,18 @@ public class FieldHelpers {
         }
         tagPose = Robot.getVision().getTagLayout().getTagPose(tagID).get().toPose2d();
 
-        Rotation2d rotationOffsetParallel =
-                tagPose.getRotation().plus(new Rotation2d(offsets.getReefTagAngleOffset(tagID)));
+        return getXYOffsetFromTag(
+                tagPose, offsets.getReefTagAngleOffset(tagID), distanceAway, centerOffset);
+    }
+
+    /**
+     * Offsets from a tag pose, used to fill the {@link ReefPoseTable}
+     *
+     * @param angleOffset radians added to the tag heading
+     */
+    public static Pose2d getXYOffsetFromTag(
+            Pose2d tagPose, double angleOffset, double distanceAway, double centerOffset) {
+        Rotation2d rotationOffsetParallel = tagPose.getRotation().plus(new Rotation2d(angleOffset));
         Rotation2d rotationOffsetPerpendicular = tagPose.getRotation().plus(new Rotation2d(90));
 
         Translation2d offsetPose =
@@ -442,11 +488,11 @@ public class FieldHelpers {
     }
 
     public static double getReefOffsetFromTagX() {
-        return Robot.getVision().getReefOffsetFromTag().getX();
+        return Robot.getVision().getReefOffsetFromTagX();
     }
 
     public static double getReefOffsetFromTagY() {
-        return Robot.getVision().getReefOffsetFromTag().getY();
+        return Robot.getVision().getReefOffsetFromTagY();
     }
 
     // ------------------------------------------------------------------------------
@@ -459,28 +505,21 @@ public class FieldHelpers {
      * @return
      */
     public static double getReefTagAngle() {
-        double[][] reefFrontAngles = {
-            {17, 60}, {18, 0}, {19, -60}, {20, -120}, {21, 180}, {22, 120},
-            {6, 120}, {7, 180}, {8, -120}, {9, -60}, {10, 0}, {11, 60}
-        };
-
         int closestTag = Robot.getVision().getClosestTagID();
         boolean rearTag = Robot.getVision().isRearTagClosest();
 
         if (closestTag <= 0) {
-            Pose2d currentPose = Robot.getSwerve().getRobotPose();
-            int tagID = FieldHelpers.getReefZoneTagID(currentPose);
-            closestTag = tagID;
+            closestTag = getRobotReefZoneTagID();
             rearTag = false;
         }
 
-        for (int i = 0; i < reefFrontAngles.length; i++) {
-            if (closestTag == reefFrontAngles[i][0]) {
-                if (rearTag || !Robot.getSwerve().frontClosestToAngle(reefFrontAngles[i][1])) {
-                    return Math.toRadians(reefFrontAngles[i][1] + 180);
-                }
-                return Math.toRadians(reefFrontAngles[i][1]);
+        int slot = ReefPoseTable.getSlot(closestTag);
+        if (slot >= 0) {
+            double frontAngle = ReefPoseTable.getFrontAngleDegrees(slot);
+            if (rearTag || !Robot.getSwerve().frontClosestToAngle(frontAngle)) {
+                return Math.toRadians(frontAngle + 180);
             }
+            return Math.toRadians(frontAngle);
         }
 
         // Return current angle if no tag is found
@@ -0,0 +1,305 @@
+package frc.reefscape;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.spectrumLib.LoopEpoch;
+import frc.spectrumLib.profiler.LoopProfiler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Field zones looked up from a grid instead of re-checking each zone's bounds. Zones are declared
+ * as rectangles, circles or polygons, either in field coordinates or in alliance coordinates (blue
+ * coordinates that are flipped when we're red). At startup every zone is rasterized into two grids
+ * of bitmasks, one per alliance. A cell marks a zone as covering it or as crossing it, and only the
+ * crossed zones are tested exactly, so membership matches the zone bounds exactly.
+ *
+ * <p>The membership of the current pose is looked up once a loop, the first time a zone is read,
+ * and every zone trigger reads its bit from that. Bounds are exclusive like {@code Util.inRange}.
+ * Main loop only.
+ */
+public class FieldZoneIndex {
+    private static final int maxZones = 32;
+    private static final int covered = 0;
+    private static final int crossed = 1;
+    private static final int outside = 2;
+
+    /** A zone shape in its own coordinates */
+    private interface Shape {
+        boolean contains(double x, double y);
+
+        /** @return covered, crossed or outside for the cell */
+        int classify(double minX, double minY, double maxX, double maxY);
+    }
+
+    private static class Rectangle implements Shape {
+        final double minX, minY, maxX, maxY;
+
+        Rectangle(double minX, double minY, double maxX, double maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        public boolean contains(double x, double y) {
+            return x > minX && x < maxX && y > minY && y < maxY;
+        }
+
+        public int classify(double cellMinX, double cellMinY, double cellMaxX, double cellMaxY) {
+            if (cellMaxX <= minX || cellMinX >= maxX || cellMaxY <= minY || cellMinY >= maxY) {
+                return outside;
+            }
+            if (cellMinX > minX && cellMaxX < maxX && cellMinY > minY && cellMaxY < maxY) {
+                return covered;
+            }
+            return crossed;
+        }
+    }
+
+    private static class Circle implements Shape {
+        final double x, y, radius;
+
+        Circle(double x, double y, double radius) {
+            this.x = x;
+            this.y = y;
+            this.radius = radius;
+        }
+
+        public boolean contains(double px, double py) {
+            return Math.hypot(px - x, py - y) < radius;
+        }
+
+        public int classify(double minX, double minY, double maxX, double maxY) {
+            double nearX = Math.max(minX, Math.min(x, maxX));
+            double nearY = Math.max(minY, Math.min(y, maxY));
+            if (Math.hypot(nearX - x, nearY - y) >= radius) {
+                return outside;
+            }
+            double farX = Math.max(Math.abs(minX - x), Math.abs(maxX - x));
+            double farY = Math.max(Math.abs(minY - y), Math.abs(maxY - y));
+            return Math.hypot(farX, farY) < radius ? covered : crossed;
+        }
+    }
+
+    private static class Polygon implements Shape {
+        final double[] xs, ys;
+
+        Polygon(Translation2d[] vertices) {
+            xs = new double[vertices.length];
+            ys = new double[vertices.length];
+            for (int i = 0; i < vertices.length; i++) {
+                xs[i] = vertices[i].getX();
+                ys[i] = vertices[i].getY();
+            }
+        }
+
+        public boolean contains(double x, double y) {
+            boolean inside = false;
+            for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+                if ((ys[i] > y) != (ys[j] > y)
+                        && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        public int classify(double minX, double minY, double maxX, double maxY) {
+            for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+                if (segmentHitsBox(xs[j], ys[j], xs[i], ys[i], minX, minY, maxX, maxY)) {
+                    return crossed;
+                }
+            }
+            // no edge in the cell, so the whole cell is on one side
+            return contains((minX + maxX) / 2, (minY + maxY) / 2) ? covered : outside;
+        }
+
+        /** Liang-Barsky clip of the segment against the box */
+        private static boolean segmentHitsBox(
+                double x0,
+                double y0,
+                double x1,
+                double y1,
+                double minX,
+                double minY,
+                double maxX,
+                double maxY) {
+            double dx = x1 - x0;
+            double dy = y1 - y0;
+            double[] p = {-dx, dx, -dy, dy};
+            double[] q = {x0 - minX, maxX - x0, y0 - minY, maxY - y0};
+            double enter = 0;
+            double exit = 1;
+            for (int k = 0; k < 4; k++) {
+                if (p[k] == 0) {
+                    if (q[k] < 0) {
+                        return false;
+                    }
+                } else {
+                    double t = q[k] / p[k];
+                    if (p[k] < 0) {
+                        enter = Math.max(enter, t);
+                    } else {
+                        exit = Math.min(exit, t);
+                    }
+                }
+            }
+            return enter <= exit;
+        }
+    }
+
+    private static class Zone {
+        final Shape shape;
+        final boolean allianceRelative;
+
+        Zone(Shape shape, boolean allianceRelative) {
+            this.shape = shape;
+            this.allianceRelative = allianceRelative;
+        }
+
+        /** Field coordinates, flipped into the shape's coordinates when needed */
+        boolean contains(double x, double y, boolean red) {
+            if (red && allianceRelative) {
+                return shape.contains(Field.fieldLength - x, Field.fieldWidth - y);
+            }
+            return shape.contains(x, y);
+        }
+    }
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final Supplier<Pose2d> pose;
+    private final List<Zone> zones = new ArrayList<>();
+
+    /** Per alliance, blue is 0 and red is 1, per cell: zones covering it and zones crossing it */
+    private final int[][] coveredMasks = new int[2][];
+
+    private final int[][] crossedMasks = new int[2][];
+    private boolean built = false;
+
+    private long cachedEpoch = Long.MIN_VALUE;
+    private int membership = 0;
+
+    /** @param pose read once a loop, the first time a zone is checked */
+    public FieldZoneIndex(Supplier<Pose2d> pose, double cellSize) {
+        this.pose = pose;
+        this.cellSize = cellSize;
+        // the constants, so the index can be built without loading Field and its Triggers
+        columns = (int) Math.ceil(Field.fieldLength / cellSize);
+        rows = (int) Math.ceil(Field.fieldWidth / cellSize);
+    }
+
+    /** @return the zone's bit */
+    public int addRectangle(
+            double minX, double maxX, double minY, double maxY, boolean allianceRelative) {
+        return add(new Zone(new Rectangle(minX, minY, maxX, maxY), allianceRelative));
+    }
+
+    public int addCircle(Translation2d center, double radius, boolean allianceRelative) {
+        return add(
+                new Zone(new Circle(center.getX(), center.getY(), radius), allianceRelative));
+    }
+
+    public int addPolygon(boolean allianceRelative, Translation2d... vertices) {
+        return add(new Zone(new Polygon(vertices), allianceRelative));
+    }
+
+    private int add(Zone zone) {
+        if (built) {
+            throw new IllegalStateException("FieldZoneIndex: zones can't be added after a lookup");
+        }
+        if (zones.size() == maxZones) {
+            throw new IllegalStateException("FieldZoneIndex: more than " + maxZones + " zones");
+        }
+        zones.add(zone);
+        return 1 << (zones.size() - 1);
+    }
+
+    /** Rasterize every zone into both alliance grids, call once every zone is added */
+    public void build() {
+        for (int alliance = 0; alliance < 2; alliance++) {
+            boolean red = alliance == 1;
+            int[] coveredCells = new int[columns * rows];
+            int[] crossedCells = new int[columns * rows];
+            for (int z = 0; z < zones.size(); z++) {
+                Zone zone = zones.get(z);
+                int bit = 1 << z;
+                for (int row = 0; row < rows; row++) {
+                    for (int column = 0; column < columns; column++) {
+                        double minX = column * cellSize;
+                        double minY = row * cellSize;
+                        double maxX = minX + cellSize;
+                        double maxY = minY + cellSize;
+                        int result =
+                                red && zone.allianceRelative
+                                        ? zone.shape.classify(
+                                                Field.fieldLength - maxX,
+                                                Field.fieldWidth - maxY,
+                                                Field.fieldLength - minX,
+                                                Field.fieldWidth - minY)
+                                        : zone.shape.classify(minX, minY, maxX, maxY);
+                        int cell = row * columns + column;
+                        if (result == covered) {
+                            coveredCells[cell] |= bit;
+                        } else if (result == crossed) {
+                            crossedCells[cell] |= bit;
+                        }
+                    }
+                }
+            }
+            coveredMasks[alliance] = coveredCells;
+            crossedMasks[alliance] = crossedCells;
+        }
+        built = true;
+    }
+
+    /** @return the zones the pose is in, one bit per zone */
+    public int lookup(double x, double y, boolean red) {
+        if (!built) {
+            build();
+        }
+        int column = (int) Math.floor(x / cellSize);
+        int row = (int) Math.floor(y / cellSize);
+        int alliance = red ? 1 : 0;
+        int inside;
+        int check;
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            // off the grid, test every zone
+            inside = 0;
+            check = zones.size() == maxZones ? -1 : (1 << zones.size()) - 1;
+        } else {
+            int cell = row * columns + column;
+            inside = coveredMasks[alliance][cell];
+            check = crossedMasks[alliance][cell];
+        }
+        while (check != 0) {
+            int z = Integer.numberOfTrailingZeros(check);
+            check &= check - 1;
+            if (zones.get(z).contains(x, y, red)) {
+                inside |= 1 << z;
+            }
+        }
+        return inside;
+    }
+
+    /** This loop's zones for the robot pose */
+    public int getMembership() {
+        long epoch = LoopEpoch.get();
+        if (cachedEpoch != epoch) {
+            long start = LoopProfiler.now();
+            Pose2d current = pose.get();
+            membership = lookup(current.getX(), current.getY(), Field.isRed());
+            cachedEpoch = epoch;
+            LoopProfiler.record("FieldZoneIndex.lookup", LoopProfiler.now() - start);
+        }
+        return membership;
+    }
+
+    /** @param zoneBits one or more zone bits, true if the robot is in any of them */
+    public boolean isIn(int zoneBits) {
+        return (getMembership() & zoneBits) != 0;
+    }
+}
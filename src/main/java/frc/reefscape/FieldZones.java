@@ -0,0 +1,65 @@
+package frc.reefscape;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import java.util.function.Supplier;
+
+/**
+ * The regions behind the Zones triggers, declared in one {@link FieldZoneIndex}. Kept apart from
+ * Zones, which needs the robot's Swerve, so the index can be built and checked off the robot.
+ */
+class FieldZones {
+    static final double netAlgaeX = 9.618; // red coordinates
+    static final double netAlgaeZoneTolerance = 0.3;
+    static final double reefRangeRadius =
+            Field.Reef.apothem + Field.Reef.faceToZoneLine + Units.inchesToMeters(30);
+
+    private static final double anyY = Double.POSITIVE_INFINITY;
+
+    final FieldZoneIndex index;
+    final int blueFieldSide;
+    // Alliance relative, blue coordinates flipped when we're red
+    final int topLeft;
+    final int topRight;
+    final int bottomLeft;
+    final int bottomRight;
+    final int netAlgae;
+    // The reef on the side of the field the robot is on, the ranges don't reach midfield
+    final int closeToReef;
+
+    /** @param pose read once a loop, the first time a zone is checked */
+    FieldZones(Supplier<Pose2d> pose) {
+        double halfLength = Field.fieldLength / 2.0;
+        double width = Field.fieldWidth;
+        double reefX = Field.Reef.getCenter().getX();
+        double reefY = Field.Reef.getCenter().getY();
+
+        index = new FieldZoneIndex(pose, 0.1);
+        blueFieldSide = index.addRectangle(0, halfLength, -anyY, anyY, false);
+        topLeft = index.addRectangle(reefX, halfLength, reefY, width, true);
+        topRight = index.addRectangle(reefX, halfLength, 0, reefY, true);
+        bottomLeft = index.addRectangle(0, reefX, reefY, width, true);
+        bottomRight = index.addRectangle(0, reefX, 0, reefY, true);
+        netAlgae =
+                index.addRectangle(
+                                netAlgaeX - netAlgaeZoneTolerance,
+                                netAlgaeX + netAlgaeZoneTolerance,
+                                -anyY,
+                                anyY,
+                                false)
+                        | index.addRectangle(
+                                (Field.fieldLength - netAlgaeX) - netAlgaeZoneTolerance,
+                                (Field.fieldLength - netAlgaeX) + netAlgaeZoneTolerance,
+                                -anyY,
+                                anyY,
+                                false);
+        closeToReef =
+                index.addCircle(Field.Reef.getCenter(), reefRangeRadius, false)
+                        | index.addCircle(
+                                new Translation2d(Field.fieldLength - reefX, width - reefY),
+                                reefRangeRadius,
+                                false);
+        index.build();
+    }
+}
@@ -0,0 +1,170 @@
+package frc.reefscape;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import java.util.Optional;
+
+/**
+ * Every reef scoring target for one offsets profile, worked out once instead of every time an
+ * alignment supplier is read. Entries are stored in flat arrays indexed by the reef tag slot, the
+ * side (left or right branch) and the end of the robot facing the reef (front or rear), the
+ * offsets profile has no per level values.
+ *
+ * <p>Two kinds of target are kept:
+ *
+ * <ul>
+ *   <li>Tag targets, offset from the tag pose in the field layout like {@link
+ *       FieldHelpers#getXYOffsetFromTag}. Tag poses are field coordinates so they don't depend on
+ *       the alliance.
+ *   <li>Score poses, offset from the reef face like {@link FieldHelpers#getOffsetPosition}. These
+ *       are stored for both alliances and both robot headings relative to the face.
+ * </ul>
+ *
+ * <p>Tables are immutable, {@link #of} only builds a new one when the profile or layout changes.
+ */
+public class ReefPoseTable {
+    /** Same order as the offsets profiles, blue tags then red tags */
+    private static final int[] slotTagIDs = {17, 18, 19, 20, 21, 22, 6, 7, 8, 9, 10, 11};
+
+    /** Heading that faces the front of the robot to each slot's tag, degrees */
+    private static final double[] frontAnglesDegrees = {
+        60, 0, -60, -120, 180, 120, 120, 180, -120, -60, 0, 60
+    };
+
+    public static final int slots = slotTagIDs.length;
+
+    private final TagProperties[] profile;
+    private final AprilTagFieldLayout layout;
+
+    /* Indexed by target(slot, right, rear) */
+    private final boolean[] tagFound = new boolean[slots];
+    private final double[] tagX = new double[slots * 4];
+    private final double[] tagY = new double[slots * 4];
+    private final double[] tagHeading = new double[slots * 4];
+
+    /* Indexed by score(slot, right, rear, red, reversed) */
+    private final double[] scoreX = new double[slots * 16];
+    private final double[] scoreY = new double[slots * 16];
+    private final double[] scoreHeading = new double[slots * 16];
+
+    /**
+     * @param profile reef tag offsets, ordered like {@link #getSlot}
+     * @param layout may be null, then there are no tag targets
+     */
+    private ReefPoseTable(TagProperties[] profile, AprilTagFieldLayout layout) {
+        this.profile = profile;
+        this.layout = layout;
+
+        for (int slot = 0; slot < slots; slot++) {
+            int tagID = slotTagIDs[slot];
+            TagProperties offsets = profile[slot];
+            int faceIndex = FieldHelpers.blueReefTagIDToIndex(FieldHelpers.redToBlueTagID(tagID));
+
+            Optional<Pose3d> tagPose = layout == null ? Optional.empty() : layout.getTagPose(tagID);
+            tagFound[slot] = tagPose.isPresent();
+
+            for (int side = 0; side < 2; side++) {
+                for (int end = 0; end < 2; end++) {
+                    boolean right = side == 1;
+                    boolean rear = end == 1;
+                    double distance =
+                            rear ? offsets.getRearOffset()[side] : offsets.getFrontOffset()[side];
+                    double center =
+                            rear
+                                    ? offsets.getRearCenterOffset()[side]
+                                    : offsets.getFrontCenterOffset()[side];
+
+                    if (tagFound[slot]) {
+                        Pose2d target =
+                                FieldHelpers.getXYOffsetFromTag(
+                                        tagPose.get().toPose2d(),
+                                        offsets.getAngle(),
+                                        distance,
+                                        center);
+                        int i = target(slot, right, rear);
+                        tagX[i] = target.getX();
+                        tagY[i] = target.getY();
+                        tagHeading[i] = target.getRotation().getRadians();
+                    }
+
+                    for (int alliance = 0; alliance < 2; alliance++) {
+                        for (int facing = 0; facing < 2; facing++) {
+                            boolean red = alliance == 1;
+                            boolean reversed = facing == 1;
+                            Pose2d score =
+                                    FieldHelpers.getFaceOffsetPosition(
+                                            faceIndex, distance, offsets.getAngle(), reversed, red);
+                            int i = score(slot, right, rear, red, reversed);
+                            scoreX[i] = score.getX();
+                            scoreY[i] = score.getY();
+                            scoreHeading[i] = score.getRotation().getRadians();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param last the table in use, may be null
+     * @return last if it was built from the same profile and layout, otherwise a new table
+     */
+    public static ReefPoseTable of(
+            TagProperties[] profile, AprilTagFieldLayout layout, ReefPoseTable last) {
+        if (last != null && last.profile == profile && last.layout == layout) {
+            return last;
+        }
+        return new ReefPoseTable(profile, layout);
+    }
+
+    /** @return the slot of a reef tag, or -1 if it isn't one */
+    public static int getSlot(int tagID) {
+        if (tagID >= 17 && tagID <= 22) {
+            return tagID - 17;
+        }
+        if (tagID >= 6 && tagID <= 11) {
+            return tagID;
+        }
+        return -1;
+    }
+
+    /** @return heading that faces the front of the robot to the slot's tag, degrees */
+    public static double getFrontAngleDegrees(int slot) {
+        return frontAnglesDegrees[slot];
+    }
+
+    private static int target(int slot, boolean right, boolean rear) {
+        return (slot * 2 + (right ? 1 : 0)) * 2 + (rear ? 1 : 0);
+    }
+
+    private static int score(int slot, boolean right, boolean rear, boolean red, boolean reversed) {
+        return (target(slot, right, rear) * 2 + (red ? 1 : 0)) * 2 + (reversed ? 1 : 0);
+    }
+
+    /** @return false if the layout doesn't have the slot's tag */
+    public boolean hasTagTarget(int slot) {
+        return tagFound[slot];
+    }
+
+    public double getTagTargetX(int slot, boolean right, boolean rear) {
+        return tagX[target(slot, right, rear)];
+    }
+
+    public double getTagTargetY(int slot, boolean right, boolean rear) {
+        return tagY[target(slot, right, rear)];
+    }
+
+    /** @return radians */
+    public double getTagTargetHeading(int slot, boolean right, boolean rear) {
+        return tagHeading[target(slot, right, rear)];
+    }
+
+    /** @param reversed the back of the robot is closer to facing the reef face */
+    public Pose2d getScorePose(
+            int slot, boolean right, boolean rear, boolean red, boolean reversed) {
+        int i = score(slot, right, rear, red, reversed);
+        return new Pose2d(scoreX[i], scoreY[i], new Rotation2d(scoreHeading[i]));
+    }
+}
@@ -0,0 +1,94 @@
+package frc.reefscape;
+
+/**
+ * Which reef zone a point is in. The zones are six 60 degree sectors around the blue reef center,
+ * out to a radius. Points on the red side are flipped to the blue side first, so both reefs number
+ * their zones the same way. Only math on doubles, so it can be checked off the robot.
+ */
+public class ReefSectors {
+    private static final double zoneWidth = Math.PI / 3;
+
+    /** Tag of each zone, by field side */
+    private static final int[] blueZoneTags = {17, 18, 19, 20, 21, 22};
+
+    private static final int[] redZoneTags = {8, 7, 6, 11, 10, 9};
+
+    /** Tag for points outside the zones, the same as FieldHelpers.indexToReefTagID(-1) */
+    public static final int outsideTag = 16;
+
+    private final double centerX;
+    private final double centerY;
+    private final double radius;
+
+    /** Hysteresis in zone widths */
+    private final double band;
+
+    /**
+     * @param centerX blue reef center
+     * @param centerY blue reef center
+     * @param radius points farther from the center than this aren't in a zone, meters
+     * @param hysteresis angle past a zone's edge before {@link #getZoneWithHysteresis} leaves it
+     */
+    public ReefSectors(double centerX, double centerY, double radius, double hysteresis) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.radius = radius;
+        this.band = hysteresis / zoneWidth;
+    }
+
+    /**
+     * Where the point is around the blue reef, in zone widths
+     *
+     * @param blueSide false to flip the point to the blue side first
+     * @return zone i covers [i, i + 1), -1 if the point is too far from the reef
+     */
+    public double getPosition(double x, double y, boolean blueSide) {
+        if (!blueSide) {
+            x = Field.fieldLength - x;
+            y = Field.fieldWidth - y;
+        }
+        double relativeX = x - centerX;
+        double relativeY = y - centerY;
+
+        if (Math.hypot(relativeX, relativeY) > radius) {
+            return -1; // Outside the zones
+        }
+
+        // measured from +y toward +x, zone 0 starts at -y
+        double angle = Math.atan2(relativeX, relativeY);
+
+        // Normalize angle to be between 0 and 2*PI
+        if (angle < 0) {
+            angle += 2 * Math.PI;
+        }
+
+        return ((angle + Math.PI) / zoneWidth) % 6;
+    }
+
+    /** @return the zone of a position, -1 outside the zones */
+    public static int getZone(double position) {
+        return position < 0 ? -1 : (int) position;
+    }
+
+    /** @return the last zone while the position is within the hysteresis of its edges */
+    public int getZoneWithHysteresis(double position, int lastZone) {
+        int zone = getZone(position);
+        if (zone < 0 || lastZone < 0 || zone == lastZone) {
+            return zone;
+        }
+        // how far around from the start of the last zone, 1 is its far edge
+        double fromLast = ((position - lastZone) % 6 + 6) % 6;
+        if (fromLast < 1 + band || fromLast > 6 - band) {
+            return lastZone;
+        }
+        return zone;
+    }
+
+    /** @return the reef tag facing the zone, {@link #outsideTag} outside the zones */
+    public static int getTag(int zone, boolean blueSide) {
+        if (zone < 0) {
+            return outsideTag;
+        }
+        return blueSide ? blueZoneTags[zone] : redZoneTags[zone];
+    }
+}
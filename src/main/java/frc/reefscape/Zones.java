@@ -16,51 +16,29 @@ public class Zones {
     @Getter
     private static final double atReefRotationTolerance = Units.degreesToRadians(0.35); // rads
 
-    @Getter private static final double netAlgaeX = 9.618; // red coordinates
-    @Getter private static final double netAlgaeZoneTolerance = 0.3;
+    @Getter private static final double netAlgaeX = FieldZones.netAlgaeX; // red coordinates
+    @Getter private static final double netAlgaeZoneTolerance = FieldZones.netAlgaeZoneTolerance;
 
     private static final Swerve swerve = Robot.getSwerve();
     // private static final HomeOffsets offsets = new HomeOffsets();
     private static final WorldChampsOffsets offsets = new WorldChampsOffsets();
-    private static final double reefRangeRadius =
-            Field.Reef.apothem + Field.Reef.faceToZoneLine + Units.inchesToMeters(30);
 
-    public static final Trigger blueFieldSide = swerve.inXzone(0, Field.getHalfLength());
+    /* Zone index, the pose is looked up once a loop and each trigger reads its bit */
+    private static final FieldZones zones = new FieldZones(swerve::getRobotPose);
+    private static final FieldZoneIndex index = zones.index;
+
+    public static final Trigger blueFieldSide = new Trigger(() -> index.isIn(zones.blueFieldSide));
     public static final Trigger opponentFieldSide =
             new Trigger(() -> blueFieldSide.getAsBoolean() != Field.isBlue());
 
-    public static final Trigger topLeftZone =
-            swerve.inXzoneAlliance(Field.Reef.getCenter().getX(), Field.getHalfLength())
-                    .and(
-                            swerve.inYzoneAlliance(
-                                    Field.Reef.getCenter().getY(), Field.getFieldWidth()));
-    public static final Trigger topRightZone =
-            swerve.inXzoneAlliance(Field.Reef.getCenter().getX(), Field.getHalfLength())
-                    .and(swerve.inYzoneAlliance(0, Field.Reef.getCenter().getY()));
-    public static final Trigger bottomLeftZone =
-            swerve.inXzoneAlliance(0, Field.Reef.getCenter().getX())
-                    .and(
-                            swerve.inYzoneAlliance(
-                                    Field.Reef.getCenter().getY(), Field.getFieldWidth()));
-    public static final Trigger bottomRightZone =
-            swerve.inXzoneAlliance(0, Field.Reef.getCenter().getX())
-                    .and(swerve.inYzoneAlliance(0, Field.Reef.getCenter().getY()));
-
-    public static final Trigger netAlgaeZone =
-            // swerve.inXzoneAlliance(
-            //                 3 * Field.getHalfLength() / 4,
-            //                 Field.getHalfLength()
-            //                         - Units.inchesToMeters(24)
-            //                         - swerve.getConfig().getRobotLength() / 2)
-            //         .and(topLeftZone);
-            swerve.inXzone(netAlgaeX - netAlgaeZoneTolerance, netAlgaeX + netAlgaeZoneTolerance)
-                    .or(
-                            swerve.inXzone(
-                                    (Field.getFieldLength() - netAlgaeX) - netAlgaeZoneTolerance,
-                                    (Field.getFieldLength() - netAlgaeX) + netAlgaeZoneTolerance));
-
-    public static final Trigger isCloseToReef =
-            new Trigger(() -> Zones.withinReefRange(reefRangeRadius));
+    public static final Trigger topLeftZone = new Trigger(() -> index.isIn(zones.topLeft));
+    public static final Trigger topRightZone = new Trigger(() -> index.isIn(zones.topRight));
+    public static final Trigger bottomLeftZone = new Trigger(() -> index.isIn(zones.bottomLeft));
+    public static final Trigger bottomRightZone = new Trigger(() -> index.isIn(zones.bottomRight));
+
+    public static final Trigger netAlgaeZone = new Trigger(() -> index.isIn(zones.netAlgae));
+
+    public static final Trigger isCloseToReef = new Trigger(() -> index.isIn(zones.closeToReef));
 
     // -------------------------------------------------------------
     // Reef Offsets Helper
@@ -83,6 +61,14 @@ public class Zones {
         return offsets.getReefTagAngleOffset(tag);
     }
 
+    private static ReefPoseTable scorePoses;
+
+    /** Score poses for the offsets profile, only rebuilt if the profile changes */
+    static ReefPoseTable getScorePoses() {
+        scorePoses = ReefPoseTable.of(WorldChampsOffsets.getReefTagOffsets(), null, scorePoses);
+        return scorePoses;
+    }
+
     /**
      * Calls on getReefZoneTagID with the given robot swerve position. Automatically has a check on
      * reefTagID and returns robot pose if the robot is not in a target reef zone
@@ -90,7 +76,7 @@ public class Zones {
      * @return Target Reef Pose
      */
     Pose2d getScoreReefPose() {
-        int reefTagID = FieldHelpers.getReefZoneTagID(Robot.getSwerve().getRobotPose());
+        int reefTagID = FieldHelpers.getRobotReefZoneTagID();
         if (reefTagID < 0) {
             return Robot.getSwerve().getRobotPose();
         }
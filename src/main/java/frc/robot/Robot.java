@@ -11,7 +11,6 @@ import edu.wpi.first.net.WebServer;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.Filesystem;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
@@ -45,10 +44,17 @@ import frc.robot.twist.Twist.TwistConfig;
 import frc.robot.vision.Vision;
 import frc.robot.vision.Vision.VisionConfig;
 import frc.robot.vision.VisionSystem;
+import frc.spectrumLib.LoopEpoch;
 import frc.spectrumLib.Rio;
+import frc.spectrumLib.SignalRegistry;
 import frc.spectrumLib.SpectrumRobot;
 import frc.spectrumLib.Telemetry;
 import frc.spectrumLib.Telemetry.PrintPriority;
+import frc.spectrumLib.mechanism.MechanismTelemetry;
+import frc.spectrumLib.profiler.LoopProfiler;
+import frc.spectrumLib.talonFX.CanBusBudget;
+import frc.spectrumLib.talonFX.ConfigFingerprint;
+import frc.spectrumLib.talonFX.DeviceConfigurator;
 import frc.spectrumLib.util.CrashTracker;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -128,29 +134,28 @@ public class Robot extends SpectrumRobot {
              * code. Anything with an output that needs to be independently controlled is a
              * subsystem Something that don't have an output are also subsystems.
              */
-            double canInitDelay = 0.1; // Delay between any mechanism with motor/can configs
 
             leds = new LedFull(config.leds);
             operator = new Operator(config.operator);
             pilot = new Pilot(config.pilot);
             swerve = new Swerve(config.swerve);
-            Timer.delay(canInitDelay);
             elevator = new Elevator(config.elevator);
-            Timer.delay(canInitDelay);
             climb = new Climb(config.climb);
-            Timer.delay(canInitDelay);
             shoulder = new Shoulder(config.shoulder);
-            Timer.delay(canInitDelay);
             elbow = new Elbow(config.elbow);
-            Timer.delay(canInitDelay);
             intake = new Intake(config.intake);
-            Timer.delay(canInitDelay);
             vision = new Vision(config.vision);
-            visionSystem = new VisionSystem(swerve::getRobotPose);
-            Timer.delay(canInitDelay);
+            visionSystem = new VisionSystem(swerve::getRobotPose, config.vision);
             twist = new Twist(config.twist);
             auton = new Auton();
 
+            // Device configs are applied in the background, wait for them once here
+            DeviceConfigurator.awaitAll(10.0);
+            ConfigFingerprint.save();
+
+            // Log the expected CAN traffic now that every device is created
+            CanBusBudget.report();
+
             // Setup Default Commands for all subsystems
             setupDefaultCommands();
 
@@ -194,6 +199,9 @@ public class Robot extends SpectrumRobot {
 
     public void setupSmartDashboardData() {
         SmartDashboard.putData("Field2d", field2d);
+        SmartDashboard.putData("Profiler/Dump", LoopProfiler.dumpCommand());
+        SmartDashboard.putData("Profiler/Reset", LoopProfiler.resetCommand());
+        SmartDashboard.putData("SelfTest/Run", SelfTestPlan.create().getCommand());
     }
 
     @Override // Deprecated
@@ -212,16 +220,41 @@ public class Robot extends SpectrumRobot {
     @Override
     public void robotPeriodic() {
         try {
+            LoopEpoch.advance(); // Invalidate all values cached during the last loop
+            LoopProfiler.loopStart();
+
+            // Device configs that finished after awaitAll() timed out hand their results over here
+            DeviceConfigurator.poll();
+
+            // Refresh every mechanism signal at once so all getters read the same snapshot
+            LoopProfiler.begin("SignalRegistry.refreshAll()");
+            SignalRegistry.refreshAll();
+            LoopProfiler.end("SignalRegistry.refreshAll()");
+
+            // Copy the drivetrain state once and keep it on the field, everything this loop reads
+            // the snapshot
+            LoopProfiler.begin("Swerve.updateSnapshot()");
+            swerve.updateSnapshot();
+            LoopProfiler.end("Swerve.updateSnapshot()");
+
             /**
              * Runs the Scheduler. This is responsible for polling buttons, adding newly-scheduled
              * commands, running already-scheduled commands, removing finished or interrupted
              * commands, and running subsystem periodic() methods. This must be called from the
              * robot's periodic block in order for anything in the Command-based framework to work.
              */
+            LoopProfiler.begin("CommandScheduler.run()");
             CommandScheduler.getInstance().run();
+            LoopProfiler.end("CommandScheduler.run()");
+            LoopProfiler.captureSchedulerEpochs();
 
+            LoopProfiler.begin("Robot.dashboard");
             SmartDashboard.putNumber("MatchTime", DriverStation.getMatchTime());
             field2d.setRobotPose(swerve.getRobotPose());
+            MechanismTelemetry.publish();
+            LoopProfiler.end("Robot.dashboard");
+
+            LoopProfiler.loopEnd();
         } catch (Throwable t) {
             // intercept error and log it
             CrashTracker.logThrowableCrash(t);
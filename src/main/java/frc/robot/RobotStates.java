@@ -317,6 +317,9 @@ public class RobotStates {
                 .and(pilot.reefAlignScore_B.or(pilot.reefVision_A, Util.autoMode))
                 .onFalse(aligned.setFalse());
 
+        // Narrow the Limelights to the tag being aligned to
+        pilot.reefAlignScore_B.or(pilot.reefVision_A).whileTrue(VisionStates.focusOnReefTag());
+
         // *********************************
         // Autoscore States
         pilot.reefAlignScore_B.and(stagedCoral).onTrue(autoScoreMode.setTrue());
@@ -0,0 +1,104 @@
+package frc.robot;
+
+import frc.robot.climb.Climb;
+import frc.robot.elbow.Elbow;
+import frc.robot.elevator.Elevator;
+import frc.robot.intake.Intake;
+import frc.robot.shoulder.Shoulder;
+import frc.robot.twist.Twist;
+import frc.spectrumLib.selftest.SelfTest;
+
+/**
+ * Pit self test of every mechanism, run from the SelfTest/Run button in test mode. The arm joints
+ * and climb are homed together and checked for how fast they get there, the intake is spun with
+ * the arm, then the elevator moves up and back once the arm is settled since the arm rides on it.
+ */
+public class SelfTestPlan {
+    private static final double armToleranceDegrees = 5;
+    private static final double intakeTestVoltage = 3;
+    private static final double intakeMinRPM = 500;
+    private static final double elevatorTestRotations = 5;
+
+    public static SelfTest create() {
+        Elevator elevator = Robot.getElevator();
+        Shoulder shoulder = Robot.getShoulder();
+        Elbow elbow = Robot.getElbow();
+        Twist twist = Robot.getTwist();
+        Climb climb = Robot.getClimb();
+        Intake intake = Robot.getIntake();
+        Robot.Config config = Robot.getConfig();
+
+        return new SelfTest("Robot")
+                .add(
+                        shoulder.selfTest(
+                                        "home",
+                                        shoulder.moveToDegrees(config.shoulder::getHome),
+                                        1.5)
+                                .expectReached(
+                                        "rotations",
+                                        shoulder.atDegrees(
+                                                config.shoulder::getHome,
+                                                () -> armToleranceDegrees),
+                                        1.0)
+                                .expectPeakBelow(
+                                        "current", config.shoulder.getTorqueCurrentLimit()))
+                .add(
+                        elbow.selfTest("home", elbow.moveToDegrees(config.elbow::getHome), 1.5)
+                                .expectReached(
+                                        "rotations",
+                                        elbow.atDegrees(
+                                                config.elbow::getHome, () -> armToleranceDegrees),
+                                        1.0)
+                                .expectPeakBelow("current", config.elbow.getTorqueCurrentLimit()))
+                .add(
+                        twist.selfTest("home", twist.moveToDegrees(config.twist::getHome), 1.5)
+                                .expectReached(
+                                        "rotations",
+                                        twist.atDegrees(
+                                                config.twist::getHome,
+                                                config.twist::getTriggerTolerance),
+                                        1.0)
+                                .expectPeakBelow("current", config.twist.getTorqueCurrentLimit()))
+                .add(
+                        climb.selfTest("home", climb.moveToDegrees(config.climb::getHome), 1.5)
+                                .expectReached(
+                                        "rotations",
+                                        climb.atDegrees(
+                                                config.climb::getHome, () -> armToleranceDegrees),
+                                        1.0)
+                                .expectPeakBelow("current", config.climb.getTorqueCurrentLimit()))
+                .add(
+                        intake.selfTest("spin", intake.runVoltage(() -> intakeTestVoltage), 1.0)
+                                .expectPeakAbove("velocityRPM", intakeMinRPM)
+                                .expectPeakBelow(
+                                        "current", config.intake.getTorqueCurrentLimit()))
+                .add(
+                        elevator.selfTest(
+                                        "up",
+                                        elevator.moveToRotations(() -> elevatorTestRotations),
+                                        1.5)
+                                .blocks(shoulder, elbow, twist)
+                                .expectReached(
+                                        "rotations",
+                                        elevator.atRotations(
+                                                () -> elevatorTestRotations,
+                                                config.elevator::getTriggerTolerance),
+                                        1.0)
+                                .expectPeakBelow(
+                                        "current", config.elevator.getTorqueCurrentLimit()))
+                .add(
+                        elevator.selfTest(
+                                        "down",
+                                        elevator.moveToRotations(config.elevator::getHome),
+                                        1.5)
+                                .blocks(shoulder, elbow, twist)
+                                .expectReached(
+                                        "rotations",
+                                        elevator.atRotations(
+                                                config.elevator::getHome,
+                                                config.elevator::getTriggerTolerance),
+                                        1.0)
+                                .expectPeakBelow(
+                                        "current", config.elevator.getTorqueCurrentLimit()));
+    }
+}
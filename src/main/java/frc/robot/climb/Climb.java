@@ -1,5 +1,6 @@
 package frc.robot.climb;
 
+import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.configs.TalonFXConfigurator;
 import com.ctre.phoenix6.hardware.TalonFX;
@@ -104,7 +105,7 @@ public class Climb extends Mechanism {
         super(config);
         this.config = config;
 
-        setInitialPosition();
+        queueDeviceTask("initial position", this::setInitialPosition);
         setLatchOpen();
 
         simulationInit();
@@ -131,20 +132,18 @@ public class Climb extends Mechanism {
     public void initSendable(NTSendableBuilder builder) {
         if (isAttached()) {
             builder.addStringProperty("CurrentCommand", this::getCurrentCommandName, null);
-            builder.addDoubleProperty(
-                    "Position Rotations", () -> (this.getPositionRotations()), null);
-            builder.addDoubleProperty("Position Degrees", () -> (this.getPositionDegrees()), null);
-            // builder.addDoubleProperty("Velocity", this::getVelocityRPM, null);
-            builder.addDoubleProperty("Motor Voltage", this::getVoltage, null);
-            builder.addDoubleProperty("StatorCurrent", this::getStatorCurrent, null);
         }
     }
 
-    private void setInitialPosition() {
+    private StatusCode setInitialPosition() {
         if (config.isAttached()) {
-            motor.setPosition(0.25);
-            followerMotors[0].setPosition(0.25);
+            StatusCode result = motor.setPosition(0.25);
+            if (!result.isOK()) {
+                return result;
+            }
+            return followerMotors[0].setPosition(0.25);
         }
+        return StatusCode.OK;
     }
 
     private void setLatchOpen() {
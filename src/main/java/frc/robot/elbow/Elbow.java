@@ -1,5 +1,6 @@
 package frc.robot.elbow;
 
+import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.configs.TalonFXConfigurator;
 import com.ctre.phoenix6.hardware.TalonFX;
@@ -145,6 +146,7 @@ public class Elbow extends Mechanism {
     @Getter private ElbowConfig config;
     private SpectrumCANcoder canCoder;
     private SpectrumCANcoderConfig canCoderConfig;
+    private int negativeDegreesChannel = -1;
     @Getter private ElbowSim sim;
     CANcoderSimState canCoderSim;
 
@@ -169,7 +171,7 @@ public class Elbow extends Mechanism {
                                 SpectrumCANcoder.CANCoderFeedbackType.FusedCANcoder);
             }
 
-            setInitialPosition();
+            queueDeviceTask("initial position", this::setInitialPosition);
         }
 
         simulationInit();
@@ -196,26 +198,29 @@ public class Elbow extends Mechanism {
     public void initSendable(NTSendableBuilder builder) {
         if (isAttached()) {
             builder.addStringProperty("CurrentCommand", this::getCurrentCommandName, null);
-            builder.addDoubleProperty("Position Degrees", () -> (getPositionWithNegative()), null);
-            builder.addDoubleProperty("MotorVoltage", this::getVoltage, null);
-            builder.addDoubleProperty("StatorCurrent", this::getStatorCurrent, null);
         }
     }
 
-    private void setInitialPosition() {
+    @Override
+    protected double getTelemetryDegrees() {
+        return getPositionWithNegative();
+    }
+
+    private StatusCode setInitialPosition() {
         if (canCoder != null) {
             if (canCoder.isAttached()
                     && canCoder.canCoderResponseOK(
                             canCoder.getCanCoder().getAbsolutePosition().getStatus())) {
-                motor.setPosition(
+                return motor.setPosition(
                         canCoder.getCanCoder().getAbsolutePosition().getValueAsDouble()
                                 / config.getCANcoderSensorToMechanismRatio());
             } else {
-                motor.setPosition(
+                return motor.setPosition(
                         degreesToRotations(offsetPosition(() -> config.getInitPosition())));
             }
         } else {
-            motor.setPosition(degreesToRotations(offsetPosition(() -> config.getInitPosition())));
+            return motor.setPosition(
+                    degreesToRotations(offsetPosition(() -> config.getInitPosition())));
         }
     }
 
@@ -234,26 +239,31 @@ public class Elbow extends Mechanism {
 
     @Override
     public Trigger belowDegrees(DoubleSupplier degrees, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        (getPositionWithNegative())
-                                < (degrees.getAsDouble() - tolerance.getAsDouble()));
+        return thresholds.below(
+                getNegativeDegreesChannel(),
+                () -> degrees.getAsDouble() - tolerance.getAsDouble(),
+                deg -> deg);
     }
 
     @Override
     public Trigger aboveDegrees(DoubleSupplier degrees, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        (getPositionWithNegative())
-                                > (degrees.getAsDouble() + tolerance.getAsDouble()));
+        return thresholds.above(
+                getNegativeDegreesChannel(),
+                () -> degrees.getAsDouble() + tolerance.getAsDouble(),
+                deg -> deg);
     }
 
     @Override
     public Trigger atDegrees(DoubleSupplier degrees, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        Math.abs(getPositionWithNegative() - degrees.getAsDouble())
-                                < tolerance.getAsDouble());
+        return thresholds.at(getNegativeDegreesChannel(), degrees, tolerance, deg -> deg);
+    }
+
+    // The elbow triggers compare against the wrapped +/-180 degree position, not rotations
+    private int getNegativeDegreesChannel() {
+        if (negativeDegreesChannel < 0) {
+            negativeDegreesChannel = thresholds.addChannel(this::getPositionWithNegative);
+        }
+        return negativeDegreesChannel;
     }
 
     // --------------------------------------------------------------------------------
@@ -1,5 +1,6 @@
 package frc.robot.elevator;
 
+import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.sim.TalonFXSimState;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.NTSendableBuilder;
@@ -121,7 +122,7 @@ public class Elevator extends Mechanism {
         super(config);
         this.config = config;
 
-        setInitialPosition();
+        queueDeviceTask("initial position", this::setInitialPosition);
 
         simulationInit();
         telemetryInit();
@@ -147,18 +148,18 @@ public class Elevator extends Mechanism {
     public void initSendable(NTSendableBuilder builder) {
         if (isAttached()) {
             builder.addStringProperty("CurrentCommand", this::getCurrentCommandName, null);
-            builder.addDoubleProperty("Rotations", this::getPositionRotations, null);
-            // builder.addDoubleProperty("Velocity", this::getVelocityRPM, null);
-            builder.addDoubleProperty("StatorCurrent", this::getStatorCurrent, null);
-            builder.addDoubleProperty("MotorVoltage", this::getVoltage, null);
         }
     }
 
-    private void setInitialPosition() {
+    private StatusCode setInitialPosition() {
         if (isAttached()) {
-            motor.setPosition(config.getInitPosition());
-            followerMotors[0].setPosition(config.getInitPosition());
+            StatusCode result = motor.setPosition(config.getInitPosition());
+            if (!result.isOK()) {
+                return result;
+            }
+            return followerMotors[0].setPosition(config.getInitPosition());
         }
+        return StatusCode.OK;
     }
 
     public Command resetToInitialPos() {
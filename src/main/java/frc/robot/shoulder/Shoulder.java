@@ -1,5 +1,6 @@
 package frc.robot.shoulder;
 
+import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.configs.TalonFXConfigurator;
 import com.ctre.phoenix6.hardware.TalonFX;
@@ -147,6 +148,8 @@ public class Shoulder extends Mechanism {
     protected ShoulderConfig config;
     protected SpectrumCANcoder canCoder;
     protected SpectrumCANcoderConfig canCoderConfig;
+    private int offsetDegreesChannel = -1;
+    private int absOffsetDegreesChannel = -1;
     @Getter private ShoulderSim sim;
     CANcoderSimState canCoderSim;
 
@@ -172,7 +175,7 @@ public class Shoulder extends Mechanism {
                                 SpectrumCANcoder.CANCoderFeedbackType.FusedCANcoder);
             }
 
-            setInitialPosition();
+            queueDeviceTask("initial position", this::setInitialPosition);
         }
 
         simulationInit();
@@ -199,28 +202,29 @@ public class Shoulder extends Mechanism {
     public void initSendable(NTSendableBuilder builder) {
         if (isAttached()) {
             builder.addStringProperty("CurrentCommand", this::getCurrentCommandName, null);
-            builder.addDoubleProperty(
-                    "Position Degrees", () -> (getPositionDegrees() - config.offset), null);
-            // builder.addDoubleProperty("Velocity", this::getVelocityRPM, null);
-            builder.addDoubleProperty("MotorVoltage", this::getVoltage, null);
-            builder.addDoubleProperty("StatorCurrent", this::getStatorCurrent, null);
         }
     }
 
-    void setInitialPosition() {
+    @Override
+    protected double getTelemetryDegrees() {
+        return getPositionDegrees() - config.offset;
+    }
+
+    StatusCode setInitialPosition() {
         if (canCoder != null) {
             if (canCoder.isAttached()
                     && canCoder.canCoderResponseOK(
                             canCoder.getCanCoder().getAbsolutePosition().getStatus())) {
-                motor.setPosition(
+                return motor.setPosition(
                         canCoder.getCanCoder().getAbsolutePosition().getValueAsDouble()
                                 / config.getCANcoderSensorToMechanismRatio());
             } else {
-                motor.setPosition(
+                return motor.setPosition(
                         degreesToRotations(offsetPosition(() -> config.getInitPosition())));
             }
         } else {
-            motor.setPosition(degreesToRotations(offsetPosition(() -> config.getInitPosition())));
+            return motor.setPosition(
+                    degreesToRotations(offsetPosition(() -> config.getInitPosition())));
         }
     }
 
@@ -232,26 +236,37 @@ public class Shoulder extends Mechanism {
 
     @Override
     public Trigger belowDegrees(DoubleSupplier degrees, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        (getPositionDegrees() - config.getOffset())
-                                < (degrees.getAsDouble() - tolerance.getAsDouble()));
+        return thresholds.below(
+                getOffsetDegreesChannel(),
+                () -> degrees.getAsDouble() - tolerance.getAsDouble(),
+                deg -> deg);
     }
 
     @Override
     public Trigger aboveDegrees(DoubleSupplier degrees, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        Math.abs(getPositionDegrees() - config.getOffset())
-                                > (degrees.getAsDouble() + tolerance.getAsDouble()));
+        if (absOffsetDegreesChannel < 0) {
+            absOffsetDegreesChannel =
+                    thresholds.addChannel(
+                            () -> Math.abs(getPositionDegrees() - config.getOffset()));
+        }
+        return thresholds.above(
+                absOffsetDegreesChannel,
+                () -> degrees.getAsDouble() + tolerance.getAsDouble(),
+                deg -> deg);
     }
 
     @Override
     public Trigger atDegrees(DoubleSupplier degrees, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        Math.abs(getPositionDegrees() - config.getOffset() - degrees.getAsDouble())
-                                < tolerance.getAsDouble());
+        return thresholds.at(getOffsetDegreesChannel(), degrees, tolerance, deg -> deg);
+    }
+
+    // The shoulder triggers compare against the position relative to the offset
+    private int getOffsetDegreesChannel() {
+        if (offsetDegreesChannel < 0) {
+            offsetDegreesChannel =
+                    thresholds.addChannel(() -> getPositionDegrees() - config.getOffset());
+        }
+        return offsetDegreesChannel;
     }
 
     // --------------------------------------------------------------------------------
@@ -0,0 +1,33 @@
+package frc.robot.swerve;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import lombok.Getter;
+
+/**
+ * The drivetrain state for one robot loop, taken once at the top of the loop by {@link
+ * Swerve#updateSnapshot()} so every trigger, command and subsystem reads the same values without
+ * copying the Phoenix state under its lock again. Immutable, so the NT listener thread can read it
+ * too.
+ */
+public class DriveSnapshot {
+    /** Kept on the field by Swerve.updateSnapshot() */
+    @Getter private final Pose2d pose;
+
+    /** Robot relative, measured by the odometry thread */
+    @Getter private final ChassisSpeeds speeds;
+
+    @Getter private final SwerveModuleState[] moduleStates;
+
+    /** Phoenix time of the odometry update the state came from, seconds */
+    @Getter private final double timestamp;
+
+    DriveSnapshot(
+            Pose2d pose, ChassisSpeeds speeds, SwerveModuleState[] moduleStates, double timestamp) {
+        this.pose = pose;
+        this.speeds = speeds;
+        this.moduleStates = moduleStates;
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,108 @@
+package frc.robot.swerve;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+
+/**
+ * Fixed size ring of timestamped odometry poses for looking up where the robot was when a camera
+ * frame was captured. Poses are kept in primitive arrays, nothing is allocated on insert or lookup.
+ *
+ * <p>One thread adds poses (the odometry thread), any thread can look them up. The count is
+ * volatile and written after the slot, so a reader sees every slot up to the count it read. A slot
+ * is only overwritten a full buffer later, so lookups within the buffer's time span are safe.
+ */
+public class PoseHistory {
+    /** Result of a lookup, owned by the caller and reused */
+    public static class Sample {
+        public double x;
+        public double y;
+        public double theta;
+    }
+
+    private final int capacity;
+    private final double[] timestamp;
+    private final double[] x;
+    private final double[] y;
+    private final double[] theta;
+    private volatile long count = 0;
+
+    public PoseHistory(int capacity) {
+        this.capacity = capacity;
+        timestamp = new double[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        theta = new double[capacity];
+    }
+
+    /** Add a pose, timestamps must not go backwards */
+    public void add(double timestamp, Pose2d pose) {
+        add(timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+    }
+
+    public void add(double timestamp, double x, double y, double theta) {
+        long n = count;
+        if (n > 0 && timestamp < this.timestamp[(int) ((n - 1) % capacity)]) {
+            return;
+        }
+        int i = (int) (n % capacity);
+        this.timestamp[i] = timestamp;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.theta[i] = theta;
+        count = n + 1;
+    }
+
+    /**
+     * Interpolate the pose at a timestamp, newer than the newest pose gives the newest pose
+     *
+     * @return false if the buffer is empty or the timestamp is older than the oldest pose
+     */
+    public boolean lookup(double time, Sample out) {
+        long n = count;
+        if (n == 0) {
+            return false;
+        }
+        long newest = n - 1;
+        // leave a slot of margin for the writer
+        long oldest = Math.max(0, n - capacity + 1);
+        if (time >= timestamp[slot(newest)]) {
+            copy(slot(newest), out);
+            return true;
+        }
+        if (time < timestamp[slot(oldest)]) {
+            return false;
+        }
+
+        // last pose at or before the time
+        long lo = oldest;
+        long hi = newest;
+        while (lo < hi) {
+            long mid = (lo + hi + 1) >>> 1;
+            if (timestamp[slot(mid)] <= time) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int before = slot(lo);
+        int after = slot(lo + 1);
+        double span = timestamp[after] - timestamp[before];
+        double t = span > 0 ? (time - timestamp[before]) / span : 0;
+        out.x = x[before] + (x[after] - x[before]) * t;
+        out.y = y[before] + (y[after] - y[before]) * t;
+        out.theta =
+                MathUtil.angleModulus(
+                        theta[before] + MathUtil.angleModulus(theta[after] - theta[before]) * t);
+        return true;
+    }
+
+    private int slot(long index) {
+        return (int) (index % capacity);
+    }
+
+    private void copy(int slot, Sample out) {
+        out.x = x[slot];
+        out.y = y[slot];
+        out.theta = theta[slot];
+    }
+}
@@ -0,0 +1,133 @@
+package frc.robot.swerve;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Keeps the pose estimate where the robot can physically be. The robot center has to be at least
+ * a margin (half the robot) inside the field walls and outside every obstacle. Obstacles are convex
+ * polygons, a pose inside one grown by the margin is pushed out through its nearest edge.
+ *
+ * <p>Run once a loop after odometry and vision have updated the estimate, nothing is allocated
+ * unless the pose has to move.
+ */
+public class PoseIntegrity {
+    /** A convex polygon as outward edge normals, a point p is past an edge by n.p - offset */
+    private static class Obstacle {
+        final double[] normalX;
+        final double[] normalY;
+        final double[] offset;
+
+        Obstacle(Translation2d[] vertices) {
+            int n = vertices.length;
+            normalX = new double[n];
+            normalY = new double[n];
+            offset = new double[n];
+            // Outward is to the right of each edge when the vertices go counter clockwise
+            double area = 0;
+            for (int i = 0; i < n; i++) {
+                Translation2d a = vertices[i];
+                Translation2d b = vertices[(i + 1) % n];
+                area += a.getX() * b.getY() - b.getX() * a.getY();
+            }
+            double sign = area > 0 ? 1 : -1;
+            for (int i = 0; i < n; i++) {
+                Translation2d a = vertices[i];
+                Translation2d b = vertices[(i + 1) % n];
+                double dx = b.getX() - a.getX();
+                double dy = b.getY() - a.getY();
+                double length = Math.hypot(dx, dy);
+                normalX[i] = sign * dy / length;
+                normalY[i] = -sign * dx / length;
+                offset[i] = normalX[i] * a.getX() + normalY[i] * a.getY();
+            }
+        }
+    }
+
+    private final double minX;
+    private final double maxX;
+    private final double minY;
+    private final double maxY;
+    private final double margin;
+    private final List<Obstacle> obstacles = new ArrayList<>();
+
+    @Getter private long fieldCorrections = 0;
+    @Getter private long obstacleCorrections = 0;
+
+    /** @param margin distance the robot center keeps from walls and obstacles, meters */
+    public PoseIntegrity(double fieldLength, double fieldWidth, double margin) {
+        this.margin = margin;
+        minX = margin;
+        maxX = fieldLength - margin;
+        minY = margin;
+        maxY = fieldWidth - margin;
+    }
+
+    /** @param vertices corners of a convex polygon in order, either direction */
+    public PoseIntegrity withObstacle(Translation2d... vertices) {
+        obstacles.add(new Obstacle(vertices));
+        return this;
+    }
+
+    /** A regular hexagon with a face normal at 0 degrees, like the reef */
+    public PoseIntegrity withHexagon(Translation2d center, double apothem) {
+        double radius = apothem / Math.cos(Math.PI / 6);
+        Translation2d[] vertices = new Translation2d[6];
+        for (int i = 0; i < 6; i++) {
+            double angle = Math.PI / 6 + i * Math.PI / 3;
+            vertices[i] =
+                    new Translation2d(
+                            center.getX() + radius * Math.cos(angle),
+                            center.getY() + radius * Math.sin(angle));
+        }
+        return withObstacle(vertices);
+    }
+
+    /** @return the pose moved into the allowed area, the same instance if it already was */
+    public Pose2d correct(Pose2d pose) {
+        double x = pose.getX();
+        double y = pose.getY();
+        boolean moved = false;
+
+        for (Obstacle obstacle : obstacles) {
+            int nearest = -1;
+            double nearestDepth = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < obstacle.offset.length; i++) {
+                double past =
+                        obstacle.normalX[i] * x + obstacle.normalY[i] * y - obstacle.offset[i];
+                if (past >= margin) {
+                    // outside this edge, so outside the grown polygon
+                    nearest = -1;
+                    break;
+                }
+                if (past > nearestDepth) {
+                    nearestDepth = past;
+                    nearest = i;
+                }
+            }
+            if (nearest >= 0) {
+                double push = margin - nearestDepth;
+                x += obstacle.normalX[nearest] * push;
+                y += obstacle.normalY[nearest] * push;
+                obstacleCorrections++;
+                moved = true;
+            }
+        }
+
+        // the walls win over an obstacle push
+        double clampedX = Math.max(minX, Math.min(maxX, x));
+        double clampedY = Math.max(minY, Math.min(maxY, y));
+        if (clampedX != x || clampedY != y) {
+            fieldCorrections++;
+            moved = true;
+        }
+
+        if (!moved) {
+            return pose;
+        }
+        return new Pose2d(clampedX, clampedY, pose.getRotation());
+    }
+}
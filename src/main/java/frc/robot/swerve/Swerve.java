@@ -37,7 +37,9 @@ import frc.reefscape.FieldHelpers;
 import frc.robot.Robot;
 import frc.spectrumLib.SpectrumSubsystem;
 import frc.spectrumLib.Telemetry;
+import frc.spectrumLib.talonFX.CanBusBudget;
 import frc.spectrumLib.util.Util;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 import lombok.Getter;
@@ -66,6 +68,23 @@ public class Swerve extends SwerveDrivetrain<TalonFX, TalonFX, CANcoder>
 
     private final SwerveRequest.ApplyRobotSpeeds AutoRequest = new SwerveRequest.ApplyRobotSpeeds();
 
+    /** Odometry poses by FPGA time, about a second at the 250hz odometry rate */
+    @Getter private final PoseHistory poseHistory = new PoseHistory(256);
+
+    /** This loop's drivetrain state, see updateSnapshot() */
+    private volatile DriveSnapshot snapshot;
+
+    /** Copies of the Phoenix state, each one taken under the drivetrain's state lock */
+    @Getter private long stateCopies = 0;
+
+    /** Snapshot reads, the listener thread reads it too */
+    private final LongAdder snapshotReads = new LongAdder();
+
+    @Getter private long snapshotReadsLastLoop = 0;
+
+    /** Keeps the estimate on the field, see updateSnapshot() */
+    @Getter private final PoseIntegrity poseIntegrity;
+
     // Logging publisher
     StructArrayPublisher<SwerveModuleState> moduleStatePublisher =
             NetworkTableInstance.getDefault()
@@ -89,6 +108,10 @@ public class Swerve extends SwerveDrivetrain<TalonFX, TalonFX, CANcoder>
                 config.getModules());
         // this.robotConfig = robotConfig;
         this.config = config;
+        poseIntegrity =
+                createPoseIntegrity(config.getRobotLength(), config.isKeepPoseOutOfReef());
+        // So getSnapshot() has something to return before the first loop
+        updateSnapshot();
         configurePathPlanner();
 
         rotationController = new RotationController(config);
@@ -101,6 +124,8 @@ public class Swerve extends SwerveDrivetrain<TalonFX, TalonFX, CANcoder>
             startSimThread();
         }
 
+        CanBusBudget.addDevice(config.getCanBus().getName(), getExpectedCanFrames());
+
         SendableRegistry.add(this, "Swerve");
         SmartDashboard.putData(this);
         Robot.add(this);
@@ -109,7 +134,21 @@ public class Swerve extends SwerveDrivetrain<TalonFX, TalonFX, CANcoder>
         Telemetry.print(getName() + " Subsystem Initialized: ");
     }
 
+    /**
+     * Estimate of the swerve CAN traffic for the CanBusBudget. The odometry thread reads drive and
+     * steer position and velocity of every module plus the pigeon yaw and yaw rate, and each motor
+     * gets a control request.
+     */
+    private double getExpectedCanFrames() {
+        // Phoenix runs odometry at 250hz on a CAN FD bus and 100hz otherwise
+        double odometryFrequency = config.getCanBus().isNetworkFD() ? 250 : 100;
+        int modules = getModules().length;
+        double odometrySignals = modules * 4 + 2;
+        return odometrySignals * odometryFrequency + modules * 2 * CanBusBudget.CONTROL_FRAME_HZ;
+    }
+
     protected void log(SwerveDriveState state) {
+        poseHistory.add(Utils.currentTimeToFPGATime(state.Timestamp), state.Pose);
         moduleStatePublisher.set(state.ModuleStates);
     }
 
@@ -143,6 +182,11 @@ public class Swerve extends SwerveDrivetrain<TalonFX, TalonFX, CANcoder>
         builder.addDoubleProperty("Pose Y", () -> getRobotPose().getY(), null);
         builder.addDoubleProperty(
                 "Pose Rotation Degrees", () -> getRobotPose().getRotation().getDegrees(), null);
+        builder.addDoubleProperty("StateCopies", this::getStateCopies, null);
+        builder.addDoubleProperty("SnapshotReadsPerLoop", this::getSnapshotReadsLastLoop, null);
+        builder.addDoubleProperty("FieldCorrections", poseIntegrity::getFieldCorrections, null);
+        builder.addDoubleProperty(
+                "ObstacleCorrections", poseIntegrity::getObstacleCorrections, null);
 
         SmartDashboard.putData(
                 "Swerve Drive",
@@ -172,31 +216,85 @@ public class Swerve extends SwerveDrivetrain<TalonFX, TalonFX, CANcoder>
                 null);
     }
 
+    /** The robot's pose from this loop's snapshot, kept on the field by updateSnapshot() */
+    public Pose2d getRobotPose() {
+        return getSnapshot().getPose();
+    }
+
     /**
-     * The function `getRobotPose` returns the robot's pose after checking and updating it.
-     *
-     * @return The `getRobotPose` method is returning the robot's current pose after calling the
-     *     `seedCheckedPose` method with the current pose as an argument.
+     * Copy the drivetrain state for this loop, called once at the top of robotPeriodic() so
+     * nothing else has to take the state lock. The copied pose is moved back onto the field (and
+     * out of the reefs) if odometry or last loop's vision updates pushed it somewhere the robot
+     * can't be, the estimate is reset at most once a loop.
      */
-    public Pose2d getRobotPose() {
-        Pose2d pose = getState().Pose;
-        return keepPoseOnField(pose);
+    public void updateSnapshot() {
+        SwerveDriveState state = getState();
+        stateCopies++;
+        SwerveModuleState[] moduleStates =
+                new SwerveModuleState[state.ModuleStates == null ? 0 : state.ModuleStates.length];
+        for (int i = 0; i < moduleStates.length; i++) {
+            moduleStates[i] =
+                    new SwerveModuleState(
+                            state.ModuleStates[i].speed, state.ModuleStates[i].angle);
+        }
+        ChassisSpeeds speeds =
+                state.Speeds == null
+                        ? new ChassisSpeeds()
+                        : new ChassisSpeeds(state.Speeds.vx, state.Speeds.vy, state.Speeds.omega);
+        Pose2d pose = state.Pose == null ? new Pose2d() : state.Pose;
+        if (state.Pose != null) {
+            Pose2d corrected = poseIntegrity.correct(pose);
+            if (corrected != pose) {
+                super.resetPose(corrected);
+                pose = corrected;
+            }
+        }
+        snapshot = new DriveSnapshot(pose, speeds, moduleStates, state.Timestamp);
+        snapshotReadsLastLoop = snapshotReads.sumThenReset();
     }
 
-    // Keep the robot on the field
-    private Pose2d keepPoseOnField(Pose2d pose) {
-        double halfRobot = config.getRobotLength() / 2;
-        double x = pose.getX();
-        double y = pose.getY();
+    /**
+     * This loop's drivetrain state. Only updateSnapshot() on the main loop takes a new one, so the
+     * listener thread gets the last snapshot instead of resetting the pose from its own thread.
+     */
+    public DriveSnapshot getSnapshot() {
+        snapshotReads.increment();
+        return snapshot;
+    }
 
-        double newX = Util.limit(x, halfRobot, Field.getFieldLength() - halfRobot);
-        double newY = Util.limit(y, halfRobot, Field.getFieldWidth() - halfRobot);
+    /** Keeps the snapshot on the new pose for the rest of the loop */
+    @Override
+    public void resetPose(Pose2d pose) {
+        super.resetPose(pose);
+        DriveSnapshot current = snapshot;
+        if (current != null) {
+            snapshot =
+                    new DriveSnapshot(
+                            pose,
+                            current.getSpeeds(),
+                            current.getModuleStates(),
+                            current.getTimestamp());
+        }
+    }
 
-        if (x != newX || y != newY) {
-            pose = new Pose2d(new Translation2d(newX, newY), pose.getRotation());
-            resetPose(pose);
+    /**
+     * Runs in the constructor, so it only uses the Field constants. FieldHelpers would load Zones,
+     * which reads Robot.getSwerve() before it is set.
+     */
+    static PoseIntegrity createPoseIntegrity(double robotLength, boolean keepOutOfReef) {
+        PoseIntegrity integrity =
+                new PoseIntegrity(Field.fieldLength, Field.fieldWidth, robotLength / 2);
+        if (keepOutOfReef) {
+            Translation2d blueReef = Field.Reef.getCenter();
+            Translation2d redReef =
+                    new Translation2d(
+                            Field.fieldLength - blueReef.getX(),
+                            Field.fieldWidth - blueReef.getY());
+            integrity
+                    .withHexagon(blueReef, Field.Reef.getApothem())
+                    .withHexagon(redReef, Field.Reef.getApothem());
         }
-        return pose;
+        return integrity;
     }
 
     public Trigger inXzone(double minXmeter, double maxXmeter) {
@@ -249,8 +347,9 @@ public class Swerve extends SwerveDrivetrain<TalonFX, TalonFX, CANcoder>
         return run(() -> this.setControl(requestSupplier.get())).ignoringDisable(true);
     }
 
+    /** Robot relative, from this loop's snapshot */
     public ChassisSpeeds getCurrentRobotChassisSpeeds() {
-        return getKinematics().toChassisSpeeds(getState().ModuleStates);
+        return getSnapshot().getSpeeds();
     }
 
     private void setPilotPerspective() {
@@ -486,7 +585,7 @@ public class Swerve extends SwerveDrivetrain<TalonFX, TalonFX, CANcoder>
         }
 
         AutoBuilder.configure(
-                () -> this.getState().Pose, // Supplier of current robot pose
+                this::getRobotPose, // Supplier of current robot pose
                 this::resetPose, // Consumer for seeding pose against auto
                 this::getCurrentRobotChassisSpeeds,
                 speeds ->
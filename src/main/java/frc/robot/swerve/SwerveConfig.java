@@ -31,6 +31,9 @@ public class SwerveConfig {
     @Getter @Setter private double robotWidth = Units.inchesToMeters(29.5);
     @Getter @Setter private double robotLength = Units.inchesToMeters(29.5);
 
+    /** Push the pose estimate out of the reefs as well as keeping it on the field */
+    @Getter @Setter private boolean keepPoseOutOfReef = false;
+
     @Getter @Setter private double maxAngularRate = 1.5 * Math.PI; // rad/s
     @Getter @Setter private double deadband = 0.00;
 
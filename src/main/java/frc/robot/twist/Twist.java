@@ -1,5 +1,6 @@
 package frc.robot.twist;
 
+import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.configs.TalonFXConfigurator;
 import com.ctre.phoenix6.hardware.TalonFX;
@@ -125,6 +126,7 @@ public class Twist extends Mechanism {
     @Getter private TwistConfig config;
     private SpectrumCANcoder canCoder;
     private SpectrumCANcoderConfig canCoderConfig;
+    private int wrappedDegreesChannel = -1;
     @Getter private TwistSim sim;
     CANcoderSimState canCoderSim;
 
@@ -149,7 +151,7 @@ public class Twist extends Mechanism {
                                 SpectrumCANcoder.CANCoderFeedbackType.FusedCANcoder);
             }
 
-            setInitialPosition();
+            queueDeviceTask("initial position", this::setInitialPosition);
         }
 
         simulationInit();
@@ -176,10 +178,6 @@ public class Twist extends Mechanism {
     public void initSendable(NTSendableBuilder builder) {
         if (isAttached()) {
             builder.addStringProperty("CurrentCommand", this::getCurrentCommandName, null);
-            builder.addDoubleProperty("Degrees", this::getPositionDegrees, null);
-            // builder.addDoubleProperty("Velocity", this::getVelocityRPM, null);
-            builder.addDoubleProperty("Motor Voltage", this::getVoltage, null);
-            builder.addDoubleProperty("StatorCurrent", this::getStatorCurrent, null);
             // builder.addDoubleProperty("Front-TX", Robot.getVision().frontLL::getTagTx, null);
             // builder.addDoubleProperty("Front-TA", Robot.getVision().frontLL::getTagTA, null);
             // builder.addDoubleProperty(
@@ -189,19 +187,19 @@ public class Twist extends Mechanism {
         }
     }
 
-    private void setInitialPosition() {
+    private StatusCode setInitialPosition() {
         if (canCoder != null) {
             if (canCoder.isAttached()
                     && canCoder.canCoderResponseOK(
                             canCoder.getCanCoder().getAbsolutePosition().getStatus())) {
-                motor.setPosition(
+                return motor.setPosition(
                         canCoder.getCanCoder().getAbsolutePosition().getValueAsDouble()
                                 / config.getCANcoderSensorToMechanismRatio());
             } else {
-                motor.setPosition(degreesToRotations(() -> config.getInitPosition()));
+                return motor.setPosition(degreesToRotations(() -> config.getInitPosition()));
             }
         } else {
-            motor.setPosition(degreesToRotations(() -> config.getInitPosition()));
+            return motor.setPosition(degreesToRotations(() -> config.getInitPosition()));
         }
     }
 
@@ -526,10 +524,12 @@ public class Twist extends Mechanism {
     }
 
     public Trigger atDegrees(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        Math.abs(((getPositionDegrees() % 360) + 360) % 360 - target.getAsDouble())
-                                < tolerance.getAsDouble());
+        // Compare against the position wrapped to 0-360 degrees
+        if (wrappedDegreesChannel < 0) {
+            wrappedDegreesChannel =
+                    thresholds.addChannel(() -> ((getPositionDegrees() % 360) + 360) % 360);
+        }
+        return thresholds.at(wrappedDegreesChannel, target, tolerance, deg -> deg);
     }
 
     // --------------------------------------------------------------------------------
@@ -0,0 +1,215 @@
+package frc.robot.vision;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableValue;
+import edu.wpi.first.wpilibj.Timer;
+import frc.spectrumLib.vision.CameraProjection;
+import frc.spectrumLib.vision.Limelight;
+import frc.spectrumLib.vision.LimelightHelpers;
+import frc.spectrumLib.vision.LimelightWriteCache;
+import java.util.Optional;
+import lombok.Getter;
+
+/**
+ * Narrows one Limelight to the tag the robot is aligning to. The tag is projected into the camera
+ * from the current pose, the crop window is set around it with a margin for the pose error and
+ * robot motion since the frame, and the fiducial filter and priority tag are set to it. A smaller
+ * crop means fewer pixels to search, which shows up as a higher FPS and lower pipeline latency.
+ *
+ * <p>Goes back to the full view when there is no focus tag, the tag isn't predicted to be in the
+ * image, or the camera stops seeing a target for a few loops while cropped (the prediction was
+ * wrong). After a miss it stays on the full view for a holdoff so the pose can recover from the
+ * unfiltered tags. The full view puts back the crop, filter and priority tag the camera had before
+ * the focus, nothing is written until a focus is applied. Settings are only written to NT when they
+ * change. Main loop only.
+ */
+public class LimelightFocus {
+    /** FRC 2025 tags are 6.5in on a side */
+    private static final double tagSize = Units.inchesToMeters(6.5);
+
+    /** Crop values are rounded to this so small pose changes don't write to NT every loop */
+    private static final double cropStep = 0.05;
+
+    /** Settings the focus writes, put back on the full view */
+    private static final String[] focusTopics = {"crop", "fiducial_id_filters_set", "priorityid"};
+
+    /** How often the FPS is recomputed from the heartbeat */
+    private static final double rateWindow = 0.5;
+
+    private final Limelight limelight;
+    private final AprilTagFieldLayout layout;
+    private final CameraProjection projection;
+    private final double margin;
+    private final int missLimit;
+    private final double holdoffSeconds;
+    private final double maxDistance;
+    /** What the focus topics held before the focus, null while on the full view */
+    private NetworkTableValue[] previous;
+    private final CameraProjection.Projection projected = new CameraProjection.Projection();
+
+    // Last values written, nothing until the first focus
+    @Getter private boolean cropped = false;
+    /** -1 on the full view */
+    @Getter private int focusedTag = -1;
+    private double xMin, xMax, yMin, yMax;
+    private int missedLoops = 0;
+    private double fullViewUntil = 0;
+
+    private final DoubleSubscriber heartbeat;
+    private final DoubleSubscriber pipelineLatency;
+    private final DoubleSubscriber captureLatency;
+    private double lastHeartbeat = 0;
+    private double lastRateTime = 0;
+    @Getter private double fps = 0;
+
+    /**
+     * @param margin added to each side of the tag, in image coordinates (the image is 2 wide)
+     * @param missLimit loops cropped without a target before going back to the full view
+     */
+    public LimelightFocus(
+            Limelight limelight,
+            CameraProjection projection,
+            AprilTagFieldLayout layout,
+            double margin,
+            int missLimit,
+            double holdoffSeconds,
+            double maxDistance) {
+        this.limelight = limelight;
+        this.projection = projection;
+        this.layout = layout;
+        this.margin = margin;
+        this.missLimit = missLimit;
+        this.holdoffSeconds = holdoffSeconds;
+        this.maxDistance = maxDistance;
+        NetworkTable table = LimelightHelpers.getLimelightNTTable(limelight.getName());
+        heartbeat = table.getDoubleTopic("hb").subscribe(0);
+        pipelineLatency = table.getDoubleTopic("tl").subscribe(0);
+        captureLatency = table.getDoubleTopic("cl").subscribe(0);
+    }
+
+    /** @param tagID tag to focus on, -1 for the full view */
+    public void update(Pose2d robotPose, int tagID) {
+        double now = Timer.getFPGATimestamp();
+        updateRate(now);
+
+        if (tagID < 0
+                || layout == null
+                || now < fullViewUntil
+                || !predict(robotPose, layout.getTagPose(tagID))) {
+            showFullView();
+            return;
+        }
+
+        if (cropped && focusedTag == tagID && !limelight.targetInView()) {
+            if (++missedLoops >= missLimit) {
+                fullViewUntil = now + holdoffSeconds;
+                showFullView();
+                return;
+            }
+        } else {
+            missedLoops = 0;
+        }
+
+        double halfWidth = projection.getImageHalfWidth(tagSize, projected.distance) + margin;
+        double halfHeight = projection.getImageHalfHeight(tagSize, projected.distance) + margin;
+        crop(
+                projected.imageX - halfWidth,
+                projected.imageX + halfWidth,
+                projected.imageY - halfHeight,
+                projected.imageY + halfHeight,
+                tagID);
+    }
+
+    /** @return true if the tag should be in the image, the projection is left in projected */
+    private boolean predict(Pose2d robotPose, Optional<Pose3d> tagPose) {
+        return tagPose.isPresent()
+                && projection.project(
+                        projection.getCameraPose(robotPose), tagPose.get(), maxDistance, projected);
+    }
+
+    private void crop(double xMin, double xMax, double yMin, double yMax, int tagID) {
+        xMin = round(xMin);
+        xMax = round(xMax);
+        yMin = round(yMin);
+        yMax = round(yMax);
+        if (!cropped) {
+            saveSettings();
+        }
+        if (!cropped
+                || xMin != this.xMin
+                || xMax != this.xMax
+                || yMin != this.yMin
+                || yMax != this.yMax) {
+            limelight.setCropWindow(xMin, xMax, yMin, yMax);
+            this.xMin = xMin;
+            this.xMax = xMax;
+            this.yMin = yMin;
+            this.yMax = yMax;
+        }
+        if (!cropped || tagID != focusedTag) {
+            limelight.setFiducialFilter(new int[] {tagID});
+            limelight.setPriorityTag(tagID);
+            focusedTag = tagID;
+            missedLoops = 0;
+        }
+        cropped = true;
+    }
+
+    private void showFullView() {
+        missedLoops = 0;
+        if (!cropped) {
+            return;
+        }
+        restoreSettings();
+        cropped = false;
+        focusedTag = -1;
+    }
+
+    private void saveSettings() {
+        if (!limelight.isAttached()) {
+            return;
+        }
+        LimelightWriteCache writes = limelight.getWrites();
+        previous = new NetworkTableValue[focusTopics.length];
+        for (int i = 0; i < focusTopics.length; i++) {
+            previous[i] = writes.get(focusTopics[i]);
+        }
+    }
+
+    private void restoreSettings() {
+        if (previous == null) {
+            return;
+        }
+        LimelightWriteCache writes = limelight.getWrites();
+        for (int i = 0; i < focusTopics.length; i++) {
+            writes.restore(focusTopics[i], previous[i]);
+        }
+        previous = null;
+    }
+
+    private static double round(double value) {
+        return Math.max(-1, Math.min(1, Math.round(value / cropStep) * cropStep));
+    }
+
+    /** The heartbeat counts up once per processed frame */
+    private void updateRate(double now) {
+        double elapsed = now - lastRateTime;
+        if (elapsed < rateWindow) {
+            return;
+        }
+        double beat = heartbeat.get();
+        fps = lastRateTime > 0 && beat >= lastHeartbeat ? (beat - lastHeartbeat) / elapsed : 0;
+        lastHeartbeat = beat;
+        lastRateTime = now;
+    }
+
+    /** Pipeline plus capture latency of the latest frame */
+    public double getLatencyMs() {
+        return pipelineLatency.get() + captureLatency.get();
+    }
+}
@@ -7,29 +7,41 @@ import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.networktables.NTSendable;
 import edu.wpi.first.networktables.NTSendableBuilder;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.util.sendable.SendableRegistry;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.Subsystem;
 import frc.reefscape.FieldHelpers;
+import frc.reefscape.ReefPoseTable;
 import frc.reefscape.offsets.HomeOffsets;
 import frc.robot.Robot;
 import frc.robot.RobotStates;
+import frc.robot.swerve.DriveSnapshot;
+import frc.robot.swerve.PoseHistory;
 import frc.spectrumLib.Telemetry;
 import frc.spectrumLib.Telemetry.PrintPriority;
+import frc.spectrumLib.profiler.LoopProfiler;
 import frc.spectrumLib.util.Util;
+import frc.spectrumLib.vision.CameraProjection;
 import frc.spectrumLib.vision.Limelight;
 import frc.spectrumLib.vision.Limelight.LimelightConfig;
-import frc.spectrumLib.vision.LimelightHelpers.RawFiducial;
+import frc.spectrumLib.vision.LimelightFrame;
+import frc.spectrumLib.vision.LimelightHelpers;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.Arrays;
+import java.util.EnumSet;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -54,6 +66,10 @@ public class Vision implements NTSendable, Subsystem {
                         .withTranslation(-0.215, 0.0, 0.188)
                         .withRotation(0, Math.toRadians(28), Math.toRadians(180));
 
+        /* Limelight 3G field of view */
+        @Getter double horizontalFovDegrees = 82;
+        @Getter double verticalFovDegrees = 56.2;
+
         /* Pipeline configs */
         @Getter final int frontTagPipeline = 0;
         @Getter final int backTagPipeline = 0;
@@ -67,20 +83,77 @@ public class Vision implements NTSendable, Subsystem {
         @Getter
         final Matrix<N3, N1> visionStdMatrix =
                 VecBuilder.fill(visionStdDevX, visionStdDevY, visionStdDevTheta);
+
+        /* Ingestion */
+        /**
+         * POLLING runs the vision updates in periodic(), EVENT_DRIVEN parses and rejects each frame
+         * on the NT listener thread as soon as it arrives and periodic() only adds the accepted
+         * measurements to the pose estimator
+         */
+        @Getter @Setter IngestionMode ingestionMode = IngestionMode.POLLING;
+
+        /** Accepted measurements that can wait for the main loop in EVENT_DRIVEN mode */
+        @Getter int measurementQueueSize = 32;
+
+        /**
+         * Fuse the accepted measurements of a loop whose capture times are within the window into
+         * one pose estimator update, see VisionFusion
+         */
+        @Getter @Setter boolean fuseMeasurements = true;
+
+        @Getter double fusionWindowSeconds = 0.010;
+
+        /* Focus, see LimelightFocus */
+        /** Crop and filter the Limelights to the reef tag being aligned to */
+        @Getter @Setter boolean focusWhileAligning = true;
+
+        /** Added to each side of the predicted tag, the image is 2 wide */
+        @Getter double focusMargin = 0.2;
+
+        /** Loops cropped without a target before going back to the full view */
+        @Getter int focusMissLimit = 5;
+
+        @Getter double focusHoldoffSeconds = 1.0;
+        @Getter double focusMaxDistance = 4.0;
+
+        /** Log raw Limelight data and odometry so a match can be run through VisionReplay */
+        @Getter @Setter boolean recordReplay = false;
+
+        /* Simulated Limelights, see VisionSystem */
+        @Getter double simFps = 30;
+        @Getter double simLatencyMs = 35;
+        @Getter double simLatencyStdDevMs = 5;
+        /** Position std dev in meters per meter of tag distance */
+        @Getter double simXYNoise = 0.02;
+        /** MegaTag1 yaw std dev in degrees per meter of tag distance */
+        @Getter double simYawNoiseDegrees = 1;
+    }
+
+    public enum IngestionMode {
+        POLLING,
+        EVENT_DRIVEN
+    }
+
+    /** Which updates vision runs, recorded by ordinal for the replay */
+    enum IntegrationPhase {
+        NONE,
+        DISABLED,
+        TELEOP,
+        AUTON
     }
 
     /** Limelights */
     @Getter public final Limelight frontLL;
 
-    // private static final HomeOffsets offsets;
-    private static final HomeOffsets offsets = new HomeOffsets();
-
     public final Limelight backLL;
 
     public final Limelight[] allLimelights;
 
     private final DecimalFormat df = new DecimalFormat();
 
+    /** Reef alignment targets for the offsets profile, rebuilt if the profile or layout changes */
+    private ReefPoseTable reefTargets;
+
     @Getter @Setter private boolean isIntegrating = false;
 
     @Getter private boolean isAiming = false;
@@ -92,6 +165,32 @@ public class Vision implements NTSendable, Subsystem {
 
     private VisionConfig config;
 
+    private final boolean eventDriven;
+    private final VisionMeasurementQueue measurementQueue;
+    private final VisionMeasurementQueue.Sink swerveSink = this::addToSwerve;
+    private final VisionFusion fusion;
+    private final VisionMeasurementQueue.Sink fusionSink;
+
+    /** Time spent in the pose estimator this loop, recorded to the LoopProfiler */
+    private long estimatorMicros = 0;
+
+    @Getter private long estimatorUpdates = 0;
+    private volatile IntegrationPhase integrationPhase = IntegrationPhase.NONE;
+
+    /** Swapped as a whole when reloaded, read once per pass by each thread */
+    @Getter private volatile VisionPolicies policies = VisionPolicies.load();
+
+    private final VisionIngestContext loopContext = new VisionIngestContext();
+    private final VisionIngestContext listenerContext = new VisionIngestContext();
+
+    private VisionRecorder recorder;
+
+    private final LimelightFocus frontFocus;
+    private final LimelightFocus backFocus;
+
+    /** Tag the cameras are narrowed to, -1 for the full view */
+    @Getter private int focusTagID = -1;
+
     public Vision(VisionConfig config) {
         this.config = config;
 
@@ -101,6 +200,18 @@ public class Vision implements NTSendable, Subsystem {
 
         allLimelights = new Limelight[] {frontLL, backLL};
 
+        eventDriven = config.getIngestionMode() == IngestionMode.EVENT_DRIVEN;
+        measurementQueue = new VisionMeasurementQueue(config.getMeasurementQueueSize());
+        fusion =
+                config.isFuseMeasurements()
+                        ? new VisionFusion(
+                                config.getFusionWindowSeconds(), config.getMeasurementQueueSize())
+                        : null;
+        fusionSink = fusion != null ? fusion::add : swerveSink;
+        if (eventDriven) {
+            startEventIngestion();
+        }
+
         // logging
         df.setMaximumFractionDigits(2);
 
@@ -119,8 +230,34 @@ public class Vision implements NTSendable, Subsystem {
             System.err.println(e);
         }
 
+        frontFocus = createFocus(frontLL, config.frontConfig);
+        backFocus = createFocus(backLL, config.backConfig);
+
+        PoseHistory poseHistory = Robot.getSwerve().getPoseHistory();
+        loopContext.setPoseHistory(poseHistory);
+        listenerContext.setPoseHistory(poseHistory);
+
+        if (config.isRecordReplay()) {
+            recorder = new VisionRecorder(allLimelights);
+        }
+
         this.register();
         telemetryInit();
+        SmartDashboard.putData("Vision/ReloadPolicy", reloadPolicies());
+    }
+
+    private LimelightFocus createFocus(Limelight limelight, LimelightConfig cameraConfig) {
+        return new LimelightFocus(
+                limelight,
+                new CameraProjection(
+                        cameraConfig,
+                        config.getHorizontalFovDegrees(),
+                        config.getVerticalFovDegrees()),
+                tagLayout,
+                config.getFocusMargin(),
+                config.getFocusMissLimit(),
+                config.getFocusHoldoffSeconds(),
+                config.getFocusMaxDistance());
     }
 
     @Override
@@ -141,14 +278,37 @@ public class Vision implements NTSendable, Subsystem {
     @Override
     public void periodic() {
         setLimeLightOrientation();
-        disabledLimelightUpdates();
-        enabledLimelightUpdates();
-        autonLimelightUpdates();
+        estimatorMicros = 0;
+        if (eventDriven) {
+            updateIntegrationPhase();
+            measurementQueue.drain(fusionSink);
+        } else {
+            disabledLimelightUpdates();
+            enabledLimelightUpdates();
+            autonLimelightUpdates();
+        }
+        if (fusion != null) {
+            fusion.flush(swerveSink);
+        }
+        LoopProfiler.record("Vision.estimator", estimatorMicros);
+        updateFocus();
+
+        if (recorder != null) {
+            recorder.record(getIntegrationPhase().ordinal());
+        }
 
         Robot.getField2d().getObject(frontLL.getCameraName()).setPose(getFrontMegaTag2Pose());
         Robot.getField2d().getObject(backLL.getCameraName()).setPose(getBackMegaTag2Pose());
     }
 
+    /** Always updated so the FPS and latency are measured with and without the focus */
+    private void updateFocus() {
+        Pose2d pose = Robot.getSwerve().getRobotPose();
+        int tagID = config.isFocusWhileAligning() ? focusTagID : -1;
+        frontFocus.update(pose, tagID);
+        backFocus.update(pose, tagID);
+    }
+
     public Pose2d getFrontMegaTag2Pose() {
         Pose2d pose = frontLL.getMegaTag2_Pose2d();
         if (pose != null) {
@@ -178,6 +338,31 @@ public class Vision implements NTSendable, Subsystem {
         builder.addDoubleProperty("BackTX", backLL::getTagTx, null);
         builder.addDoubleProperty("BackTA", backLL::getTagTA, null);
         builder.addDoubleProperty("BackTagID", backLL::getClosestTagID, null);
+        builder.addDoubleProperty("FrontMT1New", frontLL::getNewMegaTag1Frames, null);
+        builder.addDoubleProperty("FrontMT1Duplicate", frontLL::getDuplicateMegaTag1Frames, null);
+        builder.addDoubleProperty("FrontMT2New", frontLL::getNewMegaTag2Frames, null);
+        builder.addDoubleProperty("FrontMT2Duplicate", frontLL::getDuplicateMegaTag2Frames, null);
+        builder.addDoubleProperty("BackMT1New", backLL::getNewMegaTag1Frames, null);
+        builder.addDoubleProperty("BackMT1Duplicate", backLL::getDuplicateMegaTag1Frames, null);
+        builder.addDoubleProperty("BackMT2New", backLL::getNewMegaTag2Frames, null);
+        builder.addDoubleProperty("BackMT2Duplicate", backLL::getDuplicateMegaTag2Frames, null);
+        builder.addDoubleProperty("FrontFPS", frontFocus::getFps, null);
+        builder.addDoubleProperty("FrontLatencyMs", frontFocus::getLatencyMs, null);
+        builder.addDoubleProperty("FrontFocusTag", frontFocus::getFocusedTag, null);
+        builder.addDoubleProperty("BackFPS", backFocus::getFps, null);
+        builder.addDoubleProperty("BackLatencyMs", backFocus::getLatencyMs, null);
+        builder.addDoubleProperty("BackFocusTag", backFocus::getFocusedTag, null);
+        builder.addDoubleProperty("FrontWritesSent", frontLL.getWrites()::getSent, null);
+        builder.addDoubleProperty(
+                "FrontWritesSuppressed", frontLL.getWrites()::getSuppressed, null);
+        builder.addDoubleProperty("BackWritesSent", backLL.getWrites()::getSent, null);
+        builder.addDoubleProperty("BackWritesSuppressed", backLL.getWrites()::getSuppressed, null);
+        builder.addDoubleProperty("QueueDropped", measurementQueue::getDropped, null);
+        builder.addDoubleProperty("EstimatorUpdates", this::getEstimatorUpdates, null);
+        if (fusion != null) {
+            builder.addDoubleProperty("FusionAdded", fusion::getAdded, null);
+            builder.addDoubleProperty("FusionEmitted", fusion::getEmitted, null);
+        }
     }
 
     private void setLimeLightOrientation() {
@@ -186,6 +371,130 @@ public class Vision implements NTSendable, Subsystem {
         for (Limelight limelight : allLimelights) {
             limelight.setRobotOrientation(yaw);
         }
+        // One flush for every camera, the orientation writes don't flush on their own
+        LimelightHelpers.Flush();
+    }
+
+    /* Event driven ingestion */
+
+    /**
+     * Listen for new pose arrays from each camera. NT runs the listeners on its own thread, so each
+     * frame is parsed and rejected as soon as it arrives instead of on the next loop.
+     */
+    private void startEventIngestion() {
+        NetworkTableInstance inst = NetworkTableInstance.getDefault();
+        for (Limelight limelight : allLimelights) {
+            if (!limelight.isAttached()) {
+                continue;
+            }
+            // Only touched by the listener thread
+            LimelightFrame frame = new LimelightFrame(limelight.getName());
+            NetworkTable table = LimelightHelpers.getLimelightNTTable(limelight.getName());
+            for (String topic : new String[] {"botpose_wpiblue", "botpose_orb_wpiblue"}) {
+                inst.addListener(
+                        table.getTopic(topic),
+                        EnumSet.of(NetworkTableEvent.Kind.kValueAll),
+                        event -> ingestFrame(limelight, frame));
+            }
+        }
+        Telemetry.print("Vision: event driven ingestion started", PrintPriority.HIGH);
+    }
+
+    /** Runs on the NT listener thread */
+    private void ingestFrame(Limelight ll, LimelightFrame frame) {
+        IntegrationPhase phase = integrationPhase;
+        if (phase == IntegrationPhase.NONE) {
+            return;
+        }
+        try {
+            // Both pose topics trigger this, the dedup skips the pose type that didn't change
+            frame.read();
+            VisionPolicies policies = this.policies;
+            captureRobotState(listenerContext);
+            switch (phase) {
+                case DISABLED:
+                    addVisionInput(ll, frame, false, policies.getMt1Disabled(), listenerContext);
+                    break;
+                case TELEOP:
+                    addVisionInput(ll, frame, true, policies.getMt2Teleop(), listenerContext);
+                    addVisionInput(ll, frame, false, policies.getMt1Teleop(), listenerContext);
+                    break;
+                case AUTON:
+                    addVisionInput(ll, frame, true, policies.getMt2Auton(), listenerContext);
+                    addVisionInput(ll, frame, false, policies.getMt1Auton(), listenerContext);
+                    break;
+                default:
+                    break;
+            }
+        } catch (Exception e) {
+            Telemetry.print(ll.getName() + ": vision ingestion failed " + e);
+        }
+    }
+
+    private IntegrationPhase getIntegrationPhase() {
+        if (Util.disabled.getAsBoolean()) {
+            return IntegrationPhase.DISABLED;
+        } else if (Util.teleop.getAsBoolean()) {
+            return IntegrationPhase.TELEOP;
+        } else if (Util.autoMode.getAsBoolean() && RobotStates.poseUpdate.getAsBoolean()) {
+            return IntegrationPhase.AUTON;
+        }
+        return IntegrationPhase.NONE;
+    }
+
+    /** Main loop side of the event driven ingestion, decides which updates the listener runs */
+    private void updateIntegrationPhase() {
+        IntegrationPhase phase = getIntegrationPhase();
+        if (phase != IntegrationPhase.NONE) {
+            for (Limelight limelight : allLimelights) {
+                limelight.setIMUmode(1);
+            }
+        }
+        integrationPhase = phase;
+    }
+
+    /**
+     * Hand an accepted measurement to the pose estimator, queued for the main loop when it was
+     * accepted on the listener thread and held for fusion at the end of the loop when fusing
+     */
+    private void integrate(Pose2d pose, double fpgaTimestamp, double xyStds, double degStds) {
+        double timestamp = Utils.fpgaToCurrentTime(fpgaTimestamp);
+        if (eventDriven) {
+            measurementQueue.offer(
+                    pose.getX(),
+                    pose.getY(),
+                    pose.getRotation().getRadians(),
+                    timestamp,
+                    xyStds,
+                    degStds);
+        } else if (fusion != null) {
+            fusion.add(
+                    pose.getX(),
+                    pose.getY(),
+                    pose.getRotation().getRadians(),
+                    timestamp,
+                    xyStds,
+                    degStds);
+        } else {
+            long start = LoopProfiler.now();
+            Robot.getSwerve()
+                    .addVisionMeasurement(
+                            pose, timestamp, VecBuilder.fill(xyStds, xyStds, degStds));
+            estimatorMicros += LoopProfiler.now() - start;
+            estimatorUpdates++;
+        }
+    }
+
+    private void addToSwerve(
+            double x, double y, double theta, double timestamp, double xyStds, double degStds) {
+        long start = LoopProfiler.now();
+        Robot.getSwerve()
+                .addVisionMeasurement(
+                        new Pose2d(x, y, new Rotation2d(theta)),
+                        timestamp,
+                        VecBuilder.fill(xyStds, xyStds, degStds));
+        estimatorMicros += LoopProfiler.now() - start;
+        estimatorUpdates++;
     }
 
     private void disabledLimelightUpdates() {
@@ -193,14 +502,18 @@ public class Vision implements NTSendable, Subsystem {
             for (Limelight limelight : allLimelights) {
                 limelight.setIMUmode(1);
             }
+            VisionPolicies policies = this.policies;
+            captureRobotState(loopContext);
             try {
-                addMegaTag1_VisionInput(backLL, true);
+                addVisionInput(
+                        backLL, backLL.getFrame(), false, policies.getMt1Disabled(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("REAR MT1: Vision pose not present but tried to access it");
             }
 
             try {
-                addMegaTag1_VisionInput(frontLL, true);
+                addVisionInput(
+                        frontLL, frontLL.getFrame(), false, policies.getMt1Disabled(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("FRONT MT1: Vision pose not present but tried to access it");
             }
@@ -212,26 +525,32 @@ public class Vision implements NTSendable, Subsystem {
             for (Limelight limelight : allLimelights) {
                 limelight.setIMUmode(1);
             }
+            VisionPolicies policies = this.policies;
+            captureRobotState(loopContext);
             try {
-                addMegaTag2_VisionInput(backLL);
+                addVisionInput(
+                        backLL, backLL.getFrame(), true, policies.getMt2Teleop(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("REAR MT2: Vision pose not present but tried to access it");
             }
 
             try {
-                addMegaTag2_VisionInput(frontLL);
+                addVisionInput(
+                        frontLL, frontLL.getFrame(), true, policies.getMt2Teleop(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("FRONT MT2: Vision pose not present but tried to access it");
             }
 
             try {
-                addMegaTag1_VisionInput(backLL, false);
+                addVisionInput(
+                        backLL, backLL.getFrame(), false, policies.getMt1Teleop(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("REAR MT1: Vision pose not present but tried to access it");
             }
 
             try {
-                addMegaTag1_VisionInput(frontLL, false);
+                addVisionInput(
+                        frontLL, frontLL.getFrame(), false, policies.getMt1Teleop(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("FRONT MT1: Vision pose not present but tried to access it");
             }
@@ -243,403 +562,93 @@ public class Vision implements NTSendable, Subsystem {
             for (Limelight limelight : allLimelights) {
                 limelight.setIMUmode(1);
             }
+            VisionPolicies policies = this.policies;
+            captureRobotState(loopContext);
             try {
-                addMegaTag2_VisionInputAuton(backLL);
+                addVisionInput(
+                        backLL, backLL.getFrame(), true, policies.getMt2Auton(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("REAR MT2: Vision pose not present but tried to access it");
             }
 
             try {
-                addMegaTag2_VisionInputAuton(frontLL);
+                addVisionInput(
+                        frontLL, frontLL.getFrame(), true, policies.getMt2Auton(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("FRONT MT2: Vision pose not present but tried to access it");
             }
 
             try {
-                addMegaTag1_VisionInputAuton(backLL, false);
+                addVisionInput(
+                        backLL, backLL.getFrame(), false, policies.getMt1Auton(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("REAR MT1: Vision pose not present but tried to access it");
             }
 
             try {
-                addMegaTag1_VisionInputAuton(frontLL, false);
+                addVisionInput(
+                        frontLL, frontLL.getFrame(), false, policies.getMt1Auton(), loopContext);
             } catch (Exception e) {
                 Telemetry.print("FRONT MT1: Vision pose not present but tried to access it");
             }
         }
     }
 
-    @SuppressWarnings("all")
-    private void addMegaTag1_VisionInput(Limelight ll, boolean integrateXY) {
-        double xyStds;
-        double degStds;
-
-        // integrate vision
-        if (ll.targetInView()) {
-            boolean multiTags = ll.multipleTagsInView();
-            double targetSize = ll.getTargetSize();
-            Pose3d megaTag1Pose3d = ll.getMegaTag1_Pose3d();
-            Pose2d megaTag1Pose2d = megaTag1Pose3d.toPose2d();
-            RawFiducial[] tags = ll.getRawFiducial();
-            double highestAmbiguity = 2;
-            ChassisSpeeds robotSpeed = Robot.getSwerve().getCurrentRobotChassisSpeeds();
-
-            // distance from current pose to vision estimated MT2 pose
-            double mt1PoseDifference =
-                    Robot.getSwerve()
-                            .getRobotPose()
-                            .getTranslation()
-                            .getDistance(megaTag1Pose2d.getTranslation());
-
-            /* rejections */
-            // reject mt1 pose if individual tag ambiguity is too high
-            ll.setTagStatus("");
-            for (RawFiducial tag : tags) {
-                // search for highest ambiguity tag for later checks
-                if (highestAmbiguity == 2 || tag.ambiguity > highestAmbiguity) {
-                    highestAmbiguity = tag.ambiguity;
-                }
-                // ambiguity rejection check
-                if (tag.ambiguity > 0.9) {
-                    return;
-                }
-            }
-
-            /* rejections */
-            if (rejectionCheck(megaTag1Pose2d, targetSize)) {
-                return;
-            }
-
-            if (Math.abs(megaTag1Pose3d.getRotation().getX()) > 5
-                    || Math.abs(megaTag1Pose3d.getRotation().getY()) > 5) {
-                // reject if pose is 5 degrees titled in roll or pitch
-                ll.sendInvalidStatus("roll/pitch rejection");
-                return;
-            }
-
-            /* integrations */
-            // if almost stationary and extremely close to tag
-            if (robotSpeed.vx + robotSpeed.vy <= 0.2
-                    && targetSize > 4) {
-                ll.sendValidStatus("Stationary close integration");
-                xyStds = 0.1;
-                degStds = 0.1;
-            } else if (multiTags && targetSize > 2) {
-                ll.sendValidStatus("Strong Multi integration");
-                xyStds = 0.1;
-                degStds = 0.1;
-            } else if (multiTags && targetSize > 0.2) {
-                ll.sendValidStatus("Multi integration");
-                xyStds = 0.25;
-                degStds = 8;
-            } else if (targetSize > 2 && (mt1PoseDifference < 0.5)) {
-                // Integrate if the target is very big and we are close to pose
-                ll.sendValidStatus("Close integration");
-                xyStds = 0.5;
-                degStds = 999999;
-            } else if (targetSize > 1 && (mt1PoseDifference < 0.25)) {
-                // Integrate if we are very close to pose and target is large enough
-                ll.sendValidStatus("Proximity integration");
-                xyStds = 1.0;
-                degStds = 999999;
-            } else if (highestAmbiguity < 0.25 && targetSize >= 0.03) {
-                ll.sendValidStatus("Stable integration");
-                xyStds = 1.5;
-                degStds = 999999;
-            } else {
-                // Shouldn't integrate
-                return;
-            }
-
-            // strict with degree std and ambiguity and rotation because this is megatag1
-            if (highestAmbiguity > 0.5) {
-                degStds = 15;
-            }
-
-            if (robotSpeed.omega >= 0.5) {
-                degStds = 50;
-            }
-
-            if (!integrateXY) {
-                xyStds = 999999;
-            }
-
-            if (integrateXY) { // If we are disabled just use this pose
-                xyStds = 0.01;
-                degStds = 0.01;
-            }
-
-            Pose2d integratedPose =
-                    new Pose2d(megaTag1Pose2d.getTranslation(), megaTag1Pose2d.getRotation());
-            Robot.getSwerve()
-                    .addVisionMeasurement(
-                            integratedPose,
-                            Utils.fpgaToCurrentTime(ll.getMegaTag1PoseTimestamp()),
-                            VecBuilder.fill(xyStds, xyStds, degStds));
-        } else {
-            ll.setTagStatus("no tags");
-            ll.sendInvalidStatus("no tag found rejection");
-        }
+    /** Read the robot state once for every camera in this pass */
+    private void captureRobotState(VisionIngestContext ctx) {
+        DriveSnapshot drive = Robot.getSwerve().getSnapshot();
+        Pose2d robotPose = drive.getPose();
+        ChassisSpeeds robotSpeed = drive.getSpeeds();
+        ctx.setRobotState(
+                robotPose.getX(),
+                robotPose.getY(),
+                robotSpeed.vx,
+                robotSpeed.vy,
+                robotSpeed.omega,
+                DriverStation.isDisabled());
     }
 
-    @SuppressWarnings("all")
-    private void addMegaTag1_VisionInputAuton(Limelight ll, boolean integrateXY) {
-        double xyStds;
-        double degStds;
-
-        // integrate vision
-        if (ll.targetInView()) {
-            boolean multiTags = ll.multipleTagsInView();
-            double targetSize = ll.getTargetSize();
-            Pose3d megaTag1Pose3d = ll.getMegaTag1_Pose3d();
-            Pose2d megaTag1Pose2d = megaTag1Pose3d.toPose2d();
-            RawFiducial[] tags = ll.getRawFiducial();
-            double highestAmbiguity = 2;
-            ChassisSpeeds robotSpeed = Robot.getSwerve().getCurrentRobotChassisSpeeds();
-
-            // distance from current pose to vision estimated MT2 pose
-            double mt1PoseDifference =
-                    Robot.getSwerve()
-                            .getRobotPose()
-                            .getTranslation()
-                            .getDistance(megaTag1Pose2d.getTranslation());
-
-            /* rejections */
-            // reject mt1 pose if individual tag ambiguity is too high
-            ll.setTagStatus("");
-            for (RawFiducial tag : tags) {
-                // search for highest ambiguity tag for later checks
-                if (highestAmbiguity == 2 || tag.ambiguity > highestAmbiguity) {
-                    highestAmbiguity = tag.ambiguity;
-                }
-                // ambiguity rejection check
-                if (tag.ambiguity > 0.9) {
-                    return;
-                }
-            }
-
-            /* rejections */
-            if (rejectionCheck(megaTag1Pose2d, targetSize)) {
-                return;
-            }
-
-            if (Math.abs(megaTag1Pose3d.getRotation().getX()) > 5
-                    || Math.abs(megaTag1Pose3d.getRotation().getY()) > 5) {
-                // reject if pose is 5 degrees titled in roll or pitch
-                ll.sendInvalidStatus("roll/pitch rejection");
-                return;
-            }
-
-            /* integrations */
-            // if almost stationary and extremely close to tag
-            if (targetSize > 2) {
-                ll.sendValidStatus("Stationary close integration");
-                xyStds = 0.1;
-                degStds = 0.1;
-            } else if (multiTags && targetSize > 2) {
-                ll.sendValidStatus("Strong Multi integration");
-                xyStds = 0.1;
-                degStds = 0.1;
-            } else if (multiTags && targetSize > 0.2) {
-                ll.sendValidStatus("Multi integration");
-                xyStds = 0.25;
-                degStds = 8;
-            } else if (targetSize > 2 && (mt1PoseDifference < 0.5)) {
-                // Integrate if the target is very big and we are close to pose
-                ll.sendValidStatus("Close integration");
-                xyStds = 0.5;
-                degStds = 999999;
-            } else if (targetSize > 1 && (mt1PoseDifference < 0.25)) {
-                // Integrate if we are very close to pose and target is large enough
-                ll.sendValidStatus("Proximity integration");
-                xyStds = 1.0;
-                degStds = 999999;
-            } else if (highestAmbiguity < 0.25 && targetSize >= 0.03) {
-                ll.sendValidStatus("Stable integration");
-                xyStds = 1.5;
-                degStds = 999999;
-            } else {
-                // Shouldn't integrate
-                return;
-            }
-
-            // strict with degree std and ambiguity and rotation because this is megatag1
-            if (highestAmbiguity > 0.5) {
-                degStds = 15;
-            }
-
-            if (robotSpeed.omega >= 0.5) {
-                degStds = 50;
-            }
-
-            if (!integrateXY) {
-                xyStds = 999999;
-            }
-
-            if (integrateXY) { // If we are disabled just use this pose
-                xyStds = 0.01;
-                degStds = 0.01;
-            }
-
-            Pose2d integratedPose =
-                    new Pose2d(megaTag1Pose2d.getTranslation(), megaTag1Pose2d.getRotation());
-            Robot.getSwerve()
-                    .addVisionMeasurement(
-                            integratedPose,
-                            Utils.fpgaToCurrentTime(ll.getMegaTag1PoseTimestamp()),
-                            VecBuilder.fill(xyStds, xyStds, degStds));
-        } else {
-            ll.setTagStatus("no tags");
-            ll.sendInvalidStatus("no tag found rejection");
+    /**
+     * Run one camera's MegaTag1 or MegaTag2 pose through a policy and integrate it if it's accepted
+     */
+    private void addVisionInput(
+            Limelight ll,
+            LimelightFrame frame,
+            boolean megaTag2,
+            VisionPolicy policy,
+            VisionIngestContext ctx) {
+        // skip frames we already processed
+        double timestamp = VisionIngestContext.getTimestamp(frame, megaTag2);
+        boolean isNew =
+                megaTag2 ? ll.consumeMegaTag2Frame(timestamp) : ll.consumeMegaTag1Frame(timestamp);
+        if (!isNew) {
+            return;
         }
-    }
-
-    @SuppressWarnings("all")
-    private void addMegaTag2_VisionInput(Limelight ll) {
-        double xyStds;
-        double degStds = 99999;
-
-        // integrate vision
-        if (ll.targetInView()) {
-            boolean multiTags = ll.multipleTagsInView();
-            double targetSize = ll.getTargetSize();
-            Pose2d megaTag2Pose2d = ll.getMegaTag2_Pose2d();
-            double highestAmbiguity = 2;
-            ChassisSpeeds robotSpeed = Robot.getSwerve().getCurrentRobotChassisSpeeds();
 
-            // distance from current pose to vision estimated MT2 pose
-            double mt2PoseDifference =
-                    Robot.getSwerve()
-                            .getRobotPose()
-                            .getTranslation()
-                            .getDistance(megaTag2Pose2d.getTranslation());
-
-            /* rejections */
-            if (rejectionCheck(megaTag2Pose2d, targetSize)) {
-                return;
-            }
-
-            /* integrations */
-            // if almost stationary and extremely close to tag
-            if (robotSpeed.vx + robotSpeed.vy <= 0.2
-                    && targetSize > 4) {
-                ll.sendValidStatus("Stationary close integration");
-                xyStds = 0.1;
-            } else if (multiTags && targetSize > 2) {
-                ll.sendValidStatus("Strong Multi integration");
-                xyStds = 0.1;
-            } else if (multiTags && targetSize > 0.2) {
-                ll.sendValidStatus("Multi integration");
-                xyStds = 0.25;
-            } else if (targetSize > 2 && (mt2PoseDifference < 0.5 || DriverStation.isDisabled())) {
-                // Integrate if the target is very big and we are close to pose or disabled
-                ll.sendValidStatus("Close integration");
-                xyStds = 0.5;
-            } else if (targetSize > 1 && (mt2PoseDifference < 0.25 || DriverStation.isDisabled())) {
-                // Integrate if we are very close to pose or disabled and target is large enough
-                ll.sendValidStatus("Proximity integration");
-                xyStds = 0.0;
-            } else if (highestAmbiguity < 0.25 && targetSize >= 0.03) {
-                ll.sendValidStatus("Stable integration");
-                xyStds = 0.5;
-            } else {
-                // Shouldn't integrate
-                return;
-            }
-
-            Pose2d integratedPose =
-                    new Pose2d(megaTag2Pose2d.getTranslation(), megaTag2Pose2d.getRotation());
-            Robot.getSwerve()
-                    .addVisionMeasurement(
-                            integratedPose,
-                            Utils.fpgaToCurrentTime(ll.getMegaTag2PoseTimestamp()),
-                            VecBuilder.fill(xyStds, xyStds, degStds));
-        } else {
+        if (!frame.isTargetInView()) {
             ll.setTagStatus("no tags");
             ll.sendInvalidStatus("no tag found rejection");
+            return;
         }
-    }
-
-    @SuppressWarnings("all")
-    private void addMegaTag2_VisionInputAuton(Limelight ll) {
-        double xyStds;
-        double degStds = 99999;
-
-        // integrate vision
-        if (ll.targetInView()) {
-            boolean multiTags = ll.multipleTagsInView();
-            double targetSize = ll.getTargetSize();
-            Pose2d megaTag2Pose2d = ll.getMegaTag2_Pose2d();
-            double highestAmbiguity = 2;
-            ChassisSpeeds robotSpeed = Robot.getSwerve().getCurrentRobotChassisSpeeds();
-
-            // distance from current pose to vision estimated MT2 pose
-            double mt2PoseDifference =
-                    Robot.getSwerve()
-                            .getRobotPose()
-                            .getTranslation()
-                            .getDistance(megaTag2Pose2d.getTranslation());
-
-            /* rejections */
-            if (rejectionCheck(megaTag2Pose2d, targetSize)) {
-                return;
-            }
-
-            /* integrations */
-            // if almost stationary and extremely close to tag
-            if (targetSize > 2) {
-                ll.sendValidStatus("Stationary close integration");
-                xyStds = 0.1;
-            } else if (multiTags && targetSize > 2) {
-                ll.sendValidStatus("Strong Multi integration");
-                xyStds = 0.1;
-            } else if (multiTags && targetSize > 0.1) {
-                ll.sendValidStatus("Multi integration");
-                xyStds = 0.25;
-            } else if (targetSize > 0.8
-                    && (mt2PoseDifference < 0.5 || DriverStation.isDisabled())) {
-                // Integrate if the target is very big and we are close to pose or disabled
-                ll.sendValidStatus("Close integration");
-                xyStds = 0.5;
-            } else if (targetSize > 0.1
-                    && (mt2PoseDifference < 0.25 || DriverStation.isDisabled())) {
-                // Integrate if we are very close to pose or disabled and target is large enough
-                ll.sendValidStatus("Proximity integration");
-                xyStds = 0.0;
-            } else if (highestAmbiguity < 0.25 && targetSize >= 0.03) {
-                ll.sendValidStatus("Stable integration");
-                xyStds = 0.5;
-            } else {
-                // Shouldn't integrate
-                return;
-            }
-
-            Pose2d integratedPose =
-                    new Pose2d(megaTag2Pose2d.getTranslation(), megaTag2Pose2d.getRotation());
-            Robot.getSwerve()
-                    .addVisionMeasurement(
-                            integratedPose,
-                            Utils.fpgaToCurrentTime(ll.getMegaTag2PoseTimestamp()),
-                            VecBuilder.fill(xyStds, xyStds, degStds));
-        } else {
-            ll.setTagStatus("no tags");
-            ll.sendInvalidStatus("no tag found rejection");
+        if (!megaTag2) {
+            ll.setTagStatus("");
         }
-    }
 
-    private boolean rejectionCheck(Pose2d pose, double targetSize) {
-        /* rejections */
-        if (FieldHelpers.poseOutOfField(pose)) {
-            return true;
+        VisionPolicy.Decision decision = ctx.decision;
+        if (!ctx.evaluate(frame, megaTag2, policy)) {
+            if (decision.status != null) {
+                ll.sendInvalidStatus(decision.status);
+            }
+            return;
         }
-
-        if (Math.abs(Robot.getSwerve().getCurrentRobotChassisSpeeds().omega)
-                >= 1.6) {
-            return true;
+        if (decision.status != null) {
+            ll.sendValidStatus(decision.status);
         }
-
-        // Final check, if it's small reject, else return false and integrate
-        return targetSize <= 0.025;
+        integrate(
+                VisionIngestContext.getPose(frame, megaTag2),
+                timestamp,
+                decision.xyStds,
+                decision.degStds);
     }
 
     /**
@@ -653,8 +662,9 @@ public class Vision implements NTSendable, Subsystem {
         for (Limelight limelight : allLimelights) {
             double score = 0;
             // prefer LL with most tags, when equal tag count, prefer LL closer to tags
-            score += limelight.getTagCountInView();
-            score += limelight.getTargetSize();
+            LimelightFrame frame = limelight.getFrame();
+            score += frame.getMt1TagCount();
+            score += frame.getTa();
 
             if (score > bestScore) {
                 bestScore = score;
@@ -666,12 +676,12 @@ public class Vision implements NTSendable, Subsystem {
 
     /** reset pose to the best limelight's vision pose */
     public void resetPoseToVision() {
-        Limelight ll = getBestLimelight();
+        LimelightFrame frame = getBestLimelight().getFrame();
         resetPoseToVision(
-                ll.targetInView(),
-                ll.getMegaTag1_Pose3d(),
-                ll.getMegaTag2_Pose2d(),
-                ll.getMegaTag1PoseTimestamp());
+                frame.isTargetInView(),
+                frame.getMegaTag1Pose3d(),
+                frame.getMegaTag2Pose2d(),
+                frame.getMt1Timestamp());
     }
 
     /**
@@ -822,27 +832,96 @@ public class Vision implements NTSendable, Subsystem {
         }
     }
 
-    public Pose2d getReefOffsetFromTag() {
-        int closestTagID = Robot.getVision().getClosestTagID();
+    private ReefPoseTable getReefTargets() {
+        reefTargets = ReefPoseTable.of(HomeOffsets.getReefTagOffsets(), tagLayout, reefTargets);
+        return reefTargets;
+    }
 
-        if (closestTagID < 6 || closestTagID == 16 || closestTagID > 22) {
-            closestTagID = FieldHelpers.getReefZoneTagID(Robot.getSwerve().getRobotPose());
-            if (closestTagID < 0) {
-                return Robot.getSwerve().getRobotPose();
-            }
+    /** @return the closest reef tag, or the reef zone's tag if we can't see one */
+    private int getReefTargetTagID() {
+        int closestTagID = getClosestTagID();
+        if (ReefPoseTable.getSlot(closestTagID) < 0) {
+            closestTagID = FieldHelpers.getRobotReefZoneTagID();
         }
+        return closestTagID;
+    }
 
-        double reefTagDistanceOffset = offsets.getReefTagDistanceOffset(closestTagID);
-        double reefTagCenterOffset = offsets.getReefTagCenterOffset(closestTagID);
+    /** @return the table slot to align to, or -1 if the table doesn't have the target */
+    private int getReefTargetSlot(int tagID) {
+        int slot = ReefPoseTable.getSlot(tagID);
+        if (slot < 0 || !getReefTargets().hasTagTarget(slot)) {
+            return -1;
+        }
+        return slot;
+    }
+
+    public Pose2d getReefOffsetFromTag() {
+        int tagID = getReefTargetTagID();
+        int slot = getReefTargetSlot(tagID);
+        if (slot < 0) {
+            // outside the reef zones, no offsets
+            return FieldHelpers.getXYOffsetFromTag(tagID, 0, 0);
+        }
 
-        return FieldHelpers.getXYOffsetFromTag(
-                closestTagID, reefTagDistanceOffset, reefTagCenterOffset);
+        boolean right = RobotStates.rightScore.getAsBoolean();
+        boolean rear = RobotStates.reverse.getAsBoolean();
+        return new Pose2d(
+                reefTargets.getTagTargetX(slot, right, rear),
+                reefTargets.getTagTargetY(slot, right, rear),
+                new Rotation2d(reefTargets.getTagTargetHeading(slot, right, rear)));
+    }
+
+    public double getReefOffsetFromTagX() {
+        int tagID = getReefTargetTagID();
+        int slot = getReefTargetSlot(tagID);
+        if (slot < 0) {
+            return FieldHelpers.getXYOffsetFromTag(tagID, 0, 0).getX();
+        }
+        return reefTargets.getTagTargetX(
+                slot, RobotStates.rightScore.getAsBoolean(), RobotStates.reverse.getAsBoolean());
+    }
+
+    public double getReefOffsetFromTagY() {
+        int tagID = getReefTargetTagID();
+        int slot = getReefTargetSlot(tagID);
+        if (slot < 0) {
+            return FieldHelpers.getXYOffsetFromTag(tagID, 0, 0).getY();
+        }
+        return reefTargets.getTagTargetY(
+                slot, RobotStates.rightScore.getAsBoolean(), RobotStates.reverse.getAsBoolean());
     }
 
     // ------------------------------------------------------------------------------
     // VisionStates Commands
     // ------------------------------------------------------------------------------
 
+    /** Reload the vision policies from the deploy directory */
+    public Command reloadPolicies() {
+        return Commands.runOnce(() -> policies = VisionPolicies.load())
+                .ignoringDisable(true)
+                .withName("Vision.reloadPolicies");
+    }
+
+    /**
+     * Narrow the cameras to the reef tag of the zone the robot is in while running. Doesn't require
+     * Vision so the LED commands keep running.
+     */
+    public Command focusOnReefTag() {
+        return Commands.run(
+                        () -> {
+                            isAiming = true;
+                            // outside the reef zones this is 16, a real tag (the processor)
+                            int tagID = FieldHelpers.getRobotReefZoneTagID();
+                            focusTagID = ReefPoseTable.getSlot(tagID) < 0 ? -1 : tagID;
+                        })
+                .finallyDo(
+                        () -> {
+                            isAiming = false;
+                            focusTagID = -1;
+                        })
+                .withName("Vision.focusOnReefTag");
+    }
+
     /** Set all Limelights to blink */
     public Command blinkLimelights() {
         Telemetry.print("Vision.blinkLimelights", PrintPriority.HIGH);
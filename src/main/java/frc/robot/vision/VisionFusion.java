@@ -0,0 +1,138 @@
+package frc.robot.vision;
+
+import lombok.Getter;
+
+/**
+ * Combines the accepted vision measurements of one loop into one measurement per capture time
+ * before they go to the pose estimator. Every addVisionMeasurement replays the estimator's odometry
+ * buffer from that timestamp, so four cameras and pose types landing on the same frame cost four
+ * replays for what is really one observation.
+ *
+ * <p>Measurements whose timestamps are within {@code window} seconds of the first one in a group
+ * are fused. X and y are inverse-variance weighted with the xy std devs, theta is a weighted
+ * circular mean with the degree std devs, so an MT1 estimate trusted for heading and an MT2
+ * estimate trusted for position each contribute the axis they're good at. The fused std dev of an
+ * axis is 1 / sqrt(sum of weights). Main loop only.
+ */
+public class VisionFusion {
+    /** Std devs are clamped to this so a 0 std dev doesn't divide by zero */
+    private static final double minStdDev = 1e-4;
+
+    private final double window;
+    private final int capacity;
+    private final double[] x;
+    private final double[] y;
+    private final double[] theta;
+    private final double[] timestamp;
+    private final double[] xyStds;
+    private final double[] degStds;
+    private int size = 0;
+
+    /** Measurements added and measurements sent to the estimator since boot */
+    @Getter private long added = 0;
+
+    @Getter private long emitted = 0;
+    @Getter private long dropped = 0;
+
+    public VisionFusion(double window, int capacity) {
+        this.window = window;
+        this.capacity = capacity;
+        x = new double[capacity];
+        y = new double[capacity];
+        theta = new double[capacity];
+        timestamp = new double[capacity];
+        xyStds = new double[capacity];
+        degStds = new double[capacity];
+    }
+
+    /** Same shape as the {@link VisionMeasurementQueue.Sink} so the queue can drain into it */
+    public void add(
+            double x, double y, double theta, double timestamp, double xyStds, double degStds) {
+        if (size == capacity) {
+            dropped++;
+            return;
+        }
+        // insertion sort by timestamp, there are only a handful a loop
+        int i = size++;
+        while (i > 0 && this.timestamp[i - 1] > timestamp) {
+            move(i - 1, i);
+            i--;
+        }
+        this.x[i] = x;
+        this.y[i] = y;
+        this.theta[i] = theta;
+        this.timestamp[i] = timestamp;
+        this.xyStds[i] = Math.max(minStdDev, xyStds);
+        this.degStds[i] = Math.max(minStdDev, degStds);
+        added++;
+    }
+
+    private void move(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        theta[to] = theta[from];
+        timestamp[to] = timestamp[from];
+        xyStds[to] = xyStds[from];
+        degStds[to] = degStds[from];
+    }
+
+    /**
+     * Send one fused measurement per timestamp group to the sink, oldest first, and clear
+     *
+     * @return the number of measurements sent
+     */
+    public int flush(VisionMeasurementQueue.Sink sink) {
+        int sent = 0;
+        int start = 0;
+        while (start < size) {
+            int end = start + 1;
+            while (end < size && timestamp[end] - timestamp[start] <= window) {
+                end++;
+            }
+            emit(start, end, sink);
+            sent++;
+            start = end;
+        }
+        size = 0;
+        emitted += sent;
+        return sent;
+    }
+
+    private void emit(int start, int end, VisionMeasurementQueue.Sink sink) {
+        if (end - start == 1) {
+            sink.accept(
+                    x[start],
+                    y[start],
+                    theta[start],
+                    timestamp[start],
+                    xyStds[start],
+                    degStds[start]);
+            return;
+        }
+        double xyWeight = 0;
+        double sumX = 0;
+        double sumY = 0;
+        double thetaWeight = 0;
+        double sumSin = 0;
+        double sumCos = 0;
+        double sumTime = 0;
+        for (int i = start; i < end; i++) {
+            double wXY = 1 / (xyStds[i] * xyStds[i]);
+            double wTheta = 1 / (degStds[i] * degStds[i]);
+            xyWeight += wXY;
+            sumX += wXY * x[i];
+            sumY += wXY * y[i];
+            thetaWeight += wTheta;
+            sumSin += wTheta * Math.sin(theta[i]);
+            sumCos += wTheta * Math.cos(theta[i]);
+            sumTime += timestamp[i];
+        }
+        sink.accept(
+                sumX / xyWeight,
+                sumY / xyWeight,
+                Math.atan2(sumSin, sumCos),
+                sumTime / (end - start),
+                1 / Math.sqrt(xyWeight),
+                1 / Math.sqrt(thetaWeight));
+    }
+}
@@ -0,0 +1,98 @@
+package frc.robot.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.reefscape.Field;
+import frc.robot.swerve.PoseHistory;
+import frc.robot.vision.VisionPolicy.Feature;
+import frc.spectrumLib.vision.LimelightFrame;
+
+/**
+ * Robot state and scratch space for running Limelight frames through a {@link VisionPolicy}. The
+ * robot state is set once per pass over the cameras. Vision keeps one for the main loop and one
+ * for the NT listener thread, and {@link VisionReplay} drives one from a log.
+ */
+class VisionIngestContext {
+    final double[] features = VisionPolicy.createFeatures();
+    final VisionPolicy.Decision decision = new VisionPolicy.Decision();
+
+    private double robotX;
+    private double robotY;
+    private double speedSum;
+    private double omega;
+    private boolean disabled;
+
+    /** Where the robot was at each frame's capture time, null to use the current pose */
+    private PoseHistory poseHistory;
+
+    private final PoseHistory.Sample historySample = new PoseHistory.Sample();
+
+    void setPoseHistory(PoseHistory poseHistory) {
+        this.poseHistory = poseHistory;
+    }
+
+    /**
+     * @param robotX current pose, used for frames older than the pose history
+     * @param vx robot relative, m/s
+     * @param vy robot relative, m/s
+     * @param omega rad/s
+     */
+    void setRobotState(
+            double robotX, double robotY, double vx, double vy, double omega, boolean disabled) {
+        this.robotX = robotX;
+        this.robotY = robotY;
+        this.speedSum = vx + vy;
+        this.omega = omega;
+        this.disabled = disabled;
+    }
+
+    static Pose2d getPose(LimelightFrame frame, boolean megaTag2) {
+        return megaTag2 ? frame.getMegaTag2Pose2d() : frame.getMegaTag1Pose2d();
+    }
+
+    static double getTimestamp(LimelightFrame frame, boolean megaTag2) {
+        return megaTag2 ? frame.getMt2Timestamp() : frame.getMt1Timestamp();
+    }
+
+    /**
+     * Fill the features for one pose estimate of a frame with a target in view and run the policy,
+     * the std devs and status are left in {@link #decision}
+     *
+     * @return true if the estimate should be integrated
+     */
+    boolean evaluate(LimelightFrame frame, boolean megaTag2, VisionPolicy policy) {
+        Pose2d pose = getPose(frame, megaTag2);
+        // compare against where the robot was when the frame was captured
+        double atX = robotX;
+        double atY = robotY;
+        double timestamp = getTimestamp(frame, megaTag2);
+        if (poseHistory != null && poseHistory.lookup(timestamp, historySample)) {
+            atX = historySample.x;
+            atY = historySample.y;
+        }
+        features[Feature.TAG_COUNT.ordinal()] = frame.getMt1TagCount();
+        features[Feature.AREA.ordinal()] = frame.getTa();
+        // MegaTag2 never looked at the tag ambiguity
+        features[Feature.MAX_AMBIGUITY.ordinal()] =
+                !megaTag2 && frame.getFiducialCount() > 0 ? frame.getMaxAmbiguity() : 2;
+        features[Feature.POSE_DELTA.ordinal()] = Math.hypot(pose.getX() - atX, pose.getY() - atY);
+        features[Feature.SPEED_SUM.ordinal()] = speedSum;
+        features[Feature.OMEGA.ordinal()] = omega;
+        features[Feature.ABS_OMEGA.ordinal()] = Math.abs(omega);
+        features[Feature.ROLL.ordinal()] = megaTag2 ? 0 : Math.abs(frame.getMt1Roll());
+        features[Feature.PITCH.ordinal()] = megaTag2 ? 0 : Math.abs(frame.getMt1Pitch());
+        features[Feature.DISABLED.ordinal()] = disabled ? 1 : 0;
+        features[Feature.OUT_OF_FIELD.ordinal()] = isOutOfField(pose) ? 1 : 0;
+
+        return policy.evaluate(features, decision);
+    }
+
+    /**
+     * Same as FieldHelpers.poseOutOfField, which can't be loaded off the robot. Only reads the
+     * Field constants so the replay doesn't need a robot either.
+     */
+    static boolean isOutOfField(Pose2d pose) {
+        double x = pose.getX();
+        double y = pose.getY();
+        return x <= 0 || x >= Field.fieldLength || y <= 0 || y >= Field.fieldWidth;
+    }
+}
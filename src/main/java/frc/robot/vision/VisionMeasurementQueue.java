@@ -0,0 +1,104 @@
+package frc.robot.vision;
+
+import lombok.Getter;
+
+/**
+ * Fixed size single producer, single consumer queue of accepted vision measurements. The NT
+ * listener thread offers measurements and the main loop drains them into the pose estimator, no
+ * locks are taken on either side.
+ *
+ * <p>Measurements are stored in primitive arrays so nothing is allocated per measurement. The
+ * producer writes a slot before publishing the new tail and the consumer reads slots before
+ * publishing the new head, the volatile writes make the slot contents visible to the other thread.
+ * When the queue is full new measurements are dropped, the main loop has fallen behind and older
+ * data is still waiting.
+ */
+public class VisionMeasurementQueue {
+    private final int capacity;
+    private final int mask;
+    private final double[] x;
+    private final double[] y;
+    private final double[] theta;
+    private final double[] timestamp;
+    private final double[] xyStds;
+    private final double[] degStds;
+
+    /** Next slot to read, only written by the consumer */
+    private volatile long head = 0;
+    /** Next slot to write, only written by the producer */
+    private volatile long tail = 0;
+
+    @Getter private volatile long dropped = 0;
+
+    @FunctionalInterface
+    public interface Sink {
+        void accept(
+                double x,
+                double y,
+                double theta,
+                double timestamp,
+                double xyStds,
+                double degStds);
+    }
+
+    /** @param capacity rounded up to a power of two */
+    public VisionMeasurementQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.capacity = size;
+        mask = size - 1;
+        x = new double[size];
+        y = new double[size];
+        theta = new double[size];
+        timestamp = new double[size];
+        xyStds = new double[size];
+        degStds = new double[size];
+    }
+
+    /**
+     * Add a measurement, producer thread only
+     *
+     * @param theta radians
+     * @param timestamp in the pose estimator's timebase
+     * @return false if the queue was full and the measurement was dropped
+     */
+    public boolean offer(
+            double x, double y, double theta, double timestamp, double xyStds, double degStds) {
+        long t = tail;
+        if (t - head >= capacity) {
+            dropped++;
+            return false;
+        }
+        int i = (int) (t & mask);
+        this.x[i] = x;
+        this.y[i] = y;
+        this.theta[i] = theta;
+        this.timestamp[i] = timestamp;
+        this.xyStds[i] = xyStds;
+        this.degStds[i] = degStds;
+        tail = t + 1;
+        return true;
+    }
+
+    /**
+     * Pass every queued measurement to the sink in the order they were added, consumer thread only
+     *
+     * @return the number of measurements drained
+     */
+    public int drain(Sink sink) {
+        long h = head;
+        long t = tail;
+        int count = 0;
+        while (h < t) {
+            int i = (int) (h & mask);
+            sink.accept(x[i], y[i], theta[i], timestamp[i], xyStds[i], degStds[i]);
+            h++;
+            count++;
+        }
+        head = h;
+        return count;
+    }
+
+    public int size() {
+        return (int) (tail - head);
+    }
+}
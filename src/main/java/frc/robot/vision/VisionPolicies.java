@@ -0,0 +1,151 @@
+package frc.robot.vision;
+
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.spectrumLib.Telemetry;
+import frc.spectrumLib.Telemetry.PrintPriority;
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+import lombok.Getter;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * The vision policy for each integration mode. The defaults are the tuned rules from the robot
+ * code, deploy/vision/policy.json can replace any of them by name without a rebuild:
+ *
+ * <pre>
+ * {"mt1Teleop": [ {"stage": "reject", "when": ["area <= 0.025"]}, ... ], ...}
+ * </pre>
+ */
+public class VisionPolicies {
+    private static final double ignore = 999999;
+    private static final String fileName = "vision/policy.json";
+
+    private static final Alert loadAlert =
+            new Alert("Vision policy file failed to load, using defaults", AlertType.kWarning);
+
+    /** MegaTag1 while disabled, trusted fully so the pose can be set before a match */
+    @Getter private final VisionPolicy mt1Disabled;
+
+    @Getter private final VisionPolicy mt1Teleop;
+    @Getter private final VisionPolicy mt1Auton;
+    @Getter private final VisionPolicy mt2Teleop;
+    @Getter private final VisionPolicy mt2Auton;
+
+    private VisionPolicies(
+            VisionPolicy mt1Disabled,
+            VisionPolicy mt1Teleop,
+            VisionPolicy mt1Auton,
+            VisionPolicy mt2Teleop,
+            VisionPolicy mt2Auton) {
+        this.mt1Disabled = mt1Disabled;
+        this.mt1Teleop = mt1Teleop;
+        this.mt1Auton = mt1Auton;
+        this.mt2Teleop = mt2Teleop;
+        this.mt2Auton = mt2Auton;
+    }
+
+    public static VisionPolicies defaults() {
+        return new VisionPolicies(
+                megaTag1("mt1Disabled", false).override(0.01, 0.01).build(),
+                megaTag1("mt1Teleop", false).override(ignore, Double.NaN).build(),
+                megaTag1("mt1Auton", true).override(ignore, Double.NaN).build(),
+                megaTag2Teleop(),
+                megaTag2Auton());
+    }
+
+    /** Load the deploy file over the defaults, any error keeps the defaults */
+    public static VisionPolicies load() {
+        return load(new File(Filesystem.getDeployDirectory(), fileName));
+    }
+
+    /** Load a policy file over the defaults, any error keeps the defaults */
+    public static VisionPolicies load(File file) {
+        VisionPolicies defaults = defaults();
+        if (!file.exists()) {
+            loadAlert.set(false);
+            return defaults;
+        }
+        try (Reader reader = new FileReader(file)) {
+            JSONObject json = (JSONObject) new JSONParser().parse(reader);
+            VisionPolicies policies =
+                    new VisionPolicies(
+                            read(json, defaults.mt1Disabled),
+                            read(json, defaults.mt1Teleop),
+                            read(json, defaults.mt1Auton),
+                            read(json, defaults.mt2Teleop),
+                            read(json, defaults.mt2Auton));
+            loadAlert.set(false);
+            Telemetry.print("Vision: loaded policies from " + file, PrintPriority.HIGH);
+            return policies;
+        } catch (Exception e) {
+            loadAlert.set(true);
+            Telemetry.print("Vision: could not load " + file + " " + e, PrintPriority.HIGH);
+            return defaults;
+        }
+    }
+
+    private static VisionPolicy read(JSONObject json, VisionPolicy fallback) {
+        Object rules = json.get(fallback.getName());
+        return rules == null
+                ? fallback
+                : VisionPolicy.fromJson(fallback.getName(), (JSONArray) rules);
+    }
+
+    private static VisionPolicy.Builder rejections(VisionPolicy.Builder builder) {
+        return builder.reject(null, "outOfField == 1")
+                .reject(null, "absOmega >= 1.6")
+                .reject(null, "area <= 0.025");
+    }
+
+    /** MegaTag1 rules, auton trusts any big target since the robot follows a known path */
+    private static VisionPolicy.Builder megaTag1(String name, boolean auton) {
+        VisionPolicy.Builder builder =
+                rejections(VisionPolicy.builder(name).reject(null, "maxAmbiguity > 0.9"))
+                        .reject("roll/pitch rejection", "roll > 5")
+                        .reject("roll/pitch rejection", "pitch > 5");
+        if (auton) {
+            builder.select(0.1, 0.1, "Stationary close integration", "area > 2");
+        } else {
+            builder.select(0.1, 0.1, "Stationary close integration", "speedSum <= 0.2", "area > 4");
+        }
+        return builder.select(0.1, 0.1, "Strong Multi integration", "tagCount > 1", "area > 2")
+                .select(0.25, 8, "Multi integration", "tagCount > 1", "area > 0.2")
+                .select(0.5, ignore, "Close integration", "area > 2", "poseDelta < 0.5")
+                .select(1.0, ignore, "Proximity integration", "area > 1", "poseDelta < 0.25")
+                .select(1.5, ignore, "Stable integration", "maxAmbiguity < 0.25", "area >= 0.03")
+                // strict with degree std and ambiguity and rotation because this is megatag1
+                .override(Double.NaN, 15, "maxAmbiguity > 0.5")
+                .override(Double.NaN, 50, "omega >= 0.5");
+    }
+
+    private static VisionPolicy megaTag2Teleop() {
+        double deg = 99999;
+        return rejections(VisionPolicy.builder("mt2Teleop"))
+                .select(0.1, deg, "Stationary close integration", "speedSum <= 0.2", "area > 4")
+                .select(0.1, deg, "Strong Multi integration", "tagCount > 1", "area > 2")
+                .select(0.25, deg, "Multi integration", "tagCount > 1", "area > 0.2")
+                .select(0.5, deg, "Close integration", "area > 2", "poseDelta < 0.5")
+                .select(0.5, deg, "Close integration", "area > 2", "disabled == 1")
+                .select(0.0, deg, "Proximity integration", "area > 1", "poseDelta < 0.25")
+                .select(0.0, deg, "Proximity integration", "area > 1", "disabled == 1")
+                .build();
+    }
+
+    private static VisionPolicy megaTag2Auton() {
+        double deg = 99999;
+        return rejections(VisionPolicy.builder("mt2Auton"))
+                .select(0.1, deg, "Stationary close integration", "area > 2")
+                .select(0.1, deg, "Strong Multi integration", "tagCount > 1", "area > 2")
+                .select(0.25, deg, "Multi integration", "tagCount > 1", "area > 0.1")
+                .select(0.5, deg, "Close integration", "area > 0.8", "poseDelta < 0.5")
+                .select(0.5, deg, "Close integration", "area > 0.8", "disabled == 1")
+                .select(0.0, deg, "Proximity integration", "area > 0.1", "poseDelta < 0.25")
+                .select(0.0, deg, "Proximity integration", "area > 0.1", "disabled == 1")
+                .build();
+    }
+}
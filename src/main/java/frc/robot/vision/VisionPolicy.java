@@ -0,0 +1,316 @@
+package frc.robot.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * An ordered list of vision integration rules, compiled into flat arrays and evaluated over the
+ * feature vector of one pose estimate without allocating.
+ *
+ * <p>Each rule is a list of conditions like {@code "area > 2"} that must all be true, and a stage:
+ *
+ * <ul>
+ *   <li>REJECT: the first matching reject rule drops the estimate
+ *   <li>SELECT: the first matching select rule picks the xy and degree std devs, if none match the
+ *       estimate is dropped
+ *   <li>OVERRIDE: every matching override rule then replaces the xy and/or degree std dev
+ * </ul>
+ *
+ * A rule with no conditions always matches. Policies are built in {@link VisionPolicies} and can be
+ * loaded from the deploy directory so they can be tuned without a rebuild.
+ */
+public class VisionPolicy {
+    public enum Stage {
+        REJECT,
+        SELECT,
+        OVERRIDE
+    }
+
+    /** The values a rule can check, computed once for each pose estimate */
+    public enum Feature {
+        /** Tags seen by MegaTag1 */
+        TAG_COUNT("tagCount"),
+        /** Target area, percent of the image */
+        AREA("area"),
+        /** Highest ambiguity of the seen tags, 2 if the fiducials weren't reported */
+        MAX_AMBIGUITY("maxAmbiguity"),
+        /** Meters from the current robot pose to the vision pose */
+        POSE_DELTA("poseDelta"),
+        /** vx + vy of the robot relative speeds, m/s */
+        SPEED_SUM("speedSum"),
+        /** Robot rotation rate, rad/s */
+        OMEGA("omega"),
+        ABS_OMEGA("absOmega"),
+        /** Absolute roll of the vision pose in radians, like the old rejection compared */
+        ROLL("roll"),
+        /** Absolute pitch of the vision pose in radians */
+        PITCH("pitch"),
+        /** 1 when the robot is disabled */
+        DISABLED("disabled"),
+        /** 1 when the vision pose is off the field */
+        OUT_OF_FIELD("outOfField");
+
+        @Getter private final String key;
+
+        Feature(String key) {
+            this.key = key;
+        }
+
+        static Feature fromKey(String key) {
+            for (Feature feature : values()) {
+                if (feature.key.equals(key)) {
+                    return feature;
+                }
+            }
+            throw new IllegalArgumentException("Unknown vision feature: " + key);
+        }
+    }
+
+    /** Result of an evaluation, reused by the caller */
+    public static class Decision {
+        public boolean accepted;
+        public double xyStds;
+        public double degStds;
+        /** Status of the matching rule, null if no rule had one */
+        public String status;
+    }
+
+    private static final String[] operators = {"<=", ">=", "==", "!=", "<", ">"};
+    private static final int LE = 0, GE = 1, EQ = 2, NE = 3, LT = 4, GT = 5;
+
+    @Getter private final String name;
+    private final int ruleCount;
+    private final Stage[] stage;
+    private final int[] conditionStart;
+    private final int[] conditionCount;
+    private final double[] xyStds;
+    private final double[] degStds;
+    private final String[] status;
+
+    private final int[] conditionFeature;
+    private final int[] conditionOperator;
+    private final double[] conditionValue;
+
+    private VisionPolicy(String name, List<Rule> rules) {
+        this.name = name;
+        ruleCount = rules.size();
+        stage = new Stage[ruleCount];
+        conditionStart = new int[ruleCount];
+        conditionCount = new int[ruleCount];
+        xyStds = new double[ruleCount];
+        degStds = new double[ruleCount];
+        status = new String[ruleCount];
+
+        int conditions = 0;
+        for (Rule rule : rules) {
+            conditions += rule.conditions.length;
+        }
+        conditionFeature = new int[conditions];
+        conditionOperator = new int[conditions];
+        conditionValue = new double[conditions];
+
+        int c = 0;
+        for (int r = 0; r < ruleCount; r++) {
+            Rule rule = rules.get(r);
+            stage[r] = rule.stage;
+            xyStds[r] = rule.xyStds;
+            degStds[r] = rule.degStds;
+            status[r] = rule.status;
+            conditionStart[r] = c;
+            conditionCount[r] = rule.conditions.length;
+            for (String condition : rule.conditions) {
+                compileCondition(condition, c++);
+            }
+        }
+    }
+
+    private void compileCondition(String condition, int index) {
+        String text = condition.trim();
+        for (int op = 0; op < operators.length; op++) {
+            int at = text.indexOf(operators[op]);
+            if (at > 0) {
+                conditionFeature[index] = Feature.fromKey(text.substring(0, at).trim()).ordinal();
+                conditionOperator[index] = op;
+                conditionValue[index] =
+                        Double.parseDouble(text.substring(at + operators[op].length()).trim());
+                return;
+            }
+        }
+        throw new IllegalArgumentException(
+                "Vision policy " + name + ": can't parse condition \"" + condition + "\"");
+    }
+
+    public static double[] createFeatures() {
+        return new double[Feature.values().length];
+    }
+
+    /**
+     * Run the policy over one estimate's features
+     *
+     * @param features indexed by {@link Feature#ordinal()}
+     * @param out filled with the std devs and status
+     * @return true if the estimate should be integrated
+     */
+    public boolean evaluate(double[] features, Decision out) {
+        out.accepted = false;
+        out.status = null;
+
+        for (int r = 0; r < ruleCount; r++) {
+            if (stage[r] == Stage.REJECT && matches(r, features)) {
+                out.status = status[r];
+                return false;
+            }
+        }
+
+        int selected = -1;
+        for (int r = 0; r < ruleCount; r++) {
+            if (stage[r] == Stage.SELECT && matches(r, features)) {
+                selected = r;
+                break;
+            }
+        }
+        if (selected < 0) {
+            return false;
+        }
+        out.xyStds = xyStds[selected];
+        out.degStds = degStds[selected];
+        out.status = status[selected];
+
+        for (int r = 0; r < ruleCount; r++) {
+            if (stage[r] == Stage.OVERRIDE && matches(r, features)) {
+                if (!Double.isNaN(xyStds[r])) {
+                    out.xyStds = xyStds[r];
+                }
+                if (!Double.isNaN(degStds[r])) {
+                    out.degStds = degStds[r];
+                }
+            }
+        }
+        out.accepted = true;
+        return true;
+    }
+
+    private boolean matches(int rule, double[] features) {
+        int end = conditionStart[rule] + conditionCount[rule];
+        for (int c = conditionStart[rule]; c < end; c++) {
+            double value = features[conditionFeature[c]];
+            double limit = conditionValue[c];
+            boolean result;
+            switch (conditionOperator[c]) {
+                case LE:
+                    result = value <= limit;
+                    break;
+                case GE:
+                    result = value >= limit;
+                    break;
+                case EQ:
+                    result = value == limit;
+                    break;
+                case NE:
+                    result = value != limit;
+                    break;
+                case LT:
+                    result = value < limit;
+                    break;
+                default:
+                    result = value > limit;
+                    break;
+            }
+            if (!result) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Building */
+
+    private static class Rule {
+        final Stage stage;
+        final double xyStds;
+        final double degStds;
+        final String status;
+        final String[] conditions;
+
+        Rule(Stage stage, double xyStds, double degStds, String status, String[] conditions) {
+            this.stage = stage;
+            this.xyStds = xyStds;
+            this.degStds = degStds;
+            this.status = status;
+            this.conditions = conditions;
+        }
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public static class Builder {
+        private final String name;
+        private final List<Rule> rules = new ArrayList<>();
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /** Drop the estimate if all conditions match, status may be null */
+        public Builder reject(String status, String... conditions) {
+            rules.add(new Rule(Stage.REJECT, Double.NaN, Double.NaN, status, conditions));
+            return this;
+        }
+
+        public Builder select(double xyStds, double degStds, String status, String... conditions) {
+            rules.add(new Rule(Stage.SELECT, xyStds, degStds, status, conditions));
+            return this;
+        }
+
+        /** Replace the std devs if all conditions match, NaN keeps the selected value */
+        public Builder override(double xyStds, double degStds, String... conditions) {
+            rules.add(new Rule(Stage.OVERRIDE, xyStds, degStds, null, conditions));
+            return this;
+        }
+
+        public VisionPolicy build() {
+            return new VisionPolicy(name, rules);
+        }
+    }
+
+    /**
+     * Build a policy from a JSON array of rules like
+     *
+     * <pre>
+     * {"stage": "select", "when": ["tagCount > 1", "area > 2"], "xyStds": 0.1, "degStds": 0.1,
+     *  "status": "Strong Multi integration"}
+     * </pre>
+     *
+     * xyStds and degStds can be left out of reject and override rules.
+     */
+    public static VisionPolicy fromJson(String name, JSONArray json) {
+        Builder builder = builder(name);
+        for (Object item : json) {
+            JSONObject rule = (JSONObject) item;
+            Stage stage = Stage.valueOf(((String) rule.get("stage")).toUpperCase());
+            JSONArray when = (JSONArray) rule.get("when");
+            String[] conditions = new String[when == null ? 0 : when.size()];
+            for (int i = 0; i < conditions.length; i++) {
+                conditions[i] = (String) when.get(i);
+            }
+            builder.rules.add(
+                    new Rule(
+                            stage,
+                            getDouble(rule, "xyStds"),
+                            getDouble(rule, "degStds"),
+                            (String) rule.get("status"),
+                            conditions));
+        }
+        return builder.build();
+    }
+
+    private static double getDouble(JSONObject json, String key) {
+        Object value = json.get(key);
+        return value == null ? Double.NaN : ((Number) value).doubleValue();
+    }
+}
@@ -0,0 +1,159 @@
+package frc.robot.vision;
+
+import com.ctre.phoenix6.swerve.SwerveDrivetrain.SwerveDriveState;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import frc.robot.Robot;
+import frc.spectrumLib.Telemetry;
+import frc.spectrumLib.Telemetry.PrintPriority;
+import frc.spectrumLib.vision.Limelight;
+import frc.spectrumLib.vision.LimelightHelpers;
+
+/**
+ * Records what vision needs to be replayed offline by {@link VisionReplay} into the WPILog.
+ *
+ * <p>Each camera gets one packed double array per new frame with its raw NT values, laid out as
+ * {@link #cameraHeader} values then the botpose, botpose_orb, targetpose_robotspace and
+ * rawfiducials arrays back to back. Odometry is one packed array per loop. Entries are timestamped
+ * by the log in the same microsecond timebase as NT, so the replay can order everything.
+ */
+class VisionRecorder {
+    static final String prefix = "VisionReplay/";
+    static final String odometryEntry = prefix + "Odometry";
+    static final String moduleLocationsEntry = prefix + "ModuleLocations";
+
+    /** tv, tx, ty, ta, tid, botpose time, orb time, then the four array lengths */
+    static final int cameraHeader = 11;
+
+    /** phase, pose x, y, theta, raw heading, vx, vy, omega, then distance and angle per module */
+    static final int odometryHeader = 8;
+
+    private final Camera[] cameras;
+    private final DoubleArrayLogEntry odometry;
+    private double[] odometryValues = new double[0];
+
+    private static class Camera {
+        final DoubleSubscriber tv;
+        final DoubleSubscriber tx;
+        final DoubleSubscriber ty;
+        final DoubleSubscriber ta;
+        final DoubleSubscriber tid;
+        final DoubleArraySubscriber botpose;
+        final DoubleArraySubscriber botposeOrb;
+        final DoubleArraySubscriber targetPoseRobotSpace;
+        final DoubleArraySubscriber rawFiducials;
+        final DoubleArrayLogEntry entry;
+        long lastBotposeTime = -1;
+        long lastOrbTime = -1;
+
+        Camera(String name, DataLog log) {
+            NetworkTable table = LimelightHelpers.getLimelightNTTable(name);
+            tv = table.getDoubleTopic("tv").subscribe(0);
+            tx = table.getDoubleTopic("tx").subscribe(0);
+            ty = table.getDoubleTopic("ty").subscribe(0);
+            ta = table.getDoubleTopic("ta").subscribe(0);
+            tid = table.getDoubleTopic("tid").subscribe(0);
+            botpose = table.getDoubleArrayTopic("botpose_wpiblue").subscribe(new double[0]);
+            botposeOrb = table.getDoubleArrayTopic("botpose_orb_wpiblue").subscribe(new double[0]);
+            targetPoseRobotSpace =
+                    table.getDoubleArrayTopic("targetpose_robotspace").subscribe(new double[0]);
+            rawFiducials = table.getDoubleArrayTopic("rawfiducials").subscribe(new double[0]);
+            entry = new DoubleArrayLogEntry(log, prefix + name);
+        }
+
+        void record() {
+            TimestampedDoubleArray pose = botpose.getAtomic();
+            TimestampedDoubleArray orb = botposeOrb.getAtomic();
+            if (pose.timestamp == lastBotposeTime && orb.timestamp == lastOrbTime) {
+                return;
+            }
+            lastBotposeTime = pose.timestamp;
+            lastOrbTime = orb.timestamp;
+
+            double[] target = targetPoseRobotSpace.get();
+            double[] fiducials = rawFiducials.get();
+            int length =
+                    cameraHeader
+                            + pose.value.length
+                            + orb.value.length
+                            + target.length
+                            + fiducials.length;
+            double[] values = new double[length];
+            values[0] = tv.get();
+            values[1] = tx.get();
+            values[2] = ty.get();
+            values[3] = ta.get();
+            values[4] = tid.get();
+            values[5] = pose.timestamp;
+            values[6] = orb.timestamp;
+            values[7] = pose.value.length;
+            values[8] = orb.value.length;
+            values[9] = target.length;
+            values[10] = fiducials.length;
+            int at = cameraHeader;
+            System.arraycopy(pose.value, 0, values, at, pose.value.length);
+            at += pose.value.length;
+            System.arraycopy(orb.value, 0, values, at, orb.value.length);
+            at += orb.value.length;
+            System.arraycopy(target, 0, values, at, target.length);
+            at += target.length;
+            System.arraycopy(fiducials, 0, values, at, fiducials.length);
+            entry.append(values);
+        }
+    }
+
+    VisionRecorder(Limelight[] limelights) {
+        DataLog log = DataLogManager.getLog();
+        cameras = new Camera[limelights.length];
+        for (int i = 0; i < limelights.length; i++) {
+            cameras[i] = new Camera(limelights[i].getName(), log);
+        }
+        odometry = new DoubleArrayLogEntry(log, odometryEntry);
+
+        Translation2d[] locations = Robot.getSwerve().getModuleLocations();
+        double[] values = new double[locations.length * 2];
+        for (int i = 0; i < locations.length; i++) {
+            values[i * 2] = locations[i].getX();
+            values[i * 2 + 1] = locations[i].getY();
+        }
+        new DoubleArrayLogEntry(log, moduleLocationsEntry).append(values);
+        Telemetry.print("Vision: recording replay data to the log", PrintPriority.HIGH);
+    }
+
+    /**
+     * Log this loop's odometry and any new camera frames
+     *
+     * @param phase ordinal of the integration phase vision is running in
+     */
+    void record(int phase) {
+        SwerveDriveState state = Robot.getSwerve().getState();
+        int modules = state.ModulePositions.length;
+        if (odometryValues.length != odometryHeader + modules * 2) {
+            odometryValues = new double[odometryHeader + modules * 2];
+        }
+        odometryValues[0] = phase;
+        odometryValues[1] = state.Pose.getX();
+        odometryValues[2] = state.Pose.getY();
+        odometryValues[3] = state.Pose.getRotation().getRadians();
+        odometryValues[4] = state.RawHeading.getRadians();
+        odometryValues[5] = state.Speeds.vx;
+        odometryValues[6] = state.Speeds.vy;
+        odometryValues[7] = state.Speeds.omega;
+        for (int i = 0; i < modules; i++) {
+            odometryValues[odometryHeader + i * 2] = state.ModulePositions[i].distance;
+            odometryValues[odometryHeader + i * 2 + 1] =
+                    state.ModulePositions[i].angle.getRadians();
+        }
+        odometry.append(odometryValues);
+
+        for (Camera camera : cameras) {
+            camera.record();
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package frc.robot.vision;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.swerve.PoseHistory;
+import frc.robot.vision.Vision.IntegrationPhase;
+import frc.spectrumLib.util.StreamingStats;
+import frc.spectrumLib.vision.LimelightFrame;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs a log written by {@link VisionRecorder} back through the vision policies into an offline
+ * pose estimator, as fast as the laptop can go. Each camera frame is parsed by {@link
+ * LimelightFrame} and evaluated by {@link VisionIngestContext} exactly like on the robot, with the
+ * offline estimate standing in for the robot pose.
+ *
+ * <p>Reports how many estimates each pose type accepted and why, the processing cost per frame and
+ * how far the offline estimate drifts from the pose the robot had, so a policy change can be
+ * compared against the same match data:
+ *
+ * <pre>
+ * ./gradlew visionReplay --args="FRC_20250301_123456.wpilog deploy/vision/policy.json"
+ * </pre>
+ *
+ * The policy file is optional, the built-in defaults are used without it. Add --fuse to combine
+ * each loop's measurements with {@link VisionFusion} like the robot does when fusing, the estimator
+ * cost in the report compares the two. The robot runs odometry
+ * faster than the loop, so the offline estimate won't match the robot exactly even with the same
+ * policy.
+ */
+public class VisionReplay {
+    private final VisionPolicies policies;
+    private final VisionFusion fusion;
+    private final VisionMeasurementQueue.Sink estimatorSink = this::addToEstimator;
+    private final VisionIngestContext ctx = new VisionIngestContext();
+
+    private static final IntegrationPhase[] phases = IntegrationPhase.values();
+
+    private final Map<Integer, String> entries = new HashMap<>();
+    private final Map<String, Camera> cameras = new HashMap<>();
+    private SwerveDriveKinematics kinematics;
+    private SwerveDrivePoseEstimator estimator;
+    private final PoseHistory estimateHistory = new PoseHistory(256);
+
+    /* Latest odometry */
+    private IntegrationPhase phase = IntegrationPhase.NONE;
+    private double vx;
+    private double vy;
+    private double omega;
+
+    private final PoseType megaTag1Stats = new PoseType("MT1");
+    private final PoseType megaTag2Stats = new PoseType("MT2");
+    private final StreamingStats poseError = new StreamingStats();
+    private final StreamingStats frameMicros = new StreamingStats();
+    private final StreamingStats estimatorMicros = new StreamingStats();
+    private long odometryRecords = 0;
+    private long cameraFrames = 0;
+    private double firstTimestamp = Double.NaN;
+    private double lastTimestamp = Double.NaN;
+
+    private static class Camera {
+        final LimelightFrame frame = new LimelightFrame();
+        double lastMegaTag1 = Double.NaN;
+        double lastMegaTag2 = Double.NaN;
+    }
+
+    private static class PoseType {
+        final String name;
+        long evaluated = 0;
+        long accepted = 0;
+        long noTarget = 0;
+        long duplicate = 0;
+        final Map<String, Integer> statuses = new TreeMap<>();
+
+        PoseType(String name) {
+            this.name = name;
+        }
+
+        String summary() {
+            return String.format(
+                    "%s: %d evaluated, %d accepted (%.1f%%), %d no target, %d duplicate",
+                    name,
+                    evaluated,
+                    accepted,
+                    evaluated == 0 ? 0.0 : 100.0 * accepted / evaluated,
+                    noTarget,
+                    duplicate);
+        }
+    }
+
+    /** @param fusion null to send every accepted measurement to the estimator on its own */
+    public VisionReplay(VisionPolicies policies, VisionFusion fusion) {
+        this.policies = policies;
+        this.fusion = fusion;
+        ctx.setPoseHistory(estimateHistory);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String log = null;
+        String policyFile = null;
+        boolean fuse = false;
+        for (String arg : args) {
+            if (arg.equals("--fuse")) {
+                fuse = true;
+            } else if (log == null) {
+                log = arg;
+            } else {
+                policyFile = arg;
+            }
+        }
+        if (log == null) {
+            System.err.println("usage: VisionReplay <log.wpilog> [policy.json] [--fuse]");
+            System.exit(1);
+        }
+        VisionPolicies policies =
+                policyFile != null
+                        ? VisionPolicies.load(new File(policyFile))
+                        : VisionPolicies.defaults();
+        DataLogReader reader = new DataLogReader(log);
+        if (!reader.isValid()) {
+            System.err.println("VisionReplay: " + log + " is not a WPILog");
+            System.exit(1);
+        }
+
+        VisionReplay replay = new VisionReplay(policies, fuse ? new VisionFusion(0.010, 32) : null);
+        long start = System.nanoTime();
+        for (DataLogRecord record : reader) {
+            replay.process(record);
+        }
+        replay.flush();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.print(replay.report(log, seconds));
+    }
+
+    public void process(DataLogRecord record) {
+        if (record.isStart()) {
+            DataLogRecord.StartRecordData start = record.getStartData();
+            if (start.name.startsWith(VisionRecorder.prefix)) {
+                entries.put(start.entry, start.name);
+            }
+            return;
+        }
+        if (record.isControl()) {
+            return;
+        }
+        String name = entries.get(record.getEntry());
+        if (name == null) {
+            return;
+        }
+
+        double timestamp = record.getTimestamp() / 1e6;
+        if (Double.isNaN(firstTimestamp)) {
+            firstTimestamp = timestamp;
+        }
+        lastTimestamp = timestamp;
+
+        double[] values = record.getDoubleArray();
+        if (name.equals(VisionRecorder.moduleLocationsEntry)) {
+            Translation2d[] locations = new Translation2d[values.length / 2];
+            for (int i = 0; i < locations.length; i++) {
+                locations[i] = new Translation2d(values[i * 2], values[i * 2 + 1]);
+            }
+            kinematics = new SwerveDriveKinematics(locations);
+        } else if (name.equals(VisionRecorder.odometryEntry)) {
+            processOdometry(timestamp, values);
+        } else {
+            processCamera(cameras.computeIfAbsent(name, n -> new Camera()), values);
+        }
+    }
+
+    private void processOdometry(double timestamp, double[] values) {
+        if (kinematics == null) {
+            return;
+        }
+        // a new loop, fuse what the last one accepted
+        flush();
+        odometryRecords++;
+        phase = phases[(int) values[0]];
+        Pose2d robotPose = new Pose2d(values[1], values[2], new Rotation2d(values[3]));
+        Rotation2d heading = new Rotation2d(values[4]);
+        vx = values[5];
+        vy = values[6];
+        omega = values[7];
+        int modules = (values.length - VisionRecorder.odometryHeader) / 2;
+        SwerveModulePosition[] positions = new SwerveModulePosition[modules];
+        for (int i = 0; i < modules; i++) {
+            int at = VisionRecorder.odometryHeader + i * 2;
+            positions[i] = new SwerveModulePosition(values[at], new Rotation2d(values[at + 1]));
+        }
+
+        if (estimator == null) {
+            estimator = new SwerveDrivePoseEstimator(kinematics, heading, positions, robotPose);
+            return;
+        }
+        estimator.updateWithTime(timestamp, heading, positions);
+        estimateHistory.add(timestamp, estimator.getEstimatedPosition());
+        poseError.add(
+                estimator
+                        .getEstimatedPosition()
+                        .getTranslation()
+                        .getDistance(robotPose.getTranslation()));
+    }
+
+    private void processCamera(Camera camera, double[] values) {
+        if (estimator == null) {
+            return;
+        }
+        cameraFrames++;
+        long start = System.nanoTime();
+
+        int botposeLength = (int) values[7];
+        int orbLength = (int) values[8];
+        int targetLength = (int) values[9];
+        int at = VisionRecorder.cameraHeader;
+        double[] botpose = slice(values, at, botposeLength);
+        at += botposeLength;
+        double[] orb = slice(values, at, orbLength);
+        at += orbLength;
+        double[] target = slice(values, at, targetLength);
+        camera.frame.updateFrom(
+                values[0],
+                values[1],
+                values[2],
+                values[3],
+                values[4],
+                botpose,
+                (long) values[5],
+                orb,
+                (long) values[6],
+                target);
+
+        Pose2d estimate = estimator.getEstimatedPosition();
+        ctx.setRobotState(
+                estimate.getX(),
+                estimate.getY(),
+                vx,
+                vy,
+                omega,
+                phase == IntegrationPhase.DISABLED);
+        switch (phase) {
+            case DISABLED:
+                addVisionInput(camera, false, policies.getMt1Disabled());
+                break;
+            case TELEOP:
+                addVisionInput(camera, true, policies.getMt2Teleop());
+                addVisionInput(camera, false, policies.getMt1Teleop());
+                break;
+            case AUTON:
+                addVisionInput(camera, true, policies.getMt2Auton());
+                addVisionInput(camera, false, policies.getMt1Auton());
+                break;
+            default:
+                break;
+        }
+        frameMicros.add((System.nanoTime() - start) / 1e3);
+    }
+
+    /** Same steps as Vision.addVisionInput */
+    private void addVisionInput(Camera camera, boolean megaTag2, VisionPolicy policy) {
+        PoseType type = megaTag2 ? megaTag2Stats : megaTag1Stats;
+        LimelightFrame frame = camera.frame;
+        double timestamp = VisionIngestContext.getTimestamp(frame, megaTag2);
+        double last = megaTag2 ? camera.lastMegaTag2 : camera.lastMegaTag1;
+        if (timestamp == last) {
+            type.duplicate++;
+            return;
+        }
+        if (megaTag2) {
+            camera.lastMegaTag2 = timestamp;
+        } else {
+            camera.lastMegaTag1 = timestamp;
+        }
+
+        if (!frame.isTargetInView()) {
+            type.noTarget++;
+            return;
+        }
+        type.evaluated++;
+        boolean accepted = ctx.evaluate(frame, megaTag2, policy);
+        VisionPolicy.Decision decision = ctx.decision;
+        if (decision.status != null) {
+            type.statuses.merge(decision.status, 1, Integer::sum);
+        }
+        if (!accepted) {
+            return;
+        }
+        type.accepted++;
+        Pose2d pose = VisionIngestContext.getPose(frame, megaTag2);
+        if (fusion != null) {
+            fusion.add(
+                    pose.getX(),
+                    pose.getY(),
+                    pose.getRotation().getRadians(),
+                    timestamp,
+                    decision.xyStds,
+                    decision.degStds);
+        } else {
+            addToEstimator(
+                    pose.getX(),
+                    pose.getY(),
+                    pose.getRotation().getRadians(),
+                    timestamp,
+                    decision.xyStds,
+                    decision.degStds);
+        }
+    }
+
+    /** Send the fused measurements held since the last loop */
+    public void flush() {
+        if (fusion != null && estimator != null) {
+            fusion.flush(estimatorSink);
+        }
+    }
+
+    private void addToEstimator(
+            double x, double y, double theta, double timestamp, double xyStds, double degStds) {
+        long start = System.nanoTime();
+        estimator.addVisionMeasurement(
+                new Pose2d(x, y, new Rotation2d(theta)),
+                timestamp,
+                VecBuilder.fill(xyStds, xyStds, degStds));
+        estimatorMicros.add((System.nanoTime() - start) / 1e3);
+    }
+
+    private static double[] slice(double[] values, int from, int length) {
+        double[] out = new double[length];
+        System.arraycopy(values, from, out, 0, length);
+        return out;
+    }
+
+    public String report(String source, double seconds) {
+        double span = Double.isNaN(firstTimestamp) ? 0 : lastTimestamp - firstTimestamp;
+        StringBuilder report = new StringBuilder();
+        String nl = System.lineSeparator();
+        report.append("Vision replay of ").append(source).append(nl);
+        report.append(
+                        String.format(
+                                "%.1fs of log replayed in %.2fs (%.0fx real time)",
+                                span, seconds, seconds > 0 ? span / seconds : 0))
+                .append(nl);
+        report.append(odometryRecords)
+                .append(" odometry records, ")
+                .append(cameraFrames)
+                .append(" camera frames")
+                .append(nl);
+        for (PoseType type : new PoseType[] {megaTag1Stats, megaTag2Stats}) {
+            report.append(type.summary()).append(nl);
+            for (Map.Entry<String, Integer> status : type.statuses.entrySet()) {
+                report.append(String.format("    %-32s %d", status.getKey(), status.getValue()))
+                        .append(nl);
+            }
+        }
+        report.append(
+                        String.format(
+                                "Pose error vs robot: mean %.3fm, std dev %.3fm, max %.3fm",
+                                poseError.getMean(),
+                                poseError.getStdDev(),
+                                poseError.getMax()))
+                .append(nl);
+        report.append(
+                        String.format(
+                                "Frame cost: mean %.1fus, std dev %.1fus, max %.1fus",
+                                frameMicros.getMean(),
+                                frameMicros.getStdDev(),
+                                frameMicros.getMax()))
+                .append(nl);
+        report.append(
+                        String.format(
+                                "Estimator: %d updates%s, mean %.1fus, total %.1fms",
+                                estimatorMicros.getCount(),
+                                fusion != null ? " (fused)" : "",
+                                estimatorMicros.getMean(),
+                                estimatorMicros.getMean() * estimatorMicros.getCount() / 1e3))
+                .append(nl);
+        return report.toString();
+    }
+}
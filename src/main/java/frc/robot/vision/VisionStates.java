@@ -23,6 +23,10 @@ public class VisionStates {
                 .ignoringDisable(true);
     }
 
+    public static Command focusOnReefTag() {
+        return vision.focusOnReefTag().withName("VisionStates.focusOnReefTag");
+    }
+
     public static Command blinkLimelights() {
         return vision.blinkLimelights().withName("VisionStates.blinkLimelights");
     }
@@ -1,36 +1,29 @@
 package frc.spectrumLib;
 
-import edu.wpi.first.wpilibj2.command.Subsystem;
 import java.util.function.DoubleSupplier;
 
 /**
  * CachedDouble allows for a value to only be checked once per periodic loop if it is called by
- * multiple methods. Periodic is run first, so the value will be updated before it is used in any
- * Triggers or Command
+ * multiple methods. The value is read the first time it is used in each {@link LoopEpoch}, so it
+ * doesn't need to be registered with the scheduler to be cleared every loop.
  */
-public class CachedDouble implements DoubleSupplier, Subsystem {
+public class CachedDouble implements DoubleSupplier {
 
-    private boolean isCached;
+    private long cachedEpoch;
     private double value;
     private DoubleSupplier canCall;
 
     public CachedDouble(DoubleSupplier canCall) {
         this.canCall = canCall;
-        value = canCall.getAsDouble();
-        isCached = true;
-        this.register();
-    }
-
-    @Override
-    public void periodic() {
-        isCached = false;
+        cachedEpoch = LoopEpoch.get() - 1; // Read on first use
     }
 
     @Override
     public double getAsDouble() {
-        if (!isCached) {
+        long epoch = LoopEpoch.get();
+        if (cachedEpoch != epoch) {
             value = canCall.getAsDouble();
-            isCached = true;
+            cachedEpoch = epoch;
         }
         return value;
     }
@@ -0,0 +1,22 @@
+package frc.spectrumLib;
+
+/**
+ * A single counter that is bumped once at the top of every robot loop. Anything that wants to
+ * cache a value for the rest of the loop stores the epoch it was read in and compares against the
+ * current epoch when it is used again, so nothing has to be cleared or registered each loop.
+ */
+public class LoopEpoch {
+    private static long epoch = 0;
+
+    /** Prevent this class from being instantiated. */
+    private LoopEpoch() {}
+
+    /** Call once at the very start of robotPeriodic() */
+    public static void advance() {
+        epoch++;
+    }
+
+    public static long get() {
+        return epoch;
+    }
+}
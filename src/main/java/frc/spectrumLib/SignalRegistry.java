@@ -0,0 +1,79 @@
+package frc.spectrumLib;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Central list of every status signal read by our mechanisms. Signals are registered once when the
+ * device is created and refreshed together at the start of every loop with one {@link
+ * BaseStatusSignal#refreshAll} call per CAN bus. Getters then read the cached value of the signal,
+ * so every mechanism sees the same time aligned snapshot and no getter makes its own refresh call.
+ */
+public class SignalRegistry {
+    private static final Map<String, List<BaseStatusSignal>> signalsByBus = new LinkedHashMap<>();
+    private static final Map<String, Alert> busAlerts = new LinkedHashMap<>();
+    private static BaseStatusSignal[][] busSignals = new BaseStatusSignal[0][];
+    private static String[] busNames = new String[0];
+    private static boolean changed = false;
+
+    /** Prevent this class from being instantiated. */
+    private SignalRegistry() {}
+
+    /**
+     * Register signals to be refreshed every loop
+     *
+     * @param bus CAN bus the signals are on, signals are refreshed in one call per bus
+     * @param signals signals to refresh
+     */
+    public static void register(String bus, BaseStatusSignal... signals) {
+        List<BaseStatusSignal> list = signalsByBus.computeIfAbsent(bus, k -> new ArrayList<>());
+        for (BaseStatusSignal signal : signals) {
+            list.add(signal);
+        }
+        changed = true;
+    }
+
+    /** Refresh every registered signal, call once at the start of robotPeriodic() */
+    public static void refreshAll() {
+        if (changed) {
+            rebuild();
+        }
+        for (int i = 0; i < busSignals.length; i++) {
+            StatusCode status = BaseStatusSignal.refreshAll(busSignals[i]);
+            busAlerts.get(busNames[i]).set(!status.isOK());
+        }
+    }
+
+    public static int getSignalCount() {
+        int count = 0;
+        for (List<BaseStatusSignal> list : signalsByBus.values()) {
+            count += list.size();
+        }
+        return count;
+    }
+
+    // Build the arrays once so refreshAll doesn't allocate every loop
+    private static void rebuild() {
+        busSignals = new BaseStatusSignal[signalsByBus.size()][];
+        busNames = new String[signalsByBus.size()];
+        int i = 0;
+        for (Map.Entry<String, List<BaseStatusSignal>> entry : signalsByBus.entrySet()) {
+            busNames[i] = entry.getKey();
+            busSignals[i] = entry.getValue().toArray(new BaseStatusSignal[0]);
+            busAlerts.computeIfAbsent(
+                    entry.getKey(),
+                    bus ->
+                            new Alert(
+                                    "Status signal refresh failed on CAN bus: " + bus,
+                                    AlertType.kWarning));
+            i++;
+        }
+        changed = false;
+    }
+}
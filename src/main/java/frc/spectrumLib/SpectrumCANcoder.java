@@ -9,6 +9,9 @@ import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 import com.ctre.phoenix6.signals.SensorDirectionValue;
 import frc.spectrumLib.mechanism.Mechanism.Config;
+import frc.spectrumLib.talonFX.ConfigFingerprint;
+import frc.spectrumLib.talonFX.DeviceConfigurator;
+import frc.spectrumLib.talonFX.TalonFXFactory;
 import lombok.Getter;
 
 public class SpectrumCANcoder {
@@ -41,10 +44,30 @@ public class SpectrumCANcoder {
             canCoderConfigs.MagnetSensor.SensorDirection =
                     SensorDirectionValue.CounterClockwise_Positive;
             canCoderConfigs.MagnetSensor.AbsoluteSensorDiscontinuityPoint = 0.5;
-            if (canCoderResponseOK(canCoder.getConfigurator().apply(canCoderConfigs))) {
-                // Modify configuration to use remote CANcoder fused
-                modifyMotorConfig(motor, mechConfig);
-            }
+
+            // Modify a copy of the motor configuration to use remote CANcoder fused, the
+            // mechanism only takes it once the CANcoder is configured
+            TalonFXConfiguration motorConfig =
+                    pointAtCANcoder(TalonFXFactory.copyConfig(mechConfig.getTalonConfig()));
+
+            // Queued on the motor's bus so it runs after the motor config and before anything
+            // that reads the CANcoder, like setting the initial position. The mechanism config is
+            // only swapped on the main thread, even if this finishes after awaitAll() times out
+            DeviceConfigurator.submit(
+                    motor.getNetwork(),
+                    "CANcoder " + CANcoderID,
+                    () -> {
+                        StatusCode result = canCoder.getConfigurator().apply(canCoderConfigs);
+                        if (!canCoderResponseOK(result)) {
+                            return result;
+                        }
+                        result = ConfigFingerprint.apply(motor, motorConfig);
+                        if (result.isOK()) {
+                            DeviceConfigurator.runOnMainThread(
+                                    () -> mechConfig.setTalonConfig(motorConfig));
+                        }
+                        return result;
+                    });
         }
     }
 
@@ -54,7 +77,14 @@ public class SpectrumCANcoder {
 
     public SpectrumCANcoder modifyMotorConfig(TalonFX motor, Config mechConfig) {
         TalonFXConfigurator configurator = motor.getConfigurator();
-        TalonFXConfiguration talonConfigMod = mechConfig.getTalonConfig();
+        TalonFXConfiguration talonConfigMod = pointAtCANcoder(mechConfig.getTalonConfig());
+        configurator.apply(talonConfigMod);
+        mechConfig.setTalonConfig(talonConfigMod);
+        return this;
+    }
+
+    // Point a motor config at this CANcoder
+    private TalonFXConfiguration pointAtCANcoder(TalonFXConfiguration talonConfigMod) {
         talonConfigMod.Feedback.FeedbackRemoteSensorID = config.getCANcoderID();
         switch (feedbackSource) {
             case RemoteCANcoder:
@@ -72,9 +102,7 @@ public class SpectrumCANcoder {
         }
         talonConfigMod.Feedback.RotorToSensorRatio = config.getRotorToSensorRatio();
         talonConfigMod.Feedback.SensorToMechanismRatio = config.getSensorToMechanismRatio();
-        configurator.apply(talonConfigMod);
-        mechConfig.setTalonConfig(talonConfigMod);
-        return this;
+        return talonConfigMod;
     }
 
     public boolean canCoderResponseOK(StatusCode response) {
@@ -1,7 +1,9 @@
 package frc.spectrumLib.mechanism;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.ControlRequest;
 import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.controls.DynamicMotionMagicTorqueCurrentFOC;
 import com.ctre.phoenix6.controls.MotionMagicTorqueCurrentFOC;
@@ -23,17 +25,32 @@ import edu.wpi.first.util.sendable.SendableRegistry;
 import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.spectrumLib.CachedDouble;
+import frc.spectrumLib.SignalRegistry;
 import frc.spectrumLib.SpectrumRobot;
 import frc.spectrumLib.SpectrumSubsystem;
+import frc.spectrumLib.selftest.SelfTestStep;
+import frc.spectrumLib.talonFX.CanBusBudget;
+import frc.spectrumLib.talonFX.ConfigFingerprint;
+import frc.spectrumLib.talonFX.DeviceConfigurator;
 import frc.spectrumLib.talonFX.TalonFXFactory;
+import frc.spectrumLib.talonFX.TalonFXSignal;
 import frc.spectrumLib.util.CanDeviceId;
 import frc.spectrumLib.util.Conversions;
+import frc.spectrumLib.util.StreamingStats;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.DoublePredicate;
 import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
 import lombok.*;
 
 /**
@@ -57,6 +74,25 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
     private final CachedDouble cachedVelocity;
     private final CachedDouble cachedCurrent;
 
+    // Position/velocity/current triggers are all evaluated together, in rotations, RPS and amps
+    @Getter protected final ThresholdBank thresholds = new ThresholdBank();
+    private final int positionChannel = thresholds.addChannel(this::getPositionRotations);
+    private final int velocityChannel = thresholds.addChannel(this::updateVelocityRPS);
+    private final int currentChannel = thresholds.addChannel(this::getStatorCurrent);
+
+    // Refreshed together once per loop by the SignalRegistry
+    private BaseStatusSignal positionSignal;
+    private BaseStatusSignal velocitySignal;
+    private BaseStatusSignal voltageSignal;
+    private BaseStatusSignal statorCurrentSignal;
+
+    // Last control request sent, used to skip sending the same setpoint every loop
+    private ControlRequest lastRequest = null;
+    private final double[] lastParams = new double[4];
+    private double lastSentTime = 0;
+    @Getter private long controlRequestsSent = 0;
+    @Getter private long controlRequestsSuppressed = 0;
+
     protected Mechanism(Config config) {
         this.config = config;
 
@@ -71,6 +107,42 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
                                 motor,
                                 config.followerConfigs[i].opposeLeader);
             }
+
+            positionSignal = motor.getPosition();
+            velocitySignal = motor.getVelocity();
+            voltageSignal = motor.getMotorVoltage();
+            statorCurrentSignal = motor.getStatorCurrent();
+            SignalRegistry.register(
+                    config.id.getBus(),
+                    positionSignal,
+                    velocitySignal,
+                    voltageSignal,
+                    statorCurrentSignal);
+
+            Map<TalonFXSignal, Double> signalRates =
+                    TalonFXFactory.getStatusSignalRates(
+                            config.signalUpdateRates, followerMotors.length > 0);
+            queueDeviceTask(
+                    "signals",
+                    () ->
+                            TalonFXFactory.applyStatusSignals(
+                                    motor, signalRates, config.optimizeBusUtilization));
+            CanBusBudget.addDevice(
+                    config.id.getBus(),
+                    CanBusBudget.getTalonFXFrames(signalRates, config.optimizeBusUtilization));
+
+            // Followers only need their control frame, nothing reads their status signals
+            for (int i = 0; i < followerMotors.length; i++) {
+                TalonFX follower = followerMotors[i];
+                if (config.optimizeBusUtilization) {
+                    queueDeviceTask(
+                            config.followerConfigs[i].name + " signals",
+                            follower::optimizeBusUtilization);
+                }
+                CanBusBudget.addDevice(
+                        config.followerConfigs[i].id.getBus(),
+                        CanBusBudget.getTalonFXFrames(Map.of(), config.optimizeBusUtilization));
+            }
         }
 
         cachedCurrent = new CachedDouble(this::updateCurrent);
@@ -89,11 +161,42 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
         config.attached = attached;
     }
 
+    /**
+     * Queue a device write (such as setting the initial position) behind this mechanism's configs.
+     * Tasks run in order on the mechanism's CAN bus and are retried if they return an error.
+     *
+     * @param name what the task does, used in the config latency report
+     * @param task returns the StatusCode of the write
+     */
+    protected CompletableFuture<Boolean> queueDeviceTask(String name, Supplier<StatusCode> task) {
+        return DeviceConfigurator.submit(config.id.getBus(), config.name + " " + name, task);
+    }
+
     // Setup the telemetry values, has to be called at the end of the implemented mechanism
     // constructor
     public void telemetryInit() {
         SendableRegistry.add(this, getName());
         SmartDashboard.putData(this);
+        if (isAttached()) {
+            MechanismTelemetry.add(this);
+        }
+    }
+
+    /** Fill in this mechanism's entry of the MechanismTelemetry struct array */
+    protected void updateState(MechanismState state) {
+        state.rotations = getPositionRotations();
+        state.degrees = getTelemetryDegrees();
+        state.velocityRPM = getVelocityRPM();
+        state.voltage = getVoltage();
+        state.statorCurrent = getStatorCurrent();
+        state.target = target;
+        state.controlRequestsSent = controlRequestsSent;
+        state.controlRequestsSuppressed = controlRequestsSuppressed;
+    }
+
+    /** Position in degrees for telemetry, override if the mechanism reports an offset angle */
+    protected double getTelemetryDegrees() {
+        return getPositionDegrees();
     }
 
     @Override
@@ -147,96 +250,99 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
     }
 
     public Trigger atRotations(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        Math.abs(getPositionRotations() - target.getAsDouble())
-                                < tolerance.getAsDouble());
+        return thresholds.at(positionChannel, target, tolerance, rotations -> rotations);
     }
 
     public Trigger belowRotations(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getPositionRotations() < (target.getAsDouble() + tolerance.getAsDouble()));
+        return thresholds.below(
+                positionChannel,
+                () -> target.getAsDouble() + tolerance.getAsDouble(),
+                rotations -> rotations);
     }
 
     public Trigger aboveRotations(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getPositionRotations() > (target.getAsDouble() - tolerance.getAsDouble()));
+        return thresholds.above(
+                positionChannel,
+                () -> target.getAsDouble() - tolerance.getAsDouble(),
+                rotations -> rotations);
     }
 
     public Trigger atPercentage(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        Math.abs(getPositionPercentage() - target.getAsDouble())
-                                < tolerance.getAsDouble());
+        return thresholds.at(positionChannel, target, tolerance, this::percentToRotations);
     }
 
     public Trigger belowPercentage(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getPositionPercentage() < (target.getAsDouble() + tolerance.getAsDouble()));
+        return thresholds.below(
+                positionChannel,
+                () -> target.getAsDouble() + tolerance.getAsDouble(),
+                this::percentToRotations);
     }
 
     public Trigger abovePercentage(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getPositionPercentage() > (target.getAsDouble() - tolerance.getAsDouble()));
+        return thresholds.above(
+                positionChannel,
+                () -> target.getAsDouble() - tolerance.getAsDouble(),
+                this::percentToRotations);
     }
 
     public Trigger atDegrees(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        Math.abs(getPositionDegrees() - target.getAsDouble())
-                                < tolerance.getAsDouble());
+        return thresholds.at(positionChannel, target, tolerance, this::degreesToRotations);
     }
 
     public Trigger belowDegrees(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getPositionDegrees() < (target.getAsDouble() + tolerance.getAsDouble()));
+        return thresholds.below(
+                positionChannel,
+                () -> target.getAsDouble() + tolerance.getAsDouble(),
+                this::degreesToRotations);
     }
 
     public Trigger aboveDegrees(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getPositionDegrees() > (target.getAsDouble() - tolerance.getAsDouble()));
+        return thresholds.above(
+                positionChannel,
+                () -> target.getAsDouble() - tolerance.getAsDouble(),
+                this::degreesToRotations);
     }
 
     public Trigger atVelocityRPM(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> Math.abs(getVelocityRPM() - target.getAsDouble()) < tolerance.getAsDouble());
+        return thresholds.at(velocityChannel, target, tolerance, Conversions::RPMtoRPS);
     }
 
     public Trigger belowVelocityRPM(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getVelocityRPM() < (target.getAsDouble() + tolerance.getAsDouble()));
+        return thresholds.below(
+                velocityChannel,
+                () -> target.getAsDouble() + tolerance.getAsDouble(),
+                Conversions::RPMtoRPS);
     }
 
     public Trigger aboveVelocityRPM(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getVelocityRPM() > (target.getAsDouble() - tolerance.getAsDouble()));
+        return thresholds.above(
+                velocityChannel,
+                () -> target.getAsDouble() - tolerance.getAsDouble(),
+                Conversions::RPMtoRPS);
     }
 
     public Trigger atCurrent(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () ->
-                        Math.abs(getStatorCurrent() - target.getAsDouble())
-                                < tolerance.getAsDouble());
+        return thresholds.at(currentChannel, target, tolerance, amps -> amps);
     }
 
     public Trigger belowCurrent(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getStatorCurrent() < (target.getAsDouble() + tolerance.getAsDouble()));
+        return thresholds.below(
+                currentChannel, () -> target.getAsDouble() + tolerance.getAsDouble(), amps -> amps);
     }
 
     public Trigger aboveCurrent(DoubleSupplier target, DoubleSupplier tolerance) {
-        return new Trigger(
-                () -> getStatorCurrent() > (target.getAsDouble() - tolerance.getAsDouble()));
+        return thresholds.above(
+                currentChannel, () -> target.getAsDouble() - tolerance.getAsDouble(), amps -> amps);
     }
 
     /**
-     * Update the value of the stator current for the motor
+     * Update the value of the stator current for the motor from the latest signal refresh
      *
      * @return
      */
     public double updateCurrent() {
         if (config.attached) {
-            return motor.getStatorCurrent().getValueAsDouble();
+            return statorCurrentSignal.getValueAsDouble();
         }
         return 0;
     }
@@ -247,7 +353,7 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
 
     public double updateVoltage() {
         if (config.attached) {
-            return motor.getMotorVoltage().getValueAsDouble();
+            return voltageSignal.getValueAsDouble();
         }
         return 0;
     }
@@ -262,7 +368,11 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
      * @return
      */
     public double percentToRotations(DoubleSupplier percent) {
-        return (percent.getAsDouble() / 100) * config.maxRotations;
+        return percentToRotations(percent.getAsDouble());
+    }
+
+    public double percentToRotations(double percent) {
+        return (percent / 100) * config.maxRotations;
     }
 
     /**
@@ -281,7 +391,11 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
      * @return rotations
      */
     public double degreesToRotations(DoubleSupplier degrees) {
-        return (degrees.getAsDouble() / 360);
+        return degreesToRotations(degrees.getAsDouble());
+    }
+
+    public double degreesToRotations(double degrees) {
+        return degrees / 360;
     }
 
     /**
@@ -299,13 +413,13 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
     }
 
     /**
-     * Updates the position of the motor
+     * Updates the position of the motor from the latest signal refresh
      *
      * @return motor position in rotations
      */
     private double updatePositionRotations() {
         if (config.attached) {
-            return motor.getPosition().getValueAsDouble();
+            return positionSignal.getValueAsDouble();
         }
         return 0;
     }
@@ -327,13 +441,13 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
     }
 
     /**
-     * Updates the velocity of the motor
+     * Updates the velocity of the motor from the latest signal refresh
      *
      * @return motor velocity in rotations/sec which are the CTRE native units
      */
     private double updateVelocityRPS() {
         if (config.attached) {
-            return motor.getVelocity().getValueAsDouble();
+            return velocitySignal.getValueAsDouble();
         }
         return 0;
     }
@@ -459,9 +573,44 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
     protected void stop() {
         if (isAttached()) {
             motor.stopMotor();
+            lastRequest = null;
         }
     }
 
+    private void sendControl(ControlRequest request, double value) {
+        sendControl(request, value, 0, 0, 0);
+    }
+
+    /**
+     * Send a control request to the motor unless it is the same request with the same parameters
+     * as the last one sent. Phoenix keeps sending the last request on its own, so this only skips
+     * the repeated setControl() calls, and the request is sent again after the keep alive time.
+     */
+    private void sendControl(ControlRequest request, double a, double b, double c, double d) {
+        double now = Timer.getFPGATimestamp();
+        if (request == lastRequest
+                && a == lastParams[0]
+                && b == lastParams[1]
+                && c == lastParams[2]
+                && d == lastParams[3]
+                && now - lastSentTime < config.controlKeepAlive) {
+            controlRequestsSuppressed++;
+            return;
+        }
+
+        if (motor.setControl(request).isOK()) {
+            lastRequest = request;
+            lastParams[0] = a;
+            lastParams[1] = b;
+            lastParams[2] = c;
+            lastParams[3] = d;
+            lastSentTime = now;
+        } else {
+            lastRequest = null;
+        }
+        controlRequestsSent++;
+    }
+
     /** Sets the mechanism position of the motor to 0 */
     protected void tareMotor() {
         if (isAttached()) {
@@ -489,7 +638,7 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
         if (isAttached()) {
             target = velocityRPS.getAsDouble();
             MotionMagicVelocityTorqueCurrentFOC mm = config.mmVelocityFOC.withVelocity(target);
-            motor.setControl(mm);
+            sendControl(mm, target);
         }
     }
 
@@ -502,7 +651,7 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
         if (isAttached()) {
             target = velocityRPS.getAsDouble();
             VelocityTorqueCurrentFOC output = config.velocityTorqueCurrentFOC.withVelocity(target);
-            motor.setControl(output);
+            sendControl(output, target);
         }
     }
 
@@ -515,7 +664,7 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
         if (isAttached()) {
             target = Conversions.RPMtoRPS(velocityRPS.getAsDouble());
             VelocityTorqueCurrentFOC output = config.velocityTorqueCurrentFOC.withVelocity(target);
-            motor.setControl(output);
+            sendControl(output, target);
         }
     }
 
@@ -528,7 +677,7 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
         if (isAttached()) {
             target = velocityRPS.getAsDouble();
             VelocityVoltage output = config.velocityControl.withVelocity(target);
-            motor.setControl(output);
+            sendControl(output, target);
         }
     }
 
@@ -541,7 +690,7 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
         if (isAttached()) {
             target = rotations.getAsDouble();
             MotionMagicTorqueCurrentFOC mm = config.mmPositionFOC.withPosition(target);
-            motor.setControl(mm);
+            sendControl(mm, target);
         }
     }
 
@@ -567,7 +716,7 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
                             .withVelocity(velocity.getAsDouble())
                             .withAcceleration(acceleration.getAsDouble())
                             .withJerk(jerk.getAsDouble());
-            motor.setControl(mm);
+            sendControl(mm, target, mm.Velocity, mm.Acceleration, mm.Jerk);
         }
     }
 
@@ -591,7 +740,7 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
             target = rotations.getAsDouble();
             MotionMagicVoltage mm =
                     config.mmPositionVoltageSlot.withSlot(slot).withPosition(target);
-            motor.setControl(mm);
+            sendControl(mm, target, slot, 0, 0);
         }
     }
 
@@ -605,21 +754,21 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
             VoltageOut output =
                     config.voltageControl.withOutput(
                             config.voltageCompSaturation * percent.getAsDouble());
-            motor.setControl(output);
+            sendControl(output, output.Output);
         }
     }
 
     public void setVoltageOutput(DoubleSupplier voltage) {
         if (isAttached()) {
             VoltageOut output = config.voltageControl.withOutput(voltage.getAsDouble());
-            motor.setControl(output);
+            sendControl(output, output.Output);
         }
     }
 
     public void setTorqueCurrentFoc(DoubleSupplier current) {
         if (isAttached()) {
             TorqueCurrentFOC output = config.torqueCurrentFOC.withOutput(current.getAsDouble());
-            motor.setControl(output);
+            sendControl(output, output.Output);
         }
     }
 
@@ -675,7 +824,7 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
                 config.configForwardTorqueCurrentLimit(Math.abs(statorLimit.getAsDouble()));
                 config.configReverseTorqueCurrentLimit(-1 * Math.abs(statorLimit.getAsDouble()));
                 for (int i = 0; i < 10; i++) {
-                    StatusCode result = motor.getConfigurator().apply(config.talonConfig);
+                    StatusCode result = ConfigFingerprint.apply(motor, config.talonConfig);
                     if (!result.isOK()) {
                         System.out.println(
                                 "Could not apply config changes to "
@@ -689,105 +838,68 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
         }
     }
 
-    public Command checkAvgCurrent(DoubleSupplier expectedCurrent, DoubleSupplier tolerance) {
-        return new Command() {
-            double totalCurrent = 0;
-            int count = 0;
-            String alertText = config.name + " AvgCurrent Error";
-
-            @Override
-            public void initialize() {
-                totalCurrent = 0;
-                count = 0;
-            }
-
-            @Override
-            public void execute() {
-                totalCurrent += getStatorCurrent();
-                count++;
-            }
+    /**
+     * Start a self test step that runs an action on this mechanism and samples its current,
+     * velocity and position, add the expected values with the step's expect methods
+     */
+    public SelfTestStep selfTest(String name, Command action, double seconds) {
+        return new SelfTestStep(getName() + " " + name, action, seconds)
+                .sample("current", this::getStatorCurrent)
+                .sample("velocityRPM", this::getVelocityRPM)
+                .sample("rotations", this::getPositionRotations);
+    }
 
-            @Override
-            public void end(boolean interrupted) {
-                double avgCurrent = totalCurrent / count;
-                if (Math.abs(avgCurrent - expectedCurrent.getAsDouble())
-                        > tolerance.getAsDouble()) {
-                    currentAlert.setText(
-                            alertText
-                                    + " Expected: "
-                                    + expectedCurrent.getAsDouble()
-                                    + " Actual: "
-                                    + avgCurrent);
-                    currentAlert.set(true);
-                }
-            }
-        };
+    public Command checkAvgCurrent(DoubleSupplier expectedCurrent, DoubleSupplier tolerance) {
+        return checkCurrent(
+                "AvgCurrent Error Expected: ",
+                StreamingStats::getMean,
+                avg -> Math.abs(avg - expectedCurrent.getAsDouble()) > tolerance.getAsDouble(),
+                expectedCurrent);
     }
 
     public Command checkMaxCurrent(DoubleSupplier expectedCurrent) {
-        return new Command() {
-            double maxCurrent = 0;
-            String alertText = config.name + " MaxCurrent Error";
-
-            @Override
-            public void initialize() {
-                maxCurrent = 0;
-            }
-
-            @Override
-            public void execute() {
-                double current = getStatorCurrent();
-                if (current > maxCurrent) {
-                    maxCurrent = current;
-                }
-            }
-
-            @Override
-            public void end(boolean interrupted) {
-                if (maxCurrent > expectedCurrent.getAsDouble()) {
-                    currentAlert.setText(
-                            alertText
-                                    + " Expected: "
-                                    + expectedCurrent.getAsDouble()
-                                    + " Actual: "
-                                    + maxCurrent);
-                    currentAlert.set(true);
-                }
-            }
-        };
+        return checkCurrent(
+                "MaxCurrent Error Expected: ",
+                StreamingStats::getMax,
+                max -> max > expectedCurrent.getAsDouble(),
+                expectedCurrent);
     }
 
     public Command checkMinThresholdCurrent(DoubleSupplier expectedCurrent) {
-        return new Command() {
-            double maxCurrent = 0;
-            String alertText = config.name + " Current Error";
-
-            @Override
-            public void initialize() {
-                maxCurrent = 0;
-            }
-
-            @Override
-            public void execute() {
-                double current = getStatorCurrent();
-                if (current > maxCurrent) {
-                    maxCurrent = current;
-                }
-            }
-
-            @Override
-            public void end(boolean interrupted) {
-                if (maxCurrent < expectedCurrent.getAsDouble()) {
-                    currentAlert.setText(
-                            alertText
-                                    + " Expected at least: "
-                                    + expectedCurrent.getAsDouble()
-                                    + " Actual: "
-                                    + maxCurrent);
-                    currentAlert.set(true);
-                }
-            }
-        };
+        return checkCurrent(
+                "Current Error Expected at least: ",
+                StreamingStats::getMax,
+                max -> max < expectedCurrent.getAsDouble(),
+                expectedCurrent);
+    }
+
+    /** Sample the stator current while running and set the current alert if the stat fails */
+    private Command checkCurrent(
+            String alertText,
+            ToDoubleFunction<StreamingStats> stat,
+            DoublePredicate failed,
+            DoubleSupplier expectedCurrent) {
+        StreamingStats stats = new StreamingStats();
+        return new FunctionalCommand(
+                stats::reset,
+                () -> stats.add(getStatorCurrent()),
+                interrupted -> {
+                    if (stats.getCount() == 0) {
+                        return;
+                    }
+                    double actual = stat.applyAsDouble(stats);
+                    if (failed.test(actual)) {
+                        currentAlert.setText(
+                                config.name
+                                        + " "
+                                        + alertText
+                                        + expectedCurrent.getAsDouble()
+                                        + " Actual: "
+                                        + actual);
+                        currentAlert.set(true);
+                    }
+                },
+                () -> false);
     }
 
     public static class FollowerConfig {
@@ -813,8 +925,18 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
         @Getter private double minRotations = 0;
         @Getter private double maxRotations = 1;
 
+        /** Seconds before an unchanged control request is sent again, 0 sends every call */
+        @Getter private double controlKeepAlive = 0.5;
+
         @Getter private FollowerConfig[] followerConfigs = new FollowerConfig[0];
 
+        /** Status signals this mechanism reads and their rate in hz */
+        @Getter
+        private Map<TalonFXSignal, Double> signalUpdateRates = new EnumMap<>(TalonFXSignal.class);
+
+        /** Turn off every status signal not in signalUpdateRates to free up the CAN bus */
+        @Getter private boolean optimizeBusUtilization = true;
+
         @Getter
         private MotionMagicVelocityTorqueCurrentFOC mmVelocityFOC =
                 new MotionMagicVelocityTorqueCurrentFOC(0);
@@ -856,10 +978,17 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
             /* Put default config settings for all mechanisms here */
             talonConfig.HardwareLimitSwitch.ForwardLimitEnable = false;
             talonConfig.HardwareLimitSwitch.ReverseLimitEnable = false;
+
+            /* Signals read by every mechanism, position and velocity faster than the loop */
+            configSignalUpdateRate(TalonFXSignal.POSITION, 100);
+            configSignalUpdateRate(TalonFXSignal.VELOCITY, 100);
+            configSignalUpdateRate(TalonFXSignal.MOTOR_VOLTAGE, 50);
+            configSignalUpdateRate(TalonFXSignal.STATOR_CURRENT, 50);
         }
 
         public void applyTalonConfig(TalonFX talon) {
-            StatusCode result = talon.getConfigurator().apply(talonConfig);
+            // Only writes the groups that changed since the last apply
+            StatusCode result = ConfigFingerprint.apply(talon, talonConfig);
             if (!result.isOK()) {
                 DriverStation.reportWarning(
                         "Could not apply config changes to " + name + "\'s motor ", false);
@@ -870,6 +999,33 @@ public abstract class Mechanism implements NTSendable, SpectrumSubsystem {
             followerConfigs = followers;
         }
 
+        /**
+         * Set the rate of a status signal this mechanism reads, a rate of 0 removes it so it is
+         * turned off when the bus is optimized
+         *
+         * @param signal
+         * @param frequencyHz
+         */
+        public void configSignalUpdateRate(TalonFXSignal signal, double frequencyHz) {
+            if (frequencyHz <= 0) {
+                signalUpdateRates.remove(signal);
+            } else {
+                signalUpdateRates.put(signal, frequencyHz);
+            }
+        }
+
+        /**
+         * Turn off every status signal not set with configSignalUpdateRate(), disable this to leave
+         * the Phoenix default status frames on (useful when debugging with Phoenix Tuner)
+         */
+        public void configOptimizeBusUtilization(boolean optimize) {
+            optimizeBusUtilization = optimize;
+        }
+
+        public void configControlKeepAlive(double seconds) {
+            controlKeepAlive = seconds;
+        }
+
         public void configVoltageCompensation(double voltageCompSaturation) {
             this.voltageCompSaturation = voltageCompSaturation;
         }
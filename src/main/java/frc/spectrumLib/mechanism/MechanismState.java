@@ -0,0 +1,86 @@
+package frc.spectrumLib.mechanism;
+
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.util.struct.StructSerializable;
+import java.nio.ByteBuffer;
+
+/**
+ * Snapshot of one mechanism's telemetry, published for every mechanism as one struct array by
+ * {@link MechanismTelemetry}. The fields are mutable so the same objects are refilled every loop.
+ */
+public class MechanismState implements StructSerializable {
+    public double rotations;
+    /** Position in degrees as the mechanism reports it (offset/wrapped where the mechanism does) */
+    public double degrees;
+
+    public double velocityRPM;
+    public double voltage;
+    public double statorCurrent;
+    /** Last closed loop target sent to the motor */
+    public double target;
+
+    public long controlRequestsSent;
+    public long controlRequestsSuppressed;
+
+    public static final MechanismStateStruct struct = new MechanismStateStruct();
+
+    public static class MechanismStateStruct implements Struct<MechanismState> {
+        @Override
+        public Class<MechanismState> getTypeClass() {
+            return MechanismState.class;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "MechanismState";
+        }
+
+        @Override
+        public int getSize() {
+            return kSizeDouble * 6 + kSizeInt64 * 2;
+        }
+
+        @Override
+        public String getSchema() {
+            return "double rotations;double degrees;double velocityRPM;double voltage;"
+                    + "double statorCurrent;double target;int64 controlRequestsSent;"
+                    + "int64 controlRequestsSuppressed";
+        }
+
+        @Override
+        public MechanismState unpack(ByteBuffer bb) {
+            MechanismState state = new MechanismState();
+            unpackInto(state, bb);
+            return state;
+        }
+
+        @Override
+        public void unpackInto(MechanismState state, ByteBuffer bb) {
+            state.rotations = bb.getDouble();
+            state.degrees = bb.getDouble();
+            state.velocityRPM = bb.getDouble();
+            state.voltage = bb.getDouble();
+            state.statorCurrent = bb.getDouble();
+            state.target = bb.getDouble();
+            state.controlRequestsSent = bb.getLong();
+            state.controlRequestsSuppressed = bb.getLong();
+        }
+
+        @Override
+        public void pack(ByteBuffer bb, MechanismState state) {
+            bb.putDouble(state.rotations);
+            bb.putDouble(state.degrees);
+            bb.putDouble(state.velocityRPM);
+            bb.putDouble(state.voltage);
+            bb.putDouble(state.statorCurrent);
+            bb.putDouble(state.target);
+            bb.putLong(state.controlRequestsSent);
+            bb.putLong(state.controlRequestsSuppressed);
+        }
+
+        @Override
+        public boolean isImmutable() {
+            return false;
+        }
+    }
+}
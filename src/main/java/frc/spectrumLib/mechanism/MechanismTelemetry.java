@@ -0,0 +1,86 @@
+package frc.spectrumLib.mechanism;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringArrayPublisher;
+import edu.wpi.first.networktables.StructArrayPublisher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Publishes the telemetry of every mechanism as a single MechanismState struct array, the same way
+ * Swerve publishes its SwerveModuleStates, instead of a handful of SmartDashboard properties per
+ * mechanism. The names array says which mechanism is at each index, and the running command of each
+ * mechanism is published as a string array only when one of them changes.
+ */
+public class MechanismTelemetry {
+    /** Publish every this many loops */
+    @Getter @Setter private static int publishEveryLoops = 1;
+
+    @Getter @Setter private static boolean enabled = true;
+
+    private static final List<Mechanism> mechanisms = new ArrayList<>();
+    private static MechanismState[] states = new MechanismState[0];
+    private static String[] names = new String[0];
+    private static String[] commands = new String[0];
+    private static boolean namesChanged = false;
+    private static int loopsSincePublish = 0;
+
+    private static final NetworkTable table =
+            NetworkTableInstance.getDefault().getTable("Mechanisms");
+    private static final StructArrayPublisher<MechanismState> statePublisher =
+            table.getStructArrayTopic("States", MechanismState.struct).publish();
+    private static final StringArrayPublisher namePublisher =
+            table.getStringArrayTopic("Names").publish();
+    private static final StringArrayPublisher commandPublisher =
+            table.getStringArrayTopic("Commands").publish();
+
+    /** Prevent this class from being instantiated. */
+    private MechanismTelemetry() {}
+
+    public static void add(Mechanism mechanism) {
+        if (mechanisms.contains(mechanism)) {
+            return;
+        }
+        mechanisms.add(mechanism);
+        states = Arrays.copyOf(states, mechanisms.size());
+        states[states.length - 1] = new MechanismState();
+        names = Arrays.copyOf(names, mechanisms.size());
+        names[names.length - 1] = mechanism.getName();
+        commands = Arrays.copyOf(commands, mechanisms.size());
+        commands[commands.length - 1] = "";
+        namesChanged = true;
+    }
+
+    /** Call once per loop after the scheduler has run */
+    public static void publish() {
+        if (!enabled || ++loopsSincePublish < publishEveryLoops) {
+            return;
+        }
+        loopsSincePublish = 0;
+
+        if (namesChanged) {
+            namePublisher.set(names);
+            namesChanged = false;
+        }
+
+        boolean commandsChanged = false;
+        for (int i = 0; i < states.length; i++) {
+            Mechanism mechanism = mechanisms.get(i);
+            mechanism.updateState(states[i]);
+
+            String command = mechanism.getCurrentCommandName();
+            if (!command.equals(commands[i])) {
+                commands[i] = command;
+                commandsChanged = true;
+            }
+        }
+        statePublisher.set(states);
+        if (commandsChanged) {
+            commandPublisher.set(commands);
+        }
+    }
+}
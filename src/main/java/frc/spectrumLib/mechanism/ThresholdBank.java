@@ -0,0 +1,169 @@
+package frc.spectrumLib.mechanism;
+
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.spectrumLib.LoopEpoch;
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Evaluates all of a mechanism's threshold triggers (atDegrees, belowRotations, aboveCurrent...) in
+ * one pass instead of each trigger reading the motor and converting units on its own.
+ *
+ * <p>Each band is stored as a lower and upper bound in the channel's native units (rotations,
+ * rotations per second, amps). The first time any trigger is polled in a loop every channel is read
+ * once and every band is checked against those values, the triggers then just read their bit. The
+ * bound suppliers are read on that same pass, so a band sees a new target the loop it changes, but
+ * a bound is only converted to native units again when its supplier returns a different value.
+ */
+public class ThresholdBank {
+    private DoubleSupplier[] channels = new DoubleSupplier[0];
+    private double[] values = new double[0];
+
+    private int count = 0;
+    private int[] channel = new int[8];
+    private double[] lower = new double[8];
+    private double[] upper = new double[8];
+    private double[] hysteresis = new double[8];
+    private boolean[] state = new boolean[8];
+    private DoubleSupplier[] lowerSource = new DoubleSupplier[8];
+    private DoubleSupplier[] upperSource = new DoubleSupplier[8];
+    private DoubleUnaryOperator[] toNative = new DoubleUnaryOperator[8];
+    /* Bounds in the caller's units that lower and upper were converted from */
+    private double[] lowerRaw = new double[8];
+    private double[] upperRaw = new double[8];
+
+    private long evaluatedEpoch = Long.MIN_VALUE;
+
+    /**
+     * Add a value that bands can be checked against
+     *
+     * @param value returns the current value, read once per loop
+     * @return the channel index to pass when adding bands
+     */
+    public int addChannel(DoubleSupplier value) {
+        channels = Arrays.copyOf(channels, channels.length + 1);
+        values = Arrays.copyOf(values, channels.length);
+        channels[channels.length - 1] = value;
+        return channels.length - 1;
+    }
+
+    /** True while the channel is within tolerance of the target */
+    public Trigger at(
+            int channel,
+            DoubleSupplier target,
+            DoubleSupplier tolerance,
+            DoubleUnaryOperator toNative) {
+        return band(
+                channel,
+                () -> target.getAsDouble() - tolerance.getAsDouble(),
+                () -> target.getAsDouble() + tolerance.getAsDouble(),
+                toNative,
+                0);
+    }
+
+    /** True while the channel is below the threshold */
+    public Trigger below(int channel, DoubleSupplier threshold, DoubleUnaryOperator toNative) {
+        return band(channel, null, threshold, toNative, 0);
+    }
+
+    /** True while the channel is above the threshold */
+    public Trigger above(int channel, DoubleSupplier threshold, DoubleUnaryOperator toNative) {
+        return band(channel, threshold, null, toNative, 0);
+    }
+
+    /**
+     * Add a band, true while lower < value < upper
+     *
+     * @param channel channel from {@link #addChannel}
+     * @param lowerBound lower bound in the caller's units, null for no lower bound
+     * @param upperBound upper bound in the caller's units, null for no upper bound
+     * @param toNative converts the bounds to the channel's units, must be increasing
+     * @param nativeHysteresis once true, the value has to leave the band by this much (in channel
+     *     units) before it is false again
+     */
+    public Trigger band(
+            int channel,
+            DoubleSupplier lowerBound,
+            DoubleSupplier upperBound,
+            DoubleUnaryOperator toNative,
+            double nativeHysteresis) {
+        if (channel < 0 || channel >= channels.length) {
+            throw new IllegalArgumentException("ThresholdBank: unknown channel " + channel);
+        }
+        if (count == this.channel.length) {
+            grow();
+        }
+        int index = count++;
+        this.channel[index] = channel;
+        lowerSource[index] = lowerBound;
+        upperSource[index] = upperBound;
+        this.toNative[index] = toNative;
+        lower[index] = Double.NEGATIVE_INFINITY;
+        upper[index] = Double.POSITIVE_INFINITY;
+        // Converted on the first evaluation
+        lowerRaw[index] = Double.NaN;
+        upperRaw[index] = Double.NaN;
+        hysteresis[index] = Math.abs(nativeHysteresis);
+        // Re-evaluate this loop so the new band has a state
+        evaluatedEpoch = Long.MIN_VALUE;
+        return new Trigger(() -> get(index));
+    }
+
+    public boolean get(int band) {
+        long epoch = LoopEpoch.get();
+        if (epoch != evaluatedEpoch) {
+            evaluatedEpoch = epoch;
+            evaluate();
+        }
+        return state[band];
+    }
+
+    public int getBandCount() {
+        return count;
+    }
+
+    /** Convert a band's bounds again only if a tunable or target changed them */
+    private void refreshBounds(int i) {
+        if (lowerSource[i] != null) {
+            double raw = lowerSource[i].getAsDouble();
+            if (raw != lowerRaw[i] || Double.isNaN(raw)) {
+                lowerRaw[i] = raw;
+                lower[i] = toNative[i].applyAsDouble(raw);
+            }
+        }
+        if (upperSource[i] != null) {
+            double raw = upperSource[i].getAsDouble();
+            if (raw != upperRaw[i] || Double.isNaN(raw)) {
+                upperRaw[i] = raw;
+                upper[i] = toNative[i].applyAsDouble(raw);
+            }
+        }
+    }
+
+    private void evaluate() {
+        for (int c = 0; c < channels.length; c++) {
+            values[c] = channels[c].getAsDouble();
+        }
+        for (int i = 0; i < count; i++) {
+            refreshBounds(i);
+            double value = values[channel[i]];
+            double margin = state[i] ? hysteresis[i] : 0;
+            state[i] = value > lower[i] - margin && value < upper[i] + margin;
+        }
+    }
+
+    private void grow() {
+        int size = channel.length * 2;
+        channel = Arrays.copyOf(channel, size);
+        lower = Arrays.copyOf(lower, size);
+        upper = Arrays.copyOf(upper, size);
+        hysteresis = Arrays.copyOf(hysteresis, size);
+        state = Arrays.copyOf(state, size);
+        lowerSource = Arrays.copyOf(lowerSource, size);
+        upperSource = Arrays.copyOf(upperSource, size);
+        toNative = Arrays.copyOf(toNative, size);
+        lowerRaw = Arrays.copyOf(lowerRaw, size);
+        upperRaw = Arrays.copyOf(upperRaw, size);
+    }
+}
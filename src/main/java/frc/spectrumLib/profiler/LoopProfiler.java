@@ -0,0 +1,248 @@
+package frc.spectrumLib.profiler;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.spectrumLib.Telemetry;
+import frc.spectrumLib.Telemetry.PrintPriority;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Breaks the robot loop down into the time spent in every subsystem periodic(), every poll of the
+ * trigger EventLoop and every running command's execute().
+ *
+ * <p>The CommandScheduler already times each of these with the epochs of its watchdog, but only
+ * prints them when the loop overruns. After each run of the scheduler we read those epochs and
+ * feed them into rolling histograms, which are published to NetworkTables under "Profiler" as
+ * [p50, p95, p99, max] in milliseconds. Call {@link #dump()} (or press the "Profiler/Dump" button
+ * on the dashboard) to print the full table to the console.
+ */
+public class LoopProfiler {
+    private static final int window = 250; // 5 seconds of 20ms loops
+    private static final double loopPeriodMs = 20.0;
+
+    /** Publish the percentiles every this many loops, publishing every loop costs NT bandwidth */
+    @Getter @Setter private static int publishEveryLoops = 50;
+
+    @Getter @Setter private static boolean enabled = true;
+
+    private static final Map<String, RollingHistogram> sections = new LinkedHashMap<>();
+    private static final Map<String, DoubleArrayPublisher> publishers = new HashMap<>();
+    private static final Map<String, Long> openSections = new HashMap<>();
+    private static final double[] publishBuffer = new double[4];
+
+    private static final NetworkTable table =
+            NetworkTableInstance.getDefault().getTable("Profiler");
+    private static final DoublePublisher loopMsPublisher = table.getDoubleTopic("LoopMs").publish();
+    private static final IntegerPublisher overrunPublisher =
+            table.getIntegerTopic("Overruns").publish();
+
+    private static final Alert reflectionAlert =
+            new Alert("Profiler: scheduler epochs unavailable", AlertType.kWarning);
+
+    private static Map<String, Long> schedulerEpochs;
+    private static boolean schedulerEpochsChecked = false;
+
+    private static long loopStartMicros = 0;
+    private static int loopsSincePublish = 0;
+    @Getter private static long overruns = 0;
+
+    /** Prevent this class from being instantiated. */
+    private LoopProfiler() {}
+
+    public static long now() {
+        return RobotController.getFPGATime();
+    }
+
+    /** Call at the very start of robotPeriodic() */
+    public static void loopStart() {
+        if (!enabled) {
+            return;
+        }
+        loopStartMicros = now();
+    }
+
+    /** Call at the very end of robotPeriodic(), records the loop and publishes if it is time */
+    public static void loopEnd() {
+        if (!enabled) {
+            return;
+        }
+        long loopMicros = now() - loopStartMicros;
+        record("robotPeriodic()", loopMicros);
+        if (loopMicros > loopPeriodMs * 1000) {
+            overruns++;
+        }
+
+        loopsSincePublish++;
+        if (loopsSincePublish >= publishEveryLoops) {
+            loopsSincePublish = 0;
+            publish();
+        }
+    }
+
+    /** Start timing a named section, must be paired with {@link #end(String)} */
+    public static void begin(String section) {
+        if (!enabled) {
+            return;
+        }
+        openSections.put(section, now());
+    }
+
+    public static void end(String section) {
+        if (!enabled) {
+            return;
+        }
+        Long start = openSections.remove(section);
+        if (start != null) {
+            record(section, now() - start);
+        }
+    }
+
+    /** Time a block of code as a named section */
+    public static void profile(String section, Runnable runnable) {
+        if (!enabled) {
+            runnable.run();
+            return;
+        }
+        long start = now();
+        runnable.run();
+        record(section, now() - start);
+    }
+
+    public static void record(String section, long micros) {
+        RollingHistogram histogram = sections.get(section);
+        if (histogram == null) {
+            histogram = new RollingHistogram(section, window);
+            sections.put(section, histogram);
+        }
+        histogram.record(micros);
+    }
+
+    /**
+     * Copy the epochs recorded by the CommandScheduler during its last run into the histograms.
+     * Call right after CommandScheduler.getInstance().run(). Epochs are named
+     * "Subsystem.periodic()", "buttons.run()" and "Command.execute()" by the scheduler.
+     */
+    public static void captureSchedulerEpochs() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Long> epochs = getSchedulerEpochs();
+        if (epochs == null) {
+            return;
+        }
+        for (Map.Entry<String, Long> epoch : epochs.entrySet()) {
+            record(epoch.getKey(), epoch.getValue());
+        }
+    }
+
+    /**
+     * The scheduler keeps its watchdog private, so reach in once and hold on to the tracer's epoch
+     * map. If WPILib changes these internals we raise an alert and keep profiling the rest.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long> getSchedulerEpochs() {
+        if (schedulerEpochsChecked) {
+            return schedulerEpochs;
+        }
+        schedulerEpochsChecked = true;
+        try {
+            Object watchdog = getField(CommandScheduler.getInstance(), "m_watchdog");
+            Object tracer = getField(watchdog, "m_tracer");
+            schedulerEpochs = (Map<String, Long>) getField(tracer, "m_epochs");
+        } catch (ReflectiveOperationException | ClassCastException | SecurityException e) {
+            schedulerEpochs = null;
+            reflectionAlert.set(true);
+            Telemetry.print(
+                    "LoopProfiler: could not read scheduler epochs " + e, PrintPriority.HIGH);
+        }
+        return schedulerEpochs;
+    }
+
+    private static Object getField(Object target, String name)
+            throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+    /** Publish [p50, p95, p99, max] in ms for each section that has new samples */
+    public static void publish() {
+        for (RollingHistogram histogram : sections.values()) {
+            if (!histogram.update()) {
+                continue;
+            }
+            DoubleArrayPublisher publisher = publishers.get(histogram.getName());
+            if (publisher == null) {
+                publisher = table.getDoubleArrayTopic(histogram.getName()).publish();
+                publishers.put(histogram.getName(), publisher);
+            }
+            publishBuffer[0] = histogram.getP50Ms();
+            publishBuffer[1] = histogram.getP95Ms();
+            publishBuffer[2] = histogram.getP99Ms();
+            publishBuffer[3] = histogram.getMaxMs();
+            publisher.set(publishBuffer);
+        }
+
+        RollingHistogram loop = sections.get("robotPeriodic()");
+        if (loop != null) {
+            loopMsPublisher.set(loop.getLastMicros() / 1000.0);
+        }
+        overrunPublisher.set(overruns);
+    }
+
+    /** Print every section sorted by p95, slowest first */
+    public static void dump() {
+        List<RollingHistogram> sorted = new ArrayList<>(sections.values());
+        sorted.forEach(RollingHistogram::update);
+        sorted.sort((a, b) -> Double.compare(b.getP95Ms(), a.getP95Ms()));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Loop Profile, overruns: ").append(overruns).append('\n');
+        sb.append(
+                String.format(
+                        "%-48s %8s %8s %8s %8s %8s%n", "section", "p50", "p95", "p99", "max", "n"));
+        for (RollingHistogram histogram : sorted) {
+            sb.append(
+                    String.format(
+                            "%-48s %8.3f %8.3f %8.3f %8.3f %8d%n",
+                            histogram.getName(),
+                            histogram.getP50Ms(),
+                            histogram.getP95Ms(),
+                            histogram.getP99Ms(),
+                            histogram.getMaxMs(),
+                            histogram.getTotalSamples()));
+        }
+        Telemetry.print(sb.toString(), PrintPriority.HIGH);
+    }
+
+    public static void reset() {
+        sections.values().forEach(RollingHistogram::clear);
+        overruns = 0;
+    }
+
+    public static Command dumpCommand() {
+        return Commands.runOnce(LoopProfiler::dump).ignoringDisable(true).withName("Profiler.dump");
+    }
+
+    public static Command resetCommand() {
+        return Commands.runOnce(LoopProfiler::reset)
+                .ignoringDisable(true)
+                .withName("Profiler.reset");
+    }
+}
@@ -0,0 +1,73 @@
+package frc.spectrumLib.profiler;
+
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * Fixed size window of timing samples (microseconds). Recording is allocation free, percentiles
+ * are only computed when the profiler publishes, so the cost of sorting is paid once per publish
+ * instead of every loop.
+ */
+public class RollingHistogram {
+    @Getter private final String name;
+    private final int[] samples;
+    private final int[] sorted;
+    private int next = 0;
+    private int count = 0;
+    @Getter private long totalSamples = 0;
+    @Getter private int lastMicros = 0;
+    private boolean dirty = false;
+
+    @Getter private double p50Ms, p95Ms, p99Ms, maxMs;
+
+    public RollingHistogram(String name, int window) {
+        this.name = name;
+        samples = new int[window];
+        sorted = new int[window];
+    }
+
+    public void record(long micros) {
+        int value = (int) Math.min(micros, Integer.MAX_VALUE);
+        samples[next] = value;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        lastMicros = value;
+        totalSamples++;
+        dirty = true;
+    }
+
+    /**
+     * Recompute the percentiles from the current window
+     *
+     * @return true if new samples were recorded since the last update
+     */
+    public boolean update() {
+        if (!dirty || count == 0) {
+            return false;
+        }
+        System.arraycopy(samples, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        p50Ms = percentile(0.50);
+        p95Ms = percentile(0.95);
+        p99Ms = percentile(0.99);
+        maxMs = sorted[count - 1] / 1000.0;
+        dirty = false;
+        return true;
+    }
+
+    private double percentile(double p) {
+        int index = (int) Math.ceil(p * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1000.0;
+    }
+
+    public void clear() {
+        next = 0;
+        count = 0;
+        totalSamples = 0;
+        lastMicros = 0;
+        p50Ms = p95Ms = p99Ms = maxMs = 0;
+        dirty = false;
+    }
+}
@@ -0,0 +1,154 @@
+package frc.spectrumLib.selftest;
+
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.spectrumLib.Telemetry;
+import frc.spectrumLib.Telemetry.PrintPriority;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Runs a declared plan of {@link SelfTestStep}s and writes a pass/fail report.
+ *
+ * <p>Steps are packed into waves in the order they were added: a step goes in the first wave after
+ * every earlier step it shares a subsystem with, so steps on different mechanisms run at the same
+ * time and steps on the same mechanism still run in order. Each wave is a parallel group and the
+ * waves run in sequence. The report is printed, written to the operating directory (the project
+ * folder in simulation) and the result is put on SmartDashboard under SelfTest/.
+ */
+public class SelfTest {
+    @Getter private final String name;
+    private final List<SelfTestStep> steps = new ArrayList<>();
+    private List<List<SelfTestStep>> waves;
+    private Command command;
+    private double startTime = 0;
+    @Getter private boolean passed = false;
+
+    private final Alert failedAlert;
+
+    public SelfTest(String name) {
+        this.name = name;
+        failedAlert = new Alert("SelfTest " + name + " failed", AlertType.kError);
+    }
+
+    public SelfTest add(SelfTestStep step) {
+        if (command != null) {
+            throw new IllegalStateException("SelfTest " + name + ": add steps before getCommand()");
+        }
+        steps.add(step);
+        return this;
+    }
+
+    /** The command that runs the whole plan, can be scheduled again for another run */
+    public Command getCommand() {
+        if (command == null) {
+            waves = planWaves();
+            List<Command> sequence = new ArrayList<>();
+            sequence.add(Commands.runOnce(this::begin));
+            for (List<SelfTestStep> wave : waves) {
+                Command[] group = new Command[wave.size()];
+                for (int i = 0; i < group.length; i++) {
+                    group[i] = wave.get(i).getCommand();
+                }
+                sequence.add(Commands.parallel(group));
+            }
+            command =
+                    Commands.sequence(sequence.toArray(new Command[0]))
+                            .finallyDo(this::finish)
+                            .withName("SelfTest." + name);
+        }
+        return command;
+    }
+
+    private List<List<SelfTestStep>> planWaves() {
+        List<List<SelfTestStep>> planned = new ArrayList<>();
+        int[] waveOf = new int[steps.size()];
+        for (int i = 0; i < steps.size(); i++) {
+            int wave = 0;
+            for (int j = 0; j < i; j++) {
+                if (steps.get(i).conflictsWith(steps.get(j))) {
+                    wave = Math.max(wave, waveOf[j] + 1);
+                }
+            }
+            waveOf[i] = wave;
+            if (wave == planned.size()) {
+                planned.add(new ArrayList<>());
+            }
+            planned.get(wave).add(steps.get(i));
+        }
+        return planned;
+    }
+
+    private void begin() {
+        startTime = Timer.getFPGATimestamp();
+        passed = false;
+        // Steps a re-run doesn't reach must not keep the last run's PASS
+        for (SelfTestStep step : steps) {
+            step.reset();
+        }
+        failedAlert.set(false);
+        SmartDashboard.putString("SelfTest/" + name + "/Status", "Running");
+        Telemetry.print(
+                "SelfTest " + name + ": " + steps.size() + " steps in " + waves.size() + " waves",
+                PrintPriority.HIGH);
+    }
+
+    private void finish(boolean interrupted) {
+        double elapsed = Timer.getFPGATimestamp() - startTime;
+        int failed = 0;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("SelfTest %s  %s%n", name, LocalDateTime.now()));
+        for (int w = 0; w < waves.size(); w++) {
+            report.append(String.format("Wave %d%n", w + 1));
+            for (SelfTestStep step : waves.get(w)) {
+                String status = !step.isFinished() ? "SKIP" : step.isPassed() ? "PASS" : "FAIL";
+                if (!step.isPassed()) {
+                    failed++;
+                }
+                report.append(
+                        String.format(
+                                "%s %s (%.1fs)%n", status, step.getName(), step.getSeconds()));
+                for (String line : step.getResults()) {
+                    report.append(line).append(System.lineSeparator());
+                }
+            }
+        }
+        passed = !interrupted && failed == 0;
+        String summary =
+                String.format(
+                        "%s: %d/%d steps passed in %.1fs%s",
+                        passed ? "PASSED" : "FAILED",
+                        steps.size() - failed,
+                        steps.size(),
+                        elapsed,
+                        interrupted ? " (interrupted)" : "");
+        report.append(summary).append(System.lineSeparator());
+
+        Telemetry.print(report.toString(), PrintPriority.HIGH);
+        SmartDashboard.putString("SelfTest/" + name + "/Status", summary);
+        SmartDashboard.putBoolean("SelfTest/" + name + "/Passed", passed);
+        failedAlert.setText("SelfTest " + name + " " + summary);
+        failedAlert.set(!passed);
+        write(report.toString());
+    }
+
+    private void write(String report) {
+        File file = new File(Filesystem.getOperatingDirectory(), "selftest_" + name + ".txt");
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file, false))) {
+            writer.print(report);
+        } catch (IOException e) {
+            Telemetry.print("SelfTest: could not write " + file + " " + e);
+        }
+    }
+}
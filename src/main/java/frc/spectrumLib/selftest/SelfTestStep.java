@@ -0,0 +1,229 @@
+package frc.spectrumLib.selftest;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import frc.spectrumLib.util.StreamingStats;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import lombok.Getter;
+
+/**
+ * One step of a {@link SelfTest}: runs an action for a fixed time while sampling named channels
+ * (current, velocity...) into {@link StreamingStats}, then checks the stats against the expected
+ * values. Use {@link frc.spectrumLib.mechanism.Mechanism#selfTest} to get a step that already
+ * samples a mechanism's current and velocity.
+ */
+public class SelfTestStep {
+    @Getter private final String name;
+    @Getter private final double seconds;
+    private final Command action;
+    private final Set<Subsystem> blocks = new HashSet<>();
+
+    private final List<String> channelNames = new ArrayList<>();
+    private final List<DoubleSupplier> channelValues = new ArrayList<>();
+    private final List<StreamingStats> channelStats = new ArrayList<>();
+    private final List<BooleanSupplier> channelAtTarget = new ArrayList<>();
+    private final List<Check> checks = new ArrayList<>();
+
+    private Command command;
+    private double startTime = 0;
+    @Getter private boolean passed = false;
+    @Getter private boolean finished = false;
+    private final List<String> results = new ArrayList<>();
+
+    private static class Check {
+        final String name;
+        final String expected;
+        final DoubleSupplier actual;
+        final DoublePredicate pass;
+
+        Check(String name, String expected, DoubleSupplier actual, DoublePredicate pass) {
+            this.name = name;
+            this.expected = expected;
+            this.actual = actual;
+            this.pass = pass;
+        }
+    }
+
+    /**
+     * @param name shown in the report
+     * @param action command to run during the step, interrupted when the step ends
+     * @param seconds how long to run and sample
+     */
+    public SelfTestStep(String name, Command action, double seconds) {
+        this.name = name;
+        this.action = action;
+        this.seconds = seconds;
+    }
+
+    /** Sample this value every loop while the step runs */
+    public SelfTestStep sample(String channel, DoubleSupplier value) {
+        channelNames.add(channel);
+        channelValues.add(value);
+        channelStats.add(new StreamingStats());
+        channelAtTarget.add(null);
+        return this;
+    }
+
+    /** Don't run this step at the same time as anything using these subsystems */
+    public SelfTestStep blocks(Subsystem... subsystems) {
+        Collections.addAll(blocks, subsystems);
+        return this;
+    }
+
+    /** Pass if the mean of the channel is within tolerance of expected */
+    public SelfTestStep expectMean(String channel, double expected, double tolerance) {
+        StreamingStats stats = getStats(channel);
+        checks.add(
+                new Check(
+                        channel + " mean",
+                        expected + " +/- " + tolerance,
+                        stats::getMean,
+                        v -> Math.abs(v - expected) <= tolerance));
+        return this;
+    }
+
+    /** Pass if the channel's magnitude never goes above max */
+    public SelfTestStep expectPeakBelow(String channel, double max) {
+        StreamingStats stats = getStats(channel);
+        checks.add(new Check(channel + " peak", "< " + max, stats::getPeak, v -> v < max));
+        return this;
+    }
+
+    /** Pass if the channel's magnitude reaches at least min at some point */
+    public SelfTestStep expectPeakAbove(String channel, double min) {
+        StreamingStats stats = getStats(channel);
+        checks.add(new Check(channel + " peak", ">= " + min, stats::getPeak, v -> v >= min));
+        return this;
+    }
+
+    /** Pass if the channel's standard deviation stays below max, catches a noisy or binding mech */
+    public SelfTestStep expectStdDevBelow(String channel, double max) {
+        StreamingStats stats = getStats(channel);
+        checks.add(new Check(channel + " stddev", "< " + max, stats::getStdDev, v -> v < max));
+        return this;
+    }
+
+    /** Pass if atTarget becomes true within maxSeconds of the step starting */
+    public SelfTestStep expectReached(String channel, BooleanSupplier atTarget, double maxSeconds) {
+        int index = getChannel(channel);
+        StreamingStats stats = channelStats.get(index);
+        channelAtTarget.set(index, atTarget);
+        checks.add(
+                new Check(
+                        channel + " time to target",
+                        "<= " + maxSeconds + "s",
+                        stats::getTimeToTarget,
+                        v -> v <= maxSeconds));
+        return this;
+    }
+
+    /** Subsystems used by the action and any extra ones it blocks */
+    public Set<Subsystem> getRequirements() {
+        Set<Subsystem> requirements = new HashSet<>(action.getRequirements());
+        requirements.addAll(blocks);
+        return requirements;
+    }
+
+    public boolean conflictsWith(SelfTestStep other) {
+        return !Collections.disjoint(getRequirements(), other.getRequirements());
+    }
+
+    /** The command that runs this step, built once since the action can only be composed once */
+    public Command getCommand() {
+        if (command == null) {
+            Command sampler =
+                    new FunctionalCommand(
+                            this::begin, this::sampleAll, this::finish, this::isTimeUp);
+            command = Commands.deadline(sampler, action).withName("SelfTest." + name);
+        }
+        return command;
+    }
+
+    public List<String> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    private void begin() {
+        startTime = Timer.getFPGATimestamp();
+        for (StreamingStats stats : channelStats) {
+            stats.reset();
+            stats.start(startTime);
+        }
+        reset();
+    }
+
+    /** Forget the last run's result, a step that doesn't run again reports as skipped */
+    void reset() {
+        passed = false;
+        finished = false;
+        results.clear();
+    }
+
+    private void sampleAll() {
+        double now = Timer.getFPGATimestamp();
+        for (int i = 0; i < channelValues.size(); i++) {
+            StreamingStats stats = channelStats.get(i);
+            stats.add(channelValues.get(i).getAsDouble());
+            BooleanSupplier atTarget = channelAtTarget.get(i);
+            if (atTarget != null && atTarget.getAsBoolean()) {
+                stats.reached(now);
+            }
+        }
+    }
+
+    private boolean isTimeUp() {
+        return Timer.getFPGATimestamp() - startTime >= seconds;
+    }
+
+    private void finish(boolean interrupted) {
+        finished = true;
+        passed = !interrupted;
+        if (interrupted) {
+            results.add("  ABORT step was interrupted");
+        }
+        for (Check check : checks) {
+            double actual = check.actual.getAsDouble();
+            boolean ok = check.pass.test(actual);
+            passed &= ok;
+            results.add(
+                    String.format(
+                            "  %s %-28s %10.3f  expected %s",
+                            ok ? "PASS" : "FAIL", check.name, actual, check.expected));
+        }
+        for (int i = 0; i < channelStats.size(); i++) {
+            StreamingStats stats = channelStats.get(i);
+            results.add(
+                    String.format(
+                            "       %-28s mean %.3f sd %.3f min %.3f max %.3f n %d",
+                            channelNames.get(i),
+                            stats.getMean(),
+                            stats.getStdDev(),
+                            stats.getMin(),
+                            stats.getMax(),
+                            stats.getCount()));
+        }
+    }
+
+    private StreamingStats getStats(String channel) {
+        return channelStats.get(getChannel(channel));
+    }
+
+    private int getChannel(String channel) {
+        int index = channelNames.indexOf(channel);
+        if (index < 0) {
+            throw new IllegalArgumentException(
+                    "SelfTestStep " + name + ": sample " + channel + " before checking it");
+        }
+        return index;
+    }
+}
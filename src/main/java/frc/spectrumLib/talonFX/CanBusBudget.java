@@ -0,0 +1,136 @@
+package frc.spectrumLib.talonFX;
+
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.spectrumLib.Rio;
+import frc.spectrumLib.Telemetry;
+import frc.spectrumLib.Telemetry.PrintPriority;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Startup estimate of how busy each CAN bus will be. Devices add the frames per second they are
+ * expected to send as they are created, and {@link #report()} logs the total per bus and raises an
+ * alert for any bus over budget.
+ *
+ * <p>This is a rough estimate, every status signal is counted as its own frame even though Phoenix
+ * packs several signals into one frame. It is meant to catch a bus that is heading towards
+ * saturation (stale data, dropped frames), not to replace the bus utilization in Phoenix Tuner.
+ */
+public class CanBusBudget {
+    /** Time on the wire for a classic CAN frame at 1Mbps, including bit stuffing */
+    private static final double CLASSIC_FRAME_MICROS = 130;
+    /** Time on the wire for a short CAN FD frame with an 8Mbps data phase */
+    private static final double FD_FRAME_MICROS = 50;
+
+    /** Phoenix resends control requests at 100hz by default */
+    public static final double CONTROL_FRAME_HZ = 100;
+    /** Rough number of frames a TalonFX sends when left on its Phoenix default status frames */
+    public static final double DEFAULT_TALONFX_FRAMES = 400;
+
+    /** Fraction of the bus we are willing to use before raising an alert */
+    @Getter @Setter private static double maxUtilization = 0.7;
+
+    private static final Map<String, Bus> buses = new LinkedHashMap<>();
+
+    /** Prevent this class from being instantiated. */
+    private CanBusBudget() {}
+
+    private static class Bus {
+        final String name;
+        boolean fd;
+        int devices = 0;
+        double framesPerSec = 0;
+        Alert alert;
+
+        Bus(String name) {
+            this.name = name;
+            // The roboRIO bus is classic CAN, anything else we assume is a CANivore running FD
+            fd = !(name.isEmpty() || name.equals(Rio.RIO_CANBUS));
+        }
+
+        double getUtilization() {
+            return framesPerSec * (fd ? FD_FRAME_MICROS : CLASSIC_FRAME_MICROS) / 1e6;
+        }
+    }
+
+    private static Bus getBus(String bus) {
+        return buses.computeIfAbsent(bus, Bus::new);
+    }
+
+    /** Override the classic/FD guess for a bus */
+    public static void configFD(String bus, boolean fd) {
+        getBus(bus).fd = fd;
+    }
+
+    /**
+     * Add the expected traffic of a device
+     *
+     * @param bus CAN bus the device is on
+     * @param framesPerSec status and control frames the device sends and receives every second
+     */
+    public static void addDevice(String bus, double framesPerSec) {
+        Bus b = getBus(bus);
+        b.devices++;
+        b.framesPerSec += framesPerSec;
+    }
+
+    /**
+     * Expected frames per second of a TalonFX, signals set to 0hz are disabled and not counted
+     *
+     * @param signalRates rate in hz of each status signal left on
+     * @param optimized true if optimizeBusUtilization() turned off every other signal
+     */
+    public static double getTalonFXFrames(
+            Map<TalonFXSignal, Double> signalRates, boolean optimized) {
+        double frames = CONTROL_FRAME_HZ;
+        if (!optimized) {
+            return frames + DEFAULT_TALONFX_FRAMES;
+        }
+        for (double rate : signalRates.values()) {
+            frames += rate;
+        }
+        return frames;
+    }
+
+    public static double getFramesPerSec(String bus) {
+        Bus b = buses.get(bus);
+        return b == null ? 0 : b.framesPerSec;
+    }
+
+    public static double getUtilization(String bus) {
+        Bus b = buses.get(bus);
+        return b == null ? 0 : b.getUtilization();
+    }
+
+    /** Log the estimate for every bus and alert on any bus over budget, call once after startup */
+    public static void report() {
+        for (Bus b : buses.values()) {
+            double utilization = b.getUtilization();
+            String busName = b.name.isEmpty() ? Rio.RIO_CANBUS : b.name;
+            Telemetry.print(
+                    String.format(
+                            "CAN bus %s (%s): %d devices, %.0f frames/s, %.0f%% estimated load",
+                            busName,
+                            b.fd ? "FD" : "classic",
+                            b.devices,
+                            b.framesPerSec,
+                            utilization * 100),
+                    PrintPriority.HIGH);
+            SmartDashboard.putNumber("CAN/" + busName + "/EstimatedFrames", b.framesPerSec);
+            SmartDashboard.putNumber("CAN/" + busName + "/EstimatedLoad", utilization);
+
+            if (b.alert == null) {
+                b.alert = new Alert("", AlertType.kWarning);
+            }
+            b.alert.setText(
+                    String.format(
+                            "CAN bus %s over budget: %.0f%% estimated load",
+                            busName, utilization * 100));
+            b.alert.set(utilization > maxUtilization);
+        }
+    }
+}
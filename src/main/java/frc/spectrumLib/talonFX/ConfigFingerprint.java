@@ -0,0 +1,337 @@
+package frc.spectrumLib.talonFX;
+
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.configs.ParentConfiguration;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.configs.TalonFXConfigurator;
+import com.ctre.phoenix6.hardware.TalonFX;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
+import frc.spectrumLib.Telemetry;
+import frc.spectrumLib.Telemetry.PrintPriority;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Skips config applies a TalonFX doesn't need. Each group of a TalonFXConfiguration (MotorOutput,
+ * CurrentLimits, Slot0...) is hashed and only the groups that differ from what the device holds are
+ * written.
+ *
+ * <p>At boot the device config is read back with one refresh() and compared group by group. The
+ * device rounds some values (gains, ratios) so its copy doesn't always serialize the same as ours,
+ * so after applying we also save the hash of what the device reported to a file in the operating
+ * directory. On the next boot a group is skipped if it matches the device, or if our config and the
+ * device's report both match the pair saved last time. After the first apply of each boot the last
+ * applied hashes are kept in memory, so runtime applies (like toggling current limits) only write
+ * the groups that changed without reading the device back.
+ */
+public class ConfigFingerprint {
+    private static final String fileName = "talonfx_config_fingerprints.txt";
+
+    /** Skip the refresh() at boot and trust the saved file, a swapped motor won't be noticed */
+    @Getter @Setter private static boolean trustFile = false;
+
+    @Getter @Setter private static boolean enabled = true;
+
+    private static final AtomicInteger groupsApplied = new AtomicInteger();
+    private static final AtomicInteger groupsSkipped = new AtomicInteger();
+    private static final AtomicInteger fullApplies = new AtomicInteger();
+
+    private static final Group[] groups = {
+        new Group("MotorOutput", c -> c.MotorOutput, (t, c) -> t.apply(c.MotorOutput)),
+        new Group("CurrentLimits", c -> c.CurrentLimits, (t, c) -> t.apply(c.CurrentLimits)),
+        new Group("Voltage", c -> c.Voltage, (t, c) -> t.apply(c.Voltage)),
+        new Group("TorqueCurrent", c -> c.TorqueCurrent, (t, c) -> t.apply(c.TorqueCurrent)),
+        new Group("Feedback", c -> c.Feedback, (t, c) -> t.apply(c.Feedback)),
+        new Group(
+                "DifferentialSensors",
+                c -> c.DifferentialSensors,
+                (t, c) -> t.apply(c.DifferentialSensors)),
+        new Group(
+                "DifferentialConstants",
+                c -> c.DifferentialConstants,
+                (t, c) -> t.apply(c.DifferentialConstants)),
+        new Group("OpenLoopRamps", c -> c.OpenLoopRamps, (t, c) -> t.apply(c.OpenLoopRamps)),
+        new Group("ClosedLoopRamps", c -> c.ClosedLoopRamps, (t, c) -> t.apply(c.ClosedLoopRamps)),
+        new Group(
+                "HardwareLimitSwitch",
+                c -> c.HardwareLimitSwitch,
+                (t, c) -> t.apply(c.HardwareLimitSwitch)),
+        new Group("Audio", c -> c.Audio, (t, c) -> t.apply(c.Audio)),
+        new Group(
+                "SoftwareLimitSwitch",
+                c -> c.SoftwareLimitSwitch,
+                (t, c) -> t.apply(c.SoftwareLimitSwitch)),
+        new Group("MotionMagic", c -> c.MotionMagic, (t, c) -> t.apply(c.MotionMagic)),
+        new Group("CustomParams", c -> c.CustomParams, (t, c) -> t.apply(c.CustomParams)),
+        new Group(
+                "ClosedLoopGeneral",
+                c -> c.ClosedLoopGeneral,
+                (t, c) -> t.apply(c.ClosedLoopGeneral)),
+        new Group("Slot0", c -> c.Slot0, (t, c) -> t.apply(c.Slot0)),
+        new Group("Slot1", c -> c.Slot1, (t, c) -> t.apply(c.Slot1)),
+        new Group("Slot2", c -> c.Slot2, (t, c) -> t.apply(c.Slot2)),
+    };
+
+    /** Hashes of what we applied [0] and what the device reported back [1] for each group */
+    private static final Map<String, long[][]> saved = new ConcurrentHashMap<>();
+
+    private static final Map<String, long[]> applied = new ConcurrentHashMap<>();
+    private static boolean loaded = false;
+    private static File file = new File(Filesystem.getOperatingDirectory(), fileName);
+
+    /** Prevent this class from being instantiated. */
+    private ConfigFingerprint() {}
+
+    private static class Group {
+        final String name;
+        final Function<TalonFXConfiguration, ParentConfiguration> get;
+        final BiFunction<TalonFXConfigurator, TalonFXConfiguration, StatusCode> apply;
+
+        Group(
+                String name,
+                Function<TalonFXConfiguration, ParentConfiguration> get,
+                BiFunction<TalonFXConfigurator, TalonFXConfiguration, StatusCode> apply) {
+            this.name = name;
+            this.get = get;
+            this.apply = apply;
+        }
+    }
+
+    /**
+     * Apply only the groups of the config that the device doesn't already have
+     *
+     * @param talon device to configure
+     * @param config the full config we want on the device
+     * @return the first error, or OK
+     */
+    public static StatusCode apply(TalonFX talon, TalonFXConfiguration config) {
+        if (!enabled) {
+            fullApplies.incrementAndGet();
+            return talon.getConfigurator().apply(config);
+        }
+
+        String key = getKey(talon);
+        long[] desired = hashGroups(config);
+        boolean[] changed = new boolean[groups.length];
+        TalonFXConfiguration reported = null;
+
+        long[] last = applied.get(key);
+        if (last != null) {
+            // Already configured this boot, just diff against what we sent last time
+            for (int i = 0; i < groups.length; i++) {
+                changed[i] = desired[i] != last[i];
+            }
+        } else {
+            long[][] previous = getSaved(key);
+            boolean trusted = trustFile && previous != null && RobotBase.isReal();
+            long[] device = null;
+            if (!trusted) {
+                reported = new TalonFXConfiguration();
+                if (talon.getConfigurator().refresh(reported).isOK()) {
+                    device = hashGroups(reported);
+                }
+            }
+            for (int i = 0; i < groups.length; i++) {
+                boolean savedMatch = previous != null && previous[0][i] == desired[i];
+                if (trusted) {
+                    changed[i] = !savedMatch;
+                } else if (device == null) {
+                    changed[i] = true;
+                } else {
+                    changed[i] =
+                            device[i] != desired[i]
+                                    && !(savedMatch && previous[1][i] == device[i]);
+                }
+            }
+        }
+
+        StatusCode result = applyGroups(talon, config, changed);
+        if (!result.isOK()) {
+            // Make the next attempt compare against the device again
+            applied.remove(key);
+            return result;
+        }
+        applied.put(key, desired);
+
+        if (last == null) {
+            // Save what the device reports for the groups we just wrote
+            if (count(changed) > 0) {
+                reported = new TalonFXConfiguration();
+                if (!talon.getConfigurator().refresh(reported).isOK()) {
+                    return result;
+                }
+            }
+            if (reported != null) {
+                saved.put(key, new long[][] {desired, hashGroups(reported)});
+            }
+        }
+        return result;
+    }
+
+    private static StatusCode applyGroups(
+            TalonFX talon, TalonFXConfiguration config, boolean[] changed) {
+        int changedCount = count(changed);
+        groupsSkipped.addAndGet(groups.length - changedCount);
+        if (changedCount == 0) {
+            return StatusCode.OK;
+        }
+
+        // One full apply is cheaper than writing most of the groups one at a time
+        if (changedCount * 2 > groups.length) {
+            groupsApplied.addAndGet(changedCount);
+            fullApplies.incrementAndGet();
+            return talon.getConfigurator().apply(config);
+        }
+
+        TalonFXConfigurator configurator = talon.getConfigurator();
+        for (int i = 0; i < groups.length; i++) {
+            if (changed[i]) {
+                StatusCode result = groups[i].apply.apply(configurator, config);
+                if (!result.isOK()) {
+                    return result;
+                }
+                groupsApplied.incrementAndGet();
+            }
+        }
+        return StatusCode.OK;
+    }
+
+    private static int count(boolean[] values) {
+        int count = 0;
+        for (boolean value : values) {
+            if (value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String getKey(TalonFX talon) {
+        String bus = talon.getNetwork();
+        return (bus.isEmpty() ? "rio" : bus) + ":" + talon.getDeviceID();
+    }
+
+    private static long[] hashGroups(TalonFXConfiguration config) {
+        long[] hashes = new long[groups.length];
+        for (int i = 0; i < groups.length; i++) {
+            hashes[i] = hash(groups[i].get.apply(config).serialize());
+        }
+        return hashes;
+    }
+
+    /** 64 bit FNV-1a hash of a serialized config group */
+    public static long hash(String serialized) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < serialized.length(); i++) {
+            hash ^= serialized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public static int getGroupsApplied() {
+        return groupsApplied.get();
+    }
+
+    public static int getGroupsSkipped() {
+        return groupsSkipped.get();
+    }
+
+    public static int getFullApplies() {
+        return fullApplies.get();
+    }
+
+    /** Number of groups a config is split into */
+    static int getGroupCount() {
+        return groups.length;
+    }
+
+    /** Forget everything from this boot and read fingerprints from file next, like a reboot */
+    static synchronized void reload(File fingerprints) {
+        file = fingerprints;
+        saved.clear();
+        applied.clear();
+        loaded = false;
+    }
+
+    static synchronized long[][] getSaved(String key) {
+        if (!loaded) {
+            loaded = true;
+            load();
+        }
+        return saved.get(key);
+    }
+
+    // Each line is: device group desiredHash reportedHash
+    private static void load() {
+        if (!file.exists()) {
+            return;
+        }
+        Map<String, Integer> groupIndex = new TreeMap<>();
+        for (int i = 0; i < groups.length; i++) {
+            groupIndex.put(groups[i].name, i);
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length != 4 || !groupIndex.containsKey(parts[1])) {
+                    continue;
+                }
+                long[][] hashes = saved.computeIfAbsent(parts[0], k -> new long[2][groups.length]);
+                int index = groupIndex.get(parts[1]);
+                hashes[0][index] = Long.parseUnsignedLong(parts[2], 16);
+                hashes[1][index] = Long.parseUnsignedLong(parts[3], 16);
+            }
+        } catch (IOException | NumberFormatException e) {
+            saved.clear();
+            Telemetry.print("ConfigFingerprint: could not read " + file + " " + e);
+        }
+    }
+
+    /** Save the fingerprints and print how many applies were skipped, call once after boot */
+    public static synchronized void save() {
+        Telemetry.print(
+                "ConfigFingerprint: applied "
+                        + groupsApplied.get()
+                        + " groups ("
+                        + fullApplies.get()
+                        + " full configs), skipped "
+                        + groupsSkipped.get(),
+                PrintPriority.HIGH);
+
+        if (saved.isEmpty()) {
+            return;
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file, false))) {
+            for (Map.Entry<String, long[][]> entry : new TreeMap<>(saved).entrySet()) {
+                long[][] hashes = entry.getValue();
+                for (int i = 0; i < groups.length; i++) {
+                    writer.println(
+                            entry.getKey()
+                                    + " "
+                                    + groups[i].name
+                                    + " "
+                                    + Long.toHexString(hashes[0][i])
+                                    + " "
+                                    + Long.toHexString(hashes[1][i]));
+                }
+            }
+        } catch (IOException e) {
+            Telemetry.print("ConfigFingerprint: could not write " + file + " " + e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package frc.spectrumLib.talonFX;
+
+import com.ctre.phoenix6.StatusCode;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.Timer;
+import frc.spectrumLib.Telemetry;
+import frc.spectrumLib.Telemetry.PrintPriority;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Applies device configs in the background so the robot doesn't block on every apply() and
+ * refresh() while it boots.
+ *
+ * <p>Each CAN bus gets its own worker thread. Tasks on the same bus run in the order they were
+ * submitted (so a follower is configured after its leader and a sensor offset is set after the
+ * config is applied), while different buses are configured in parallel. A task that returns an
+ * error StatusCode is retried with an exponential backoff. Robot calls {@link #awaitAll(double)}
+ * once after every mechanism is created, which prints how long each device took.
+ */
+public class DeviceConfigurator {
+    @Getter @Setter private static int maxAttempts = 5;
+    /** Seconds to wait before the first retry, doubled after every failed attempt */
+    @Getter @Setter private static double firstRetryDelay = 0.05;
+
+    private static final Map<String, ExecutorService> busExecutors = new ConcurrentHashMap<>();
+    private static final List<CompletableFuture<Boolean>> pending =
+            Collections.synchronizedList(new ArrayList<>());
+    private static final Map<String, Double> latencyMs =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+    private static final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+    /** Results tasks hand back to the main thread, see {@link #runOnMainThread(Runnable)} */
+    private static final Queue<Runnable> mainThread = new ConcurrentLinkedQueue<>();
+
+    private static final Alert failedAlert = new Alert("", AlertType.kError);
+    private static final Alert timeoutAlert =
+            new Alert("Device configuration did not finish before timeout", AlertType.kWarning);
+
+    /** Prevent this class from being instantiated. */
+    private DeviceConfigurator() {}
+
+    /**
+     * Queue a configuration task
+     *
+     * @param bus CAN bus of the device, tasks on the same bus run in order
+     * @param name device name used in the latency report
+     * @param task applies the config and returns the result, rerun if the result is not OK
+     * @return completes with true if the task succeeded
+     */
+    public static CompletableFuture<Boolean> submit(
+            String bus, String name, Supplier<StatusCode> task) {
+        ExecutorService executor =
+                busExecutors.computeIfAbsent(bus, DeviceConfigurator::createExecutor);
+        CompletableFuture<Boolean> future =
+                CompletableFuture.supplyAsync(() -> run(name, task), executor);
+        pending.add(future);
+        return future;
+    }
+
+    private static ExecutorService createExecutor(String bus) {
+        return Executors.newSingleThreadExecutor(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "DeviceConfigurator-" + bus);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static boolean run(String name, Supplier<StatusCode> task) {
+        long start = System.nanoTime();
+        StatusCode result = StatusCode.StatusCodeNotInitialized;
+        double delay = firstRetryDelay;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                result = task.get();
+            } catch (RuntimeException e) {
+                Telemetry.print(name + " config threw " + e, PrintPriority.HIGH);
+                result = StatusCode.GeneralError;
+            }
+            if (result.isOK()) {
+                break;
+            }
+            if (attempt < maxAttempts) {
+                Timer.delay(delay);
+                delay *= 2;
+            }
+        }
+
+        latencyMs.merge(name, (System.nanoTime() - start) / 1e6, Double::sum);
+        if (!result.isOK()) {
+            failures.add(name + " (" + result + ")");
+            Telemetry.print(
+                    name + " config failed after " + maxAttempts + " attempts: " + result,
+                    PrintPriority.HIGH);
+        }
+        return result.isOK();
+    }
+
+    /**
+     * Hand a result from a task back to the main thread, for anything the robot code reads without
+     * a lock (like a mechanism's config). It runs in awaitAll(), or in poll() for a task that
+     * finishes after awaitAll() timed out.
+     */
+    public static void runOnMainThread(Runnable action) {
+        mainThread.add(action);
+    }
+
+    /** Run the results tasks have handed back, call from the main loop */
+    public static void poll() {
+        Runnable action;
+        while ((action = mainThread.poll()) != null) {
+            action.run();
+        }
+    }
+
+    /** Completes when every task submitted so far has finished */
+    public static CompletableFuture<Void> getCompletion() {
+        synchronized (pending) {
+            return CompletableFuture.allOf(pending.toArray(new CompletableFuture[0]));
+        }
+    }
+
+    /**
+     * Block until every task submitted so far has finished and print the config latency of each
+     * device
+     *
+     * @param timeoutSeconds give up waiting after this long, the tasks keep running in the
+     *     background
+     * @return true if every task finished and succeeded
+     */
+    public static boolean awaitAll(double timeoutSeconds) {
+        long start = System.nanoTime();
+        boolean finished = false;
+        try {
+            getCompletion().get((long) (timeoutSeconds * 1000), TimeUnit.MILLISECONDS);
+            finished = true;
+        } catch (TimeoutException | ExecutionException e) {
+            finished = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        double waitedMs = (System.nanoTime() - start) / 1e6;
+        poll();
+
+        report(waitedMs);
+        timeoutAlert.set(!finished);
+        synchronized (failures) {
+            failedAlert.setText("Device config failed: " + String.join(", ", failures));
+            failedAlert.set(!failures.isEmpty());
+            return finished && failures.isEmpty();
+        }
+    }
+
+    private static void report(double waitedMs) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Device config, waited %.0f ms%n", waitedMs));
+        synchronized (latencyMs) {
+            for (Map.Entry<String, Double> entry : latencyMs.entrySet()) {
+                sb.append(String.format("  %-32s %8.1f ms%n", entry.getKey(), entry.getValue()));
+            }
+        }
+        Telemetry.print(sb.toString(), PrintPriority.HIGH);
+    }
+}
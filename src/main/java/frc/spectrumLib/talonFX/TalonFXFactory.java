@@ -1,5 +1,7 @@
 package frc.spectrumLib.talonFX;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.Follower;
 import com.ctre.phoenix6.hardware.TalonFX;
@@ -11,6 +13,11 @@ import com.ctre.phoenix6.signals.NeutralModeValue;
 import com.ctre.phoenix6.signals.ReverseLimitSourceValue;
 import com.ctre.phoenix6.signals.ReverseLimitTypeValue;
 import frc.spectrumLib.util.CanDeviceId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Creates CANTalon objects and configures all the parameters we care about to factory defaults.
@@ -23,19 +30,28 @@ public class TalonFXFactory {
     private static InvertedValue invertValue = InvertedValue.CounterClockwise_Positive;
     private static double neutralDeadband = 0.04;
     private static double supplyCurrentLimit = 40;
+    /** Followers need these leader signals to mirror its output */
+    private static final TalonFXSignal[] leaderSignals = {
+        TalonFXSignal.DUTY_CYCLE, TalonFXSignal.MOTOR_VOLTAGE, TalonFXSignal.TORQUE_CURRENT
+    };
+    private static double leaderSignalHz = 100;
 
     private TalonFXFactory() {}
 
     // create a CANTalon with the default (out of the box) configuration
     public static TalonFX createDefaultTalon(CanDeviceId id) {
-        var talon = createTalon(id);
-        talon.getConfigurator().apply(getDefaultConfig());
-        return talon;
+        return createConfigTalon(id, getDefaultConfig());
     }
 
+    /**
+     * Create a TalonFX and queue its config to be applied by the {@link DeviceConfigurator}. A copy
+     * of the config is applied so later changes to it aren't picked up half way through an apply.
+     */
     public static TalonFX createConfigTalon(CanDeviceId id, TalonFXConfiguration config) {
         var talon = createTalon(id);
-        talon.getConfigurator().apply(config);
+        TalonFXConfiguration snapshot = copyConfig(config);
+        DeviceConfigurator.submit(
+                id.getBus(), getDeviceName(id), () -> ConfigFingerprint.apply(talon, snapshot));
         return talon;
     }
 
@@ -48,14 +64,86 @@ public class TalonFXFactory {
             throw new RuntimeException("Leader and Follwer Talons must be on the same CAN bus");
         }
 
-        TalonFXConfiguration followerConfig = getDefaultConfig();
-        leaderTalonFX.getConfigurator().refresh(followerConfig);
-        final TalonFX talon = createConfigTalon(followerId, followerConfig);
+        final TalonFX talon = createTalon(followerId);
+        // Queued on the leader's bus, so this runs after the leader config has been applied
+        DeviceConfigurator.submit(
+                followerId.getBus(),
+                getDeviceName(followerId) + " follower",
+                () -> {
+                    TalonFXConfiguration followerConfig = getDefaultConfig();
+                    StatusCode result = leaderTalonFX.getConfigurator().refresh(followerConfig);
+                    if (!result.isOK()) {
+                        return result;
+                    }
+                    return ConfigFingerprint.apply(talon, followerConfig);
+                });
 
         talon.setControl(new Follower(leaderId, opposeLeaderDirection));
         return talon;
     }
 
+    /**
+     * Get the rate of every signal a mechanism reads, adding the signals followers need from the
+     * leader
+     *
+     * @param signalRates rate in hz for each signal that is read
+     * @param hasFollowers keeps the signals followers need from the leader running
+     */
+    public static Map<TalonFXSignal, Double> getStatusSignalRates(
+            Map<TalonFXSignal, Double> signalRates, boolean hasFollowers) {
+        Map<TalonFXSignal, Double> rates = new EnumMap<>(TalonFXSignal.class);
+        rates.putAll(signalRates);
+        if (hasFollowers) {
+            for (TalonFXSignal signal : leaderSignals) {
+                rates.merge(signal, leaderSignalHz, Math::max);
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Set the update rate of the signals a mechanism reads and optionally turn off all the others
+     *
+     * @param talon motor to configure
+     * @param rates rate in hz for each signal that is read, from getStatusSignalRates()
+     * @param optimize turn off every signal not given a rate
+     * @return the first error, or OK
+     */
+    public static StatusCode applyStatusSignals(
+            TalonFX talon, Map<TalonFXSignal, Double> rates, boolean optimize) {
+        StatusCode status = StatusCode.OK;
+
+        // Signals at the same rate are set with one call
+        Map<Double, List<BaseStatusSignal>> byRate = new HashMap<>();
+        for (Map.Entry<TalonFXSignal, Double> entry : rates.entrySet()) {
+            byRate.computeIfAbsent(entry.getValue(), k -> new ArrayList<>())
+                    .add(entry.getKey().get(talon));
+        }
+        for (Map.Entry<Double, List<BaseStatusSignal>> entry : byRate.entrySet()) {
+            StatusCode result =
+                    BaseStatusSignal.setUpdateFrequencyForAll(
+                            entry.getKey(), entry.getValue().toArray(new BaseStatusSignal[0]));
+            if (!result.isOK()) {
+                status = result;
+            }
+        }
+
+        if (optimize && status.isOK()) {
+            status = talon.optimizeBusUtilization();
+        }
+        return status;
+    }
+
+    public static TalonFXConfiguration copyConfig(TalonFXConfiguration config) {
+        TalonFXConfiguration copy = new TalonFXConfiguration();
+        copy.deserialize(config.serialize());
+        return copy;
+    }
+
+    public static String getDeviceName(CanDeviceId id) {
+        return "TalonFX " + id.getDeviceNumber();
+    }
+
     public static TalonFXConfiguration getDefaultConfig() {
         TalonFXConfiguration config = new TalonFXConfiguration();
 
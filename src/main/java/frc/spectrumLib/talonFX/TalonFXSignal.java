@@ -0,0 +1,35 @@
+package frc.spectrumLib.talonFX;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.hardware.TalonFX;
+import java.util.function.Function;
+
+/**
+ * The TalonFX status signals a Mechanism can ask for. Used by {@link
+ * frc.spectrumLib.mechanism.Mechanism.Config} to declare which signals are read and how often,
+ * everything else is turned off by optimizeBusUtilization().
+ */
+public enum TalonFXSignal {
+    POSITION(TalonFX::getPosition),
+    VELOCITY(TalonFX::getVelocity),
+    ACCELERATION(TalonFX::getAcceleration),
+    MOTOR_VOLTAGE(TalonFX::getMotorVoltage),
+    SUPPLY_VOLTAGE(TalonFX::getSupplyVoltage),
+    STATOR_CURRENT(TalonFX::getStatorCurrent),
+    SUPPLY_CURRENT(TalonFX::getSupplyCurrent),
+    TORQUE_CURRENT(TalonFX::getTorqueCurrent),
+    DUTY_CYCLE(TalonFX::getDutyCycle),
+    DEVICE_TEMP(TalonFX::getDeviceTemp),
+    CLOSED_LOOP_REFERENCE(TalonFX::getClosedLoopReference),
+    CLOSED_LOOP_ERROR(TalonFX::getClosedLoopError);
+
+    private final Function<TalonFX, BaseStatusSignal> getter;
+
+    TalonFXSignal(Function<TalonFX, BaseStatusSignal> getter) {
+        this.getter = getter;
+    }
+
+    public BaseStatusSignal get(TalonFX talon) {
+        return getter.apply(talon);
+    }
+}
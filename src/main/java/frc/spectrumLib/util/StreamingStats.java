@@ -0,0 +1,101 @@
+package frc.spectrumLib.util;
+
+/**
+ * Running statistics of a sampled value in constant memory. Mean and variance use Welford's method
+ * so they stay accurate over long runs without keeping the samples.
+ *
+ * <p>Time to target is tracked separately: call {@link #start(double)} when the test begins and
+ * {@link #reached(double)} every time the value is at its target, only the first one counts.
+ */
+public class StreamingStats {
+    private long count;
+    private double mean;
+    private double m2;
+    private double min;
+    private double max;
+    private double startTime;
+    private double reachedTime;
+
+    public StreamingStats() {
+        reset();
+    }
+
+    public void reset() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        startTime = Double.NaN;
+        reachedTime = Double.NaN;
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /** Start the time to target clock, also clears a previous reached time */
+    public void start(double timestamp) {
+        startTime = timestamp;
+        reachedTime = Double.NaN;
+    }
+
+    /** Record that the target was reached, ignored after the first call */
+    public void reached(double timestamp) {
+        if (Double.isNaN(reachedTime)) {
+            reachedTime = timestamp;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /** Mean of the samples, NaN if there are none */
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    /** Sample variance, 0 with fewer than two samples */
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    /** Largest magnitude seen, so a negative current spike still counts */
+    public double getPeak() {
+        return count > 0 ? Math.max(Math.abs(min), Math.abs(max)) : Double.NaN;
+    }
+
+    /** Seconds from {@link #start(double)} to the first {@link #reached(double)}, NaN if never */
+    public double getTimeToTarget() {
+        return reachedTime - startTime;
+    }
+
+    public boolean hasReachedTarget() {
+        return !Double.isNaN(getTimeToTarget());
+    }
+}
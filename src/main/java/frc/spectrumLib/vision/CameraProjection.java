@@ -0,0 +1,108 @@
+package frc.spectrumLib.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Transform3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import frc.spectrumLib.vision.Limelight.LimelightConfig;
+import lombok.Getter;
+
+/**
+ * Where an AprilTag lands in a Limelight's image for a given robot pose, from the camera's
+ * mounting in its {@link LimelightConfig}. Used to simulate the camera and to predict which tags
+ * it will see.
+ */
+public class CameraProjection {
+    /** A tag as the camera would see it */
+    public static class Projection {
+        /** Degrees, positive right like the Limelight tx */
+        public double tx;
+        /** Degrees, positive up */
+        public double ty;
+        /** -1 to 1 across the image, the Limelight crop window coordinates */
+        public double imageX;
+
+        public double imageY;
+        public double distance;
+        /** Cosine of the angle between the tag face and the camera, 1 when straight on */
+        public double facing;
+    }
+
+    @Getter private final Transform3d robotToCamera;
+    @Getter private final double horizontalFovDegrees;
+    @Getter private final double verticalFovDegrees;
+    private final double tanHalfHorizontal;
+    private final double tanHalfVertical;
+
+    /**
+     * The config angles are radians (as Vision sets them): roll is to the right, pitch is camera up
+     * and yaw is to the left. Right and pitch are negated for the WPILib frame.
+     */
+    public CameraProjection(
+            LimelightConfig config, double horizontalFovDegrees, double verticalFovDegrees) {
+        robotToCamera =
+                new Transform3d(
+                        new Translation3d(config.getForward(), -config.getRight(), config.getUp()),
+                        new Rotation3d(config.getRoll(), -config.getPitch(), config.getYaw()));
+        this.horizontalFovDegrees = horizontalFovDegrees;
+        this.verticalFovDegrees = verticalFovDegrees;
+        tanHalfHorizontal = Math.tan(Math.toRadians(horizontalFovDegrees / 2));
+        tanHalfVertical = Math.tan(Math.toRadians(verticalFovDegrees / 2));
+    }
+
+    public Pose3d getCameraPose(Pose2d robotPose) {
+        return new Pose3d(robotPose).transformBy(robotToCamera);
+    }
+
+    /**
+     * Project a tag into the image
+     *
+     * @return false if the tag is behind the camera, out of range, outside the image or facing
+     *     away, out is only filled when true
+     */
+    public boolean project(Pose3d cameraPose, Pose3d tagPose, double maxDistance, Projection out) {
+        Pose3d inCamera = tagPose.relativeTo(cameraPose);
+        double forward = inCamera.getX();
+        double left = inCamera.getY();
+        double up = inCamera.getZ();
+        double distance = inCamera.getTranslation().getNorm();
+        if (forward <= 0.1 || distance > maxDistance) {
+            return false;
+        }
+        double imageX = -left / forward / tanHalfHorizontal;
+        double imageY = up / forward / tanHalfVertical;
+        if (Math.abs(imageX) > 1 || Math.abs(imageY) > 1) {
+            return false;
+        }
+
+        // The tag faces out along its +X axis, it has to point back at the camera
+        Translation3d toCamera = cameraPose.getTranslation().minus(tagPose.getTranslation());
+        Translation3d normal = new Translation3d(1, 0, 0).rotateBy(tagPose.getRotation());
+        double facing =
+                (normal.getX() * toCamera.getX()
+                                + normal.getY() * toCamera.getY()
+                                + normal.getZ() * toCamera.getZ())
+                        / toCamera.getNorm();
+        if (facing <= 0.1) {
+            return false;
+        }
+
+        out.tx = -Math.toDegrees(Math.atan2(left, forward));
+        out.ty = Math.toDegrees(Math.atan2(up, forward));
+        out.imageX = imageX;
+        out.imageY = imageY;
+        out.distance = distance;
+        out.facing = facing;
+        return true;
+    }
+
+    /** Half the width of an object of this size at this distance, in image coordinates */
+    public double getImageHalfWidth(double size, double distance) {
+        return size / 2 / distance / tanHalfHorizontal;
+    }
+
+    public double getImageHalfHeight(double size, double distance) {
+        return size / 2 / distance / tanHalfVertical;
+    }
+}
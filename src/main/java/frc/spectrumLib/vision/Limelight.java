@@ -22,12 +22,16 @@ public class Limelight {
 
         @Getter @Setter private boolean attached = true;
 
-        @Getter @Setter private boolean isIntegrating;
+        /** Set from the NT listener thread when vision ingestion is event driven */
+        @Getter @Setter private volatile boolean isIntegrating;
         /** Physical Config */
         @Getter private double forward, right, up; // meters
 
         @Getter private double roll, pitch, yaw; // degrees
 
+        /** Unchanged settings are resent this often, see LimelightWriteCache */
+        @Getter private double writeRefreshSeconds = 1.0;
+
         public LimelightConfig(String name) {
             this.name = name;
         }
@@ -57,15 +61,38 @@ public class Limelight {
             this.yaw = yaw;
             return this;
         }
+
+        /** @param seconds resend unchanged settings this often, 0 to never resend */
+        public LimelightConfig withWriteRefresh(double seconds) {
+            this.writeRefreshSeconds = seconds;
+            return this;
+        }
     }
 
     /* Debug */
     private final DecimalFormat df = new DecimalFormat();
     private LimelightConfig config;
-    @Getter @Setter private boolean isIntegrating = false;
     @Getter private String cameraName = "default";
-    @Getter @Setter private String logStatus = "";
-    @Getter @Setter private String tagStatus = "";
+    /* Status, written by the NT listener thread when vision ingestion is event driven */
+    @Getter @Setter private volatile boolean isIntegrating = false;
+    @Getter @Setter private volatile String logStatus = "";
+    @Getter @Setter private volatile String tagStatus = "";
+    private LimelightFrame frame;
+
+    /*
+     * Frame dedup, timestamps of the last pose estimates Vision has processed. Only one thread
+     * consumes frames, volatile so the counts logged from the main loop are current.
+     */
+    private volatile double lastMegaTag1Timestamp = Double.NaN;
+    private volatile double lastMegaTag2Timestamp = Double.NaN;
+    @Getter private volatile long newMegaTag1Frames = 0;
+    @Getter private volatile long duplicateMegaTag1Frames = 0;
+    @Getter private volatile long newMegaTag2Frames = 0;
+    @Getter private volatile long duplicateMegaTag2Frames = 0;
+
+    /* Settings writes, created on first use since the constructors can replace the config */
+    private LimelightWriteCache writes;
+    private final double[] orientation = new double[6];
 
     public Limelight(LimelightConfig config) {
         this.config = config;
@@ -98,10 +125,26 @@ public class Limelight {
         return config.getName();
     }
 
+    /** Writes to the Limelight's NT table that skip values it already has */
+    public LimelightWriteCache getWrites() {
+        if (writes == null) {
+            writes = new LimelightWriteCache(config.getName(), config.getWriteRefreshSeconds());
+        }
+        return writes;
+    }
+
     public boolean isAttached() {
         return config.isAttached();
     }
 
+    /** @return this loop's snapshot of the LL's NetworkTables values, read at most once a loop */
+    public LimelightFrame getFrame() {
+        if (frame == null) {
+            frame = new LimelightFrame(config.getName());
+        }
+        return frame.refresh();
+    }
+
     /* ::: Basic Information Retrieval ::: */
     /**
      * @return Horizontal Offset From Crosshair To Target (LL1: -27 degrees to 27 degrees / LL2:
@@ -111,7 +154,7 @@ public class Limelight {
         if (!isAttached()) {
             return 0;
         }
-        return LimelightHelpers.getTX(config.getName());
+        return getFrame().getTx();
     }
 
     /**
@@ -122,7 +165,7 @@ public class Limelight {
         if (!isAttached()) {
             return 0;
         }
-        return LimelightHelpers.getTY(config.getName());
+        return getFrame().getTy();
     }
 
     /** @return Whether the LL has any valid targets (April tags or other vision targets) */
@@ -130,7 +173,7 @@ public class Limelight {
         if (!isAttached()) {
             return false;
         }
-        return LimelightHelpers.getTV(config.getName());
+        return getFrame().isTargetInView();
     }
 
     /** @return whether the LL sees multiple tags or not */
@@ -145,7 +188,7 @@ public class Limelight {
         if (!isAttached()) {
             return 0;
         }
-        return LimelightHelpers.getBotPoseEstimate_wpiBlue(config.getName()).tagCount;
+        return getFrame().getMt1TagCount();
 
         // if (retrieveJSON() == null) return 0;
 
@@ -160,14 +203,14 @@ public class Limelight {
         if (!isAttached()) {
             return 0;
         }
-        return LimelightHelpers.getFiducialID(config.getName());
+        return getFrame().getTagId();
     }
 
     public double getTargetSize() {
         if (!isAttached()) {
             return 0;
         }
-        return LimelightHelpers.getTA(config.getName());
+        return getFrame().getTa();
     }
 
     /* ::: Pose Retrieval ::: */
@@ -177,11 +220,7 @@ public class Limelight {
         if (!isAttached()) {
             return new Pose3d();
         }
-        Pose3d pose3d = LimelightHelpers.getBotPose3d_wpiBlue(config.name);
-        if (pose3d == null) {
-            return new Pose3d();
-        }
-        return pose3d;
+        return getFrame().getMegaTag1Pose3d();
     }
 
     /** @return the corresponding LL Pose3d (MEGATAG2) for the alliance in DriverStation.java */
@@ -189,12 +228,7 @@ public class Limelight {
         if (!isAttached()) {
             return new Pose2d();
         }
-        PoseEstimate poseEstimate =
-                LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(config.name);
-        if (poseEstimate == null) {
-            return new Pose2d();
-        }
-        return poseEstimate.pose;
+        return getFrame().getMegaTag2Pose2d();
     }
 
     public PoseEstimate getMegaTag1_PoseEstimate() {
@@ -222,6 +256,38 @@ public class Limelight {
         return poseEstimate;
     }
 
+    /**
+     * Mark a MEGATAG1 estimate as processed
+     *
+     * @param timestamp timestamp of the estimate from the frame it was read from
+     * @return false if the estimate was already processed
+     */
+    public boolean consumeMegaTag1Frame(double timestamp) {
+        if (timestamp == lastMegaTag1Timestamp) {
+            duplicateMegaTag1Frames++;
+            return false;
+        }
+        lastMegaTag1Timestamp = timestamp;
+        newMegaTag1Frames++;
+        return true;
+    }
+
+    /**
+     * Mark a MEGATAG2 estimate as processed
+     *
+     * @param timestamp timestamp of the estimate from the frame it was read from
+     * @return false if the estimate was already processed
+     */
+    public boolean consumeMegaTag2Frame(double timestamp) {
+        if (timestamp == lastMegaTag2Timestamp) {
+            duplicateMegaTag2Frames++;
+            return false;
+        }
+        lastMegaTag2Timestamp = timestamp;
+        newMegaTag2Frames++;
+        return true;
+    }
+
     public boolean hasAccuratePose() {
         if (!isAttached()) {
             return false;
@@ -240,7 +306,10 @@ public class Limelight {
     }
 
     public RawFiducial[] getRawFiducial() {
-        return LimelightHelpers.getBotPoseEstimate_wpiBlue(config.name).rawFiducials;
+        if (!isAttached()) {
+            return new RawFiducial[0];
+        }
+        return getFrame().getRawFiducials();
     }
 
     /**
@@ -252,7 +321,7 @@ public class Limelight {
         if (!isAttached()) {
             return 0;
         }
-        return LimelightHelpers.getBotPoseEstimate_wpiBlue(config.getName()).timestampSeconds;
+        return getFrame().getMt1Timestamp();
     }
 
     /**
@@ -264,8 +333,7 @@ public class Limelight {
         if (!isAttached()) {
             return 0;
         }
-        return LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(config.getName())
-                .timestampSeconds;
+        return getFrame().getMt2Timestamp();
     }
 
     /**
@@ -327,29 +395,64 @@ public class Limelight {
         if (!isAttached()) {
             return;
         }
-        LimelightHelpers.setPipelineIndex(config.name, pipelineIndex);
+        getWrites().setDouble("pipeline", pipelineIndex);
     }
 
-    /** */
+    /**
+     * Sent every call for MegaTag2 but not flushed, call {@link LimelightHelpers#Flush()} once
+     * after setting every camera
+     */
     public void setRobotOrientation(double degrees) {
+        setRobotOrientation(degrees, 0);
+    }
+
+    public void setRobotOrientation(double degrees, double angularRate) {
         if (!isAttached()) {
             return;
         }
-        LimelightHelpers.SetRobotOrientation(config.name, degrees, 0, 0, 0, 0, 0);
+        orientation[0] = degrees;
+        orientation[1] = angularRate;
+        getWrites()
+                .setDoubleArray(
+                        "robot_orientation_set", orientation, LimelightWriteCache.Policy.ALWAYS);
     }
 
-    public void setRobotOrientation(double degrees, double angularRate) {
+    public void setIMUmode(int mode) {
         if (!isAttached()) {
             return;
         }
-        LimelightHelpers.SetRobotOrientation(config.name, degrees, angularRate, 0, 0, 0, 0);
+        getWrites().setDouble("imumode_set", mode);
     }
 
-    public void setIMUmode(int mode) {
+    /**
+     * Only process part of the image, -1 to 1 on each axis. The crop window in the Limelight UI
+     * must be completely open.
+     */
+    public void setCropWindow(double xMin, double xMax, double yMin, double yMax) {
+        if (!isAttached()) {
+            return;
+        }
+        getWrites().setDoubleArray("crop", new double[] {xMin, xMax, yMin, yMax});
+    }
+
+    /** Only use these tags for localization */
+    public void setFiducialFilter(int[] tagIDs) {
         if (!isAttached()) {
             return;
         }
-        LimelightHelpers.SetIMUMode(config.name, mode);
+        double[] ids = new double[tagIDs.length];
+        for (int i = 0; i < tagIDs.length; i++) {
+            ids[i] = tagIDs[i];
+        }
+        getWrites().setDoubleArray("fiducial_id_filters_set", ids);
+    }
+
+    /** Tag to report in tx/ty when more than one is in view, -1 for the largest */
+    public void setPriorityTag(int tagID) {
+        if (!isAttached()) {
+            return;
+        }
+        getWrites().setDouble("priorityid", tagID);
     }
 
     public double getTagTx() {
@@ -361,9 +464,10 @@ public class Limelight {
             return -99999;
         }
 
-        double tx = LimelightHelpers.getTargetPose3d_RobotSpace(cameraName).getX();
-
-        return tx;
+        if (!readsFrameCamera()) {
+            return LimelightHelpers.getTargetPose3d_RobotSpace(cameraName).getX();
+        }
+        return getFrame().getTagRobotSpaceX();
     }
 
     public double getTagTA() {
@@ -374,9 +478,10 @@ public class Limelight {
             return -99999;
         }
 
-        double ta = LimelightHelpers.getTA(cameraName);
-
-        return ta;
+        if (!readsFrameCamera()) {
+            return LimelightHelpers.getTA(cameraName);
+        }
+        return getFrame().getTa();
     }
 
     public double getTagRotationDegrees() {
@@ -387,10 +492,21 @@ public class Limelight {
             return -99999;
         }
 
-        double rotation =
-                LimelightHelpers.getTargetPose3d_RobotSpace(cameraName).getRotation().getZ();
+        if (!readsFrameCamera()) {
+            return LimelightHelpers.getTargetPose3d_RobotSpace(cameraName)
+                    .getRotation()
+                    .getZ();
+        }
+        return getFrame().getTagRobotSpaceYaw();
+    }
 
-        return rotation;
+    /**
+     * The tag getters have always read {@link #cameraName}, the frame reads the config name. Only
+     * use the frame when they are the same camera, Limelight(LimelightConfig) leaves cameraName at
+     * "default".
+     */
+    private boolean readsFrameCamera() {
+        return cameraName.equals(config.getName());
     }
 
     /**
@@ -402,11 +518,8 @@ public class Limelight {
         if (!isAttached()) {
             return;
         }
-        if (enabled) {
-            LimelightHelpers.setLEDMode_ForceOn(config.getName());
-        } else {
-            LimelightHelpers.setLEDMode_ForceOff(config.getName());
-        }
+        // 3 is forced on, 1 is forced off
+        getWrites().setDouble("ledMode", enabled ? 3 : 1);
     }
 
     /**
@@ -418,7 +531,7 @@ public class Limelight {
         if (!isAttached()) {
             return;
         }
-        LimelightHelpers.setLEDMode_ForceBlink(config.getName());
+        getWrites().setDouble("ledMode", 2);
     }
 
     /** Checks if the camera is connected by looking for an empty botpose array from camera. */
@@ -426,18 +539,7 @@ public class Limelight {
         if (!isAttached()) {
             return false;
         }
-        try {
-            var rawPoseArray =
-                    LimelightHelpers.getLimelightNTTableEntry(config.getName(), "botpose_wpiblue")
-                            .getDoubleArray(new double[0]);
-            if (rawPoseArray.length < 6) {
-                return false;
-            }
-            return true;
-        } catch (Exception e) {
-            System.err.println("Avoided crashing statement in Limelight.java: isCameraConnected()");
-            return false;
-        }
+        return getFrame().isConnected();
     }
 
     /** Prints the vision, estimated, and odometry pose to SmartDashboard */
@@ -0,0 +1,321 @@
+package frc.spectrumLib.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+import frc.spectrumLib.LoopEpoch;
+import frc.spectrumLib.vision.LimelightHelpers.RawFiducial;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+
+/**
+ * Everything we use from one Limelight, read from NetworkTables once per loop.
+ *
+ * <p>Each NT topic the robot code uses is read exactly once the first time the frame is used in a
+ * loop and parsed into primitive fields, so all the Limelight getters (and the vision code that
+ * calls several of them per camera) see the same snapshot without going back to NT. The poses are
+ * only built as Pose2d/Pose3d objects when something asks for them, once per loop.
+ *
+ * <p>{@link #updateFrom} takes the raw values directly so logged data can be fed back through the
+ * same parsing.
+ */
+public class LimelightFrame {
+    /** Values in botpose before the per tag fiducial data starts */
+    private static final int poseValues = 11;
+
+    private static final int valsPerFiducial = 7;
+
+    /** NT reads done by every frame since boot, added to from the main loop and the listener */
+    private static final LongAdder ntReads = new LongAdder();
+
+    private final DoubleSubscriber tvSub;
+    private final DoubleSubscriber txSub;
+    private final DoubleSubscriber tySub;
+    private final DoubleSubscriber taSub;
+    private final DoubleSubscriber tidSub;
+    private final DoubleArraySubscriber botposeSub;
+    private final DoubleArraySubscriber botposeOrbSub;
+    private final DoubleArraySubscriber targetPoseRobotSpaceSub;
+
+    private long epoch = Long.MIN_VALUE;
+
+    /* Basic targeting */
+    @Getter private boolean targetInView;
+    @Getter private double tx;
+    @Getter private double ty;
+    @Getter private double ta;
+    @Getter private double tagId;
+
+    /** True if the camera is publishing a full botpose array */
+    @Getter private boolean connected;
+
+    /* MegaTag1 (botpose_wpiblue), angles in radians */
+    @Getter private boolean megaTag1Valid;
+    @Getter private double mt1X, mt1Y, mt1Z;
+    @Getter private double mt1Roll, mt1Pitch, mt1Yaw;
+    @Getter private double mt1LatencyMs;
+    @Getter private int mt1TagCount;
+    @Getter private double mt1TagSpan;
+    @Getter private double mt1AvgTagDist;
+    @Getter private double mt1AvgTagArea;
+    @Getter private double mt1Timestamp;
+
+    /* MegaTag2 (botpose_orb_wpiblue), angles in radians */
+    @Getter private boolean megaTag2Valid;
+    @Getter private double mt2X, mt2Y;
+    @Getter private double mt2Yaw;
+    @Getter private int mt2TagCount;
+    @Getter private double mt2Timestamp;
+
+    /* Raw fiducials from the MegaTag1 array */
+    @Getter private int fiducialCount;
+    private int[] fiducialId = new int[4];
+    private double[] fiducialTxnc = new double[4];
+    private double[] fiducialTync = new double[4];
+    private double[] fiducialTa = new double[4];
+    private double[] fiducialDistToCamera = new double[4];
+    private double[] fiducialDistToRobot = new double[4];
+    private double[] fiducialAmbiguity = new double[4];
+
+    /* Primary tag in robot space */
+    @Getter private double tagRobotSpaceX;
+    @Getter private double tagRobotSpaceYaw;
+
+    /* Built on request, cleared when the frame updates */
+    private Pose3d megaTag1Pose3d;
+    private Pose2d megaTag1Pose2d;
+    private Pose2d megaTag2Pose2d;
+    private RawFiducial[] rawFiducials;
+
+    public LimelightFrame(String name) {
+        NetworkTable table = LimelightHelpers.getLimelightNTTable(name);
+        tvSub = table.getDoubleTopic("tv").subscribe(0);
+        txSub = table.getDoubleTopic("tx").subscribe(0);
+        tySub = table.getDoubleTopic("ty").subscribe(0);
+        taSub = table.getDoubleTopic("ta").subscribe(0);
+        tidSub = table.getDoubleTopic("tid").subscribe(0);
+        botposeSub = table.getDoubleArrayTopic("botpose_wpiblue").subscribe(new double[0]);
+        botposeOrbSub = table.getDoubleArrayTopic("botpose_orb_wpiblue").subscribe(new double[0]);
+        targetPoseRobotSpaceSub =
+                table.getDoubleArrayTopic("targetpose_robotspace").subscribe(new double[0]);
+    }
+
+    /** A frame that is only filled by {@link #updateFrom}, for replaying logged data */
+    public LimelightFrame() {
+        tvSub = null;
+        txSub = null;
+        tySub = null;
+        taSub = null;
+        tidSub = null;
+        botposeSub = null;
+        botposeOrbSub = null;
+        targetPoseRobotSpaceSub = null;
+    }
+
+    /** @return NT reads done by every frame since boot */
+    public static long getNtReads() {
+        return ntReads.sum();
+    }
+
+    /** Read NT if this frame hasn't been read yet this loop */
+    public LimelightFrame refresh() {
+        long now = LoopEpoch.get();
+        if (now != epoch) {
+            epoch = now;
+            read();
+        }
+        return this;
+    }
+
+    /** Read NT now, for code that reads the frame off the main loop */
+    public void read() {
+        TimestampedDoubleArray botpose = botposeSub.getAtomic();
+        TimestampedDoubleArray botposeOrb = botposeOrbSub.getAtomic();
+        ntReads.add(8);
+        updateFrom(
+                tvSub.get(),
+                txSub.get(),
+                tySub.get(),
+                taSub.get(),
+                tidSub.get(),
+                botpose.value,
+                botpose.timestamp,
+                botposeOrb.value,
+                botposeOrb.timestamp,
+                targetPoseRobotSpaceSub.get());
+    }
+
+    /**
+     * Fill the frame from raw Limelight values
+     *
+     * @param botpose botpose_wpiblue array
+     * @param botposeTimestamp NT timestamp of botpose in microseconds
+     * @param botposeOrb botpose_orb_wpiblue array
+     * @param botposeOrbTimestamp NT timestamp of botpose_orb in microseconds
+     * @param targetPoseRobotSpace targetpose_robotspace array
+     */
+    public void updateFrom(
+            double tv,
+            double tx,
+            double ty,
+            double ta,
+            double tid,
+            double[] botpose,
+            long botposeTimestamp,
+            double[] botposeOrb,
+            long botposeOrbTimestamp,
+            double[] targetPoseRobotSpace) {
+        targetInView = tv == 1.0;
+        this.tx = tx;
+        this.ty = ty;
+        this.ta = ta;
+        this.tagId = tid;
+        connected = botpose.length >= 6;
+
+        megaTag1Pose3d = null;
+        megaTag1Pose2d = null;
+        megaTag2Pose2d = null;
+        rawFiducials = null;
+
+        // MegaTag1, parsed the same way as LimelightHelpers.getBotPoseEstimate()
+        megaTag1Valid = botpose.length > 0;
+        mt1X = entry(botpose, 0);
+        mt1Y = entry(botpose, 1);
+        mt1Z = entry(botpose, 2);
+        mt1Roll = Units.degreesToRadians(entry(botpose, 3));
+        mt1Pitch = Units.degreesToRadians(entry(botpose, 4));
+        mt1Yaw = Units.degreesToRadians(entry(botpose, 5));
+        mt1LatencyMs = entry(botpose, 6);
+        mt1TagCount = (int) entry(botpose, 7);
+        mt1TagSpan = entry(botpose, 8);
+        mt1AvgTagDist = entry(botpose, 9);
+        mt1AvgTagArea = entry(botpose, 10);
+        mt1Timestamp = (botposeTimestamp / 1000000.0) - (mt1LatencyMs / 1000.0);
+        parseFiducials(botpose);
+
+        megaTag2Valid = botposeOrb.length > 0;
+        mt2X = entry(botposeOrb, 0);
+        mt2Y = entry(botposeOrb, 1);
+        mt2Yaw = Units.degreesToRadians(entry(botposeOrb, 5));
+        mt2TagCount = (int) entry(botposeOrb, 7);
+        mt2Timestamp = (botposeOrbTimestamp / 1000000.0) - (entry(botposeOrb, 6) / 1000.0);
+
+        tagRobotSpaceX = entry(targetPoseRobotSpace, 0);
+        tagRobotSpaceYaw = Units.degreesToRadians(entry(targetPoseRobotSpace, 5));
+    }
+
+    private void parseFiducials(double[] botpose) {
+        int count = mt1TagCount;
+        if (count <= 0 || botpose.length != poseValues + valsPerFiducial * count) {
+            fiducialCount = 0;
+            return;
+        }
+        if (count > fiducialId.length) {
+            int size = Math.max(count, fiducialId.length * 2);
+            fiducialId = Arrays.copyOf(fiducialId, size);
+            fiducialTxnc = Arrays.copyOf(fiducialTxnc, size);
+            fiducialTync = Arrays.copyOf(fiducialTync, size);
+            fiducialTa = Arrays.copyOf(fiducialTa, size);
+            fiducialDistToCamera = Arrays.copyOf(fiducialDistToCamera, size);
+            fiducialDistToRobot = Arrays.copyOf(fiducialDistToRobot, size);
+            fiducialAmbiguity = Arrays.copyOf(fiducialAmbiguity, size);
+        }
+        for (int i = 0; i < count; i++) {
+            int base = poseValues + i * valsPerFiducial;
+            fiducialId[i] = (int) botpose[base];
+            fiducialTxnc[i] = botpose[base + 1];
+            fiducialTync[i] = botpose[base + 2];
+            fiducialTa[i] = botpose[base + 3];
+            fiducialDistToCamera[i] = botpose[base + 4];
+            fiducialDistToRobot[i] = botpose[base + 5];
+            fiducialAmbiguity[i] = botpose[base + 6];
+        }
+        fiducialCount = count;
+    }
+
+    private static double entry(double[] data, int index) {
+        return data.length > index ? data[index] : 0;
+    }
+
+    public int getFiducialId(int index) {
+        return fiducialId[index];
+    }
+
+    public double getFiducialTa(int index) {
+        return fiducialTa[index];
+    }
+
+    public double getFiducialDistToRobot(int index) {
+        return fiducialDistToRobot[index];
+    }
+
+    public double getFiducialAmbiguity(int index) {
+        return fiducialAmbiguity[index];
+    }
+
+    /** Highest ambiguity of the tags in the MegaTag1 array, 0 with no tags */
+    public double getMaxAmbiguity() {
+        double max = 0;
+        for (int i = 0; i < fiducialCount; i++) {
+            max = Math.max(max, fiducialAmbiguity[i]);
+        }
+        return max;
+    }
+
+    public Pose3d getMegaTag1Pose3d() {
+        if (megaTag1Pose3d == null) {
+            megaTag1Pose3d =
+                    connected
+                            ? new Pose3d(
+                                    new Translation3d(mt1X, mt1Y, mt1Z),
+                                    new Rotation3d(mt1Roll, mt1Pitch, mt1Yaw))
+                            : new Pose3d();
+        }
+        return megaTag1Pose3d;
+    }
+
+    public Pose2d getMegaTag1Pose2d() {
+        if (megaTag1Pose2d == null) {
+            megaTag1Pose2d = getMegaTag1Pose3d().toPose2d();
+        }
+        return megaTag1Pose2d;
+    }
+
+    public Pose2d getMegaTag2Pose2d() {
+        if (megaTag2Pose2d == null) {
+            megaTag2Pose2d =
+                    megaTag2Valid
+                            ? new Pose2d(new Translation2d(mt2X, mt2Y), new Rotation2d(mt2Yaw))
+                            : new Pose2d();
+        }
+        return megaTag2Pose2d;
+    }
+
+    /** The fiducials as LimelightHelpers objects, for code that still wants them */
+    public RawFiducial[] getRawFiducials() {
+        if (rawFiducials == null) {
+            rawFiducials = new RawFiducial[fiducialCount];
+            for (int i = 0; i < fiducialCount; i++) {
+                rawFiducials[i] =
+                        new RawFiducial(
+                                fiducialId[i],
+                                fiducialTxnc[i],
+                                fiducialTync[i],
+                                fiducialTa[i],
+                                fiducialDistToCamera[i],
+                                fiducialDistToRobot[i],
+                                fiducialAmbiguity[i]);
+            }
+        }
+        return rawFiducials;
+    }
+}
@@ -0,0 +1,337 @@
+package frc.spectrumLib.vision;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.Timer;
+import frc.spectrumLib.vision.Limelight.LimelightConfig;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Publishes what a Limelight would see from a simulated robot pose, so the vision code runs
+ * against something in simulation.
+ *
+ * <p>Every tag in the field layout is projected into the camera using the {@link LimelightConfig}
+ * mounting, and the ones in the field of view, in range and facing the camera are reported. The
+ * MegaTag1 and MegaTag2 poses are the true pose plus noise that grows with tag distance and
+ * shrinks with tag count. Frames are captured at the camera FPS and published to the same NT
+ * topics as a real Limelight once their latency has passed, so the timestamps the robot code
+ * computes land back on the capture time.
+ *
+ * <p>The crop window and fiducial filter the robot code sets are applied to the tags it reports,
+ * the heartbeat and latencies are published for the FPS and latency telemetry. The smaller search
+ * area of a crop doesn't change the simulated FPS.
+ *
+ * <p>Never create one on a real robot, it would publish over the camera.
+ */
+public class LimelightSim {
+    /** FRC 2025 tags are 6.5in on a side */
+    private static final double tagSize = Units.inchesToMeters(6.5);
+
+    private static final int valsPerFiducial = 7;
+
+    private final AprilTagFieldLayout layout;
+    private final LimelightConfig config;
+    private CameraProjection projection;
+    private final CameraProjection.Projection projected = new CameraProjection.Projection();
+    private final Random random = new Random(3847);
+
+    private double fps = 30;
+    private double latencyMs = 35;
+    private double latencyStdDevMs = 5;
+    private double xyNoise = 0.02;
+    private double yawNoiseDegrees = 1;
+    private double maxDistance = 6;
+
+    private final DoublePublisher tv;
+    private final DoublePublisher tx;
+    private final DoublePublisher ty;
+    private final DoublePublisher ta;
+    private final DoublePublisher tid;
+    private final DoubleArrayPublisher botpose;
+    private final DoubleArrayPublisher botposeOrb;
+    private final DoubleArrayPublisher rawFiducials;
+    private final DoublePublisher heartbeat;
+    private final DoublePublisher pipelineLatency;
+    private final DoublePublisher captureLatency;
+    private final DoubleArraySubscriber crop;
+    private final DoubleArraySubscriber fiducialFilter;
+    private long frames = 0;
+
+    private double nextCapture = 0;
+    private final ArrayDeque<Frame> pending = new ArrayDeque<>();
+
+    /** A captured frame waiting out its latency */
+    private static class Frame {
+        double publishTime;
+        double latency;
+        boolean targetInView;
+        double tx, ty, ta, tid;
+        double[] botpose;
+        double[] botposeOrb;
+        double[] rawFiducials;
+    }
+
+    /** A tag in view of the camera */
+    private static class Sighting {
+        int id;
+        double tx, ty, ta;
+        double distToCamera, distToRobot;
+        double ambiguity;
+        Translation3d position;
+    }
+
+    /**
+     * The config angles are radians (as Vision sets them): roll is to the right, pitch is camera up
+     * and yaw is to the left. Right and pitch are negated for the WPILib frame.
+     */
+    public LimelightSim(LimelightConfig config, AprilTagFieldLayout layout) {
+        this.layout = layout;
+        this.config = config;
+        projection = new CameraProjection(config, 82, 56.2);
+
+        NetworkTable table = LimelightHelpers.getLimelightNTTable(config.getName());
+        tv = table.getDoubleTopic("tv").publish();
+        tx = table.getDoubleTopic("tx").publish();
+        ty = table.getDoubleTopic("ty").publish();
+        ta = table.getDoubleTopic("ta").publish();
+        tid = table.getDoubleTopic("tid").publish();
+        botpose = table.getDoubleArrayTopic("botpose_wpiblue").publish();
+        botposeOrb = table.getDoubleArrayTopic("botpose_orb_wpiblue").publish();
+        rawFiducials = table.getDoubleArrayTopic("rawfiducials").publish();
+        heartbeat = table.getDoubleTopic("hb").publish();
+        pipelineLatency = table.getDoubleTopic("tl").publish();
+        captureLatency = table.getDoubleTopic("cl").publish();
+        crop = table.getDoubleArrayTopic("crop").subscribe(new double[0]);
+        fiducialFilter =
+                table.getDoubleArrayTopic("fiducial_id_filters_set").subscribe(new double[0]);
+    }
+
+    public LimelightSim withFps(double fps) {
+        this.fps = fps;
+        return this;
+    }
+
+    public LimelightSim withLatency(double latencyMs, double latencyStdDevMs) {
+        this.latencyMs = latencyMs;
+        this.latencyStdDevMs = latencyStdDevMs;
+        return this;
+    }
+
+    /**
+     * @param xyNoise meters of position std dev per meter of average tag distance
+     * @param yawNoiseDegrees MegaTag1 yaw std dev per meter of average tag distance
+     */
+    public LimelightSim withNoise(double xyNoise, double yawNoiseDegrees) {
+        this.xyNoise = xyNoise;
+        this.yawNoiseDegrees = yawNoiseDegrees;
+        return this;
+    }
+
+    public LimelightSim withFov(double horizontalDegrees, double verticalDegrees) {
+        projection = new CameraProjection(config, horizontalDegrees, verticalDegrees);
+        return this;
+    }
+
+    public LimelightSim withMaxDistance(double meters) {
+        maxDistance = meters;
+        return this;
+    }
+
+    /** Capture a frame if one is due and publish the frames whose latency has passed */
+    public void update(Pose2d robotPose) {
+        double now = Timer.getFPGATimestamp();
+        if (now >= nextCapture) {
+            nextCapture = Math.max(nextCapture + 1.0 / fps, now);
+            pending.add(capture(robotPose, now));
+        }
+        while (!pending.isEmpty() && pending.peek().publishTime <= now) {
+            publish(pending.poll());
+        }
+    }
+
+    private Frame capture(Pose2d robotPose2d, double now) {
+        Pose3d robotPose = new Pose3d(robotPose2d);
+        Pose3d cameraPose = robotPose.transformBy(projection.getRobotToCamera());
+        double[] window = crop.get();
+        double[] filter = fiducialFilter.get();
+        List<Sighting> sightings = new ArrayList<>();
+        for (AprilTag tag : layout.getTags()) {
+            Sighting sighting = project(tag, cameraPose, robotPose, window, filter);
+            if (sighting != null) {
+                sightings.add(sighting);
+            }
+        }
+
+        Frame frame = new Frame();
+        double latency = Math.max(0, latencyMs + random.nextGaussian() * latencyStdDevMs);
+        frame.publishTime = now + latency / 1000.0;
+        frame.latency = latency;
+        frame.targetInView = !sightings.isEmpty();
+        frame.rawFiducials = fiducialArray(sightings, 0);
+        if (!frame.targetInView) {
+            frame.botpose = new double[11];
+            frame.botposeOrb = new double[11];
+            frame.botpose[6] = latency;
+            frame.botposeOrb[6] = latency;
+            return frame;
+        }
+
+        Sighting primary = sightings.get(0);
+        double span = 0;
+        double distSum = 0;
+        double areaSum = 0;
+        for (Sighting sighting : sightings) {
+            if (sighting.ta > primary.ta) {
+                primary = sighting;
+            }
+            distSum += sighting.distToCamera;
+            areaSum += sighting.ta;
+            for (Sighting other : sightings) {
+                span = Math.max(span, sighting.position.getDistance(other.position));
+            }
+        }
+        int count = sightings.size();
+        double avgDist = distSum / count;
+        frame.tx = primary.tx;
+        frame.ty = primary.ty;
+        frame.ta = primary.ta;
+        frame.tid = primary.id;
+
+        double scale = avgDist / Math.sqrt(count);
+        double xySigma = xyNoise * scale;
+        double x = robotPose2d.getX();
+        double y = robotPose2d.getY();
+        double yaw = robotPose2d.getRotation().getDegrees();
+
+        frame.botpose = fiducialArray(sightings, 11);
+        fillPose(
+                frame.botpose,
+                x + random.nextGaussian() * xySigma,
+                y + random.nextGaussian() * xySigma,
+                yaw + random.nextGaussian() * yawNoiseDegrees * scale,
+                latency,
+                count,
+                span,
+                avgDist,
+                areaSum / count);
+        // MegaTag2 takes its heading from the robot gyro
+        frame.botposeOrb = fiducialArray(sightings, 11);
+        fillPose(
+                frame.botposeOrb,
+                x + random.nextGaussian() * xySigma,
+                y + random.nextGaussian() * xySigma,
+                yaw,
+                latency,
+                count,
+                span,
+                avgDist,
+                areaSum / count);
+        return frame;
+    }
+
+    /** @return null if the tag can't be seen from this camera pose */
+    private Sighting project(
+            AprilTag tag, Pose3d cameraPose, Pose3d robotPose, double[] window, double[] filter) {
+        if (!projection.project(cameraPose, tag.pose, maxDistance, projected)) {
+            return null;
+        }
+        if (window.length == 4
+                && (projected.imageX < window[0]
+                        || projected.imageX > window[1]
+                        || projected.imageY < window[2]
+                        || projected.imageY > window[3])) {
+            return null;
+        }
+        if (filter.length > 0 && !contains(filter, tag.ID)) {
+            return null;
+        }
+        double distance = projected.distance;
+        double facing = projected.facing;
+
+        Sighting sighting = new Sighting();
+        sighting.id = tag.ID;
+        sighting.tx = projected.tx;
+        sighting.ty = projected.ty;
+        double imageArea =
+                Math.toRadians(projection.getHorizontalFovDegrees())
+                        * Math.toRadians(projection.getVerticalFovDegrees());
+        sighting.ta = 100 * tagSize * tagSize * facing / (distance * distance) / imageArea;
+        sighting.distToCamera = distance;
+        sighting.distToRobot = tag.pose.getTranslation().getDistance(robotPose.getTranslation());
+        // Small tags seen straight on are the ones that flip
+        sighting.ambiguity = Math.min(1, distance / maxDistance) * facing;
+        sighting.position = tag.pose.getTranslation();
+        return sighting;
+    }
+
+    private static boolean contains(double[] ids, int id) {
+        for (double value : ids) {
+            if (value == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Per tag values laid out like the Limelight arrays, after a header of the given length */
+    private static double[] fiducialArray(List<Sighting> sightings, int header) {
+        double[] values = new double[header + sightings.size() * valsPerFiducial];
+        for (int i = 0; i < sightings.size(); i++) {
+            Sighting sighting = sightings.get(i);
+            int base = header + i * valsPerFiducial;
+            values[base] = sighting.id;
+            values[base + 1] = sighting.tx;
+            values[base + 2] = sighting.ty;
+            values[base + 3] = sighting.ta;
+            values[base + 4] = sighting.distToCamera;
+            values[base + 5] = sighting.distToRobot;
+            values[base + 6] = sighting.ambiguity;
+        }
+        return values;
+    }
+
+    private static void fillPose(
+            double[] values,
+            double x,
+            double y,
+            double yawDegrees,
+            double latencyMs,
+            int tagCount,
+            double tagSpan,
+            double avgTagDist,
+            double avgTagArea) {
+        values[0] = x;
+        values[1] = y;
+        values[5] = yawDegrees;
+        values[6] = latencyMs;
+        values[7] = tagCount;
+        values[8] = tagSpan;
+        values[9] = avgTagDist;
+        values[10] = avgTagArea;
+    }
+
+    private void publish(Frame frame) {
+        tv.set(frame.targetInView ? 1 : 0);
+        tx.set(frame.tx);
+        ty.set(frame.ty);
+        ta.set(frame.ta);
+        tid.set(frame.targetInView ? frame.tid : -1);
+        botpose.set(frame.botpose);
+        botposeOrb.set(frame.botposeOrb);
+        rawFiducials.set(frame.rawFiducials);
+        heartbeat.set(++frames);
+        pipelineLatency.set(frame.latency);
+        captureLatency.set(0);
+    }
+}
@@ -0,0 +1,127 @@
+package frc.spectrumLib.vision;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableValue;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.Arrays;
+import java.util.HashMap;
+import lombok.Getter;
+
+/**
+ * Skips NT writes to a Limelight that wouldn't change anything. Each topic remembers the last value
+ * sent, an identical value is suppressed unless it was last sent more than the refresh period ago,
+ * so a camera that rebooted and lost its settings gets them back. The NT entries are looked up once
+ * instead of through the table on every write.
+ *
+ * <p>Topics the Limelight needs every loop, like the robot orientation for MegaTag2, use {@link
+ * Policy#ALWAYS}. Those writes are not flushed, the caller flushes NT once after writing to every
+ * camera. Main loop only.
+ */
+public class LimelightWriteCache {
+    public enum Policy {
+        /** Send when the value changes or the refresh period has passed */
+        ON_CHANGE,
+        /** Send every write */
+        ALWAYS
+    }
+
+    private static class Topic {
+        final NetworkTableEntry entry;
+        double[] value;
+        double lastSent = Double.NEGATIVE_INFINITY;
+
+        Topic(NetworkTableEntry entry) {
+            this.entry = entry;
+        }
+    }
+
+    private final NetworkTable table;
+    private final double refreshSeconds;
+    private final HashMap<String, Topic> topics = new HashMap<>();
+
+    @Getter private long sent = 0;
+    @Getter private long suppressed = 0;
+
+    /** @param refreshSeconds resend unchanged values this often, 0 to never resend */
+    public LimelightWriteCache(String limelightName, double refreshSeconds) {
+        table = LimelightHelpers.getLimelightNTTable(limelightName);
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    public void setDouble(String name, double value) {
+        Topic topic = getTopic(name);
+        if (topic.value != null
+                && topic.value.length == 1
+                && topic.value[0] == value
+                && !isStale(topic)) {
+            suppressed++;
+            return;
+        }
+        topic.entry.setDouble(value);
+        if (topic.value == null || topic.value.length != 1) {
+            topic.value = new double[1];
+        }
+        topic.value[0] = value;
+        markSent(topic);
+    }
+
+    public void setDoubleArray(String name, double[] value) {
+        setDoubleArray(name, value, Policy.ON_CHANGE);
+    }
+
+    public void setDoubleArray(String name, double[] value, Policy policy) {
+        Topic topic = getTopic(name);
+        if (policy == Policy.ON_CHANGE && Arrays.equals(topic.value, value) && !isStale(topic)) {
+            suppressed++;
+            return;
+        }
+        topic.entry.setDoubleArray(value);
+        if (topic.value == null || topic.value.length != value.length) {
+            topic.value = value.clone();
+        } else {
+            System.arraycopy(value, 0, topic.value, 0, value.length);
+        }
+        markSent(topic);
+    }
+
+    /** @return the topic's current NT value, from this cache or anyone else */
+    public NetworkTableValue get(String name) {
+        Topic topic = topics.get(name);
+        return topic != null ? topic.entry.getValue() : table.getEntry(name).getValue();
+    }
+
+    /**
+     * Put back a value read with {@link #get} and stop refreshing the topic.
+     *
+     * @param value unpublishes the topic if it had no value
+     */
+    public void restore(String name, NetworkTableValue value) {
+        Topic topic = topics.remove(name);
+        NetworkTableEntry entry = topic != null ? topic.entry : table.getEntry(name);
+        if (value == null || !value.isValid()) {
+            entry.unpublish();
+        } else {
+            entry.setValue(value);
+        }
+        sent++;
+    }
+
+    private Topic getTopic(String name) {
+        Topic topic = topics.get(name);
+        if (topic == null) {
+            topic = new Topic(table.getEntry(name));
+            topics.put(name, topic);
+        }
+        return topic;
+    }
+
+    private boolean isStale(Topic topic) {
+        return refreshSeconds > 0 && Timer.getFPGATimestamp() - topic.lastSent > refreshSeconds;
+    }
+
+    private void markSent(Topic topic) {
+        topic.lastSent = refreshSeconds > 0 ? Timer.getFPGATimestamp() : 0;
+        sent++;
+    }
+}
@@ -0,0 +1,159 @@
+package frc.reefscape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import java.util.function.DoubleUnaryOperator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Zones index against the inXzone/inYzoneAlliance trigger chains it replaced. The index is the
+ * one Zones builds, the old chains are written out from their bounds.
+ */
+class FieldZoneIndexTest {
+    private static final double length = Field.fieldLength;
+    private static final double width = Field.fieldWidth;
+    private static final double halfLength = length / 2;
+    private static final double reefX = Units.inchesToMeters(176.746);
+    private static final double reefY = Units.inchesToMeters(158.501);
+    private static final double reefRange =
+            Field.Reef.apothem + Field.Reef.faceToZoneLine + Units.inchesToMeters(30);
+    private static final double netX = 9.618;
+    private static final double netTolerance = 0.3;
+
+    private static FieldZones zones;
+    private static FieldZoneIndex index;
+
+    @BeforeAll
+    static void build() {
+        // Field.Reef's Triggers need the HAL
+        assertTrue(HAL.initialize(500, 0));
+        zones = new FieldZones(Pose2d::new);
+        index = zones.index;
+    }
+
+    /** Util.inRange, both ends exclusive */
+    private static boolean inRange(double v, double min, double max) {
+        return v > min && v < max;
+    }
+
+    /** The old Zones triggers, with Swerve.inXzoneAlliance's flipXifRed/flipYifRed */
+    private static int oldMembership(double x, double y, boolean red) {
+        double allianceX = red ? length - x : x;
+        double allianceY = red ? width - y : y;
+        boolean blueSide = inRange(x, 0, halfLength);
+        int membership = 0;
+        if (blueSide) {
+            membership |= zones.blueFieldSide;
+        }
+        if (inRange(allianceX, reefX, halfLength) && inRange(allianceY, reefY, width)) {
+            membership |= zones.topLeft;
+        }
+        if (inRange(allianceX, reefX, halfLength) && inRange(allianceY, 0, reefY)) {
+            membership |= zones.topRight;
+        }
+        if (inRange(allianceX, 0, reefX) && inRange(allianceY, reefY, width)) {
+            membership |= zones.bottomLeft;
+        }
+        if (inRange(allianceX, 0, reefX) && inRange(allianceY, 0, reefY)) {
+            membership |= zones.bottomRight;
+        }
+        if (inRange(x, netX - netTolerance, netX + netTolerance)
+                || inRange(x, length - netX - netTolerance, length - netX + netTolerance)) {
+            membership |= zones.netAlgae;
+        }
+        // withinReefRange, the reef on the robot's side of the field
+        Translation2d center =
+                blueSide
+                        ? new Translation2d(reefX, reefY)
+                        : new Translation2d(length - reefX, width - reefY);
+        if (center.getDistance(new Translation2d(x, y)) < reefRange) {
+            membership |= zones.closeToReef;
+        }
+        return membership;
+    }
+
+    /** Sets every bit of a trigger that reads more than one zone, like Zones.isIn */
+    private static int triggers(int membership) {
+        if ((membership & zones.netAlgae) != 0) {
+            membership |= zones.netAlgae;
+        }
+        if ((membership & zones.closeToReef) != 0) {
+            membership |= zones.closeToReef;
+        }
+        return membership;
+    }
+
+    private static void assertSameZones(double x, double y) {
+        assertEquals(oldMembership(x, y, false), triggers(index.lookup(x, y, false)), x + ", " + y);
+        assertEquals(oldMembership(x, y, true), triggers(index.lookup(x, y, true)), x + ", " + y);
+    }
+
+    @Test
+    void matchesTheOldTriggersOverTheField() {
+        for (double x = -0.5; x <= length + 0.5; x += 0.013) {
+            for (double y = -0.5; y <= width + 0.5; y += 0.013) {
+                assertSameZones(x, y);
+            }
+        }
+    }
+
+    @Test
+    void matchesTheOldTriggersOnTheZoneEdges() {
+        double[] xEdges = {
+            0,
+            reefX,
+            length - reefX,
+            halfLength,
+            netX - netTolerance,
+            netX + netTolerance,
+            length - netX - netTolerance,
+            length - netX + netTolerance,
+            length
+        };
+        double[] yEdges = {0, reefY, width - reefY, width};
+        DoubleUnaryOperator[] nudges = {v -> v, Math::nextUp, Math::nextDown};
+        for (double xEdge : xEdges) {
+            for (DoubleUnaryOperator nudge : nudges) {
+                double x = nudge.applyAsDouble(xEdge);
+                for (double y = -0.1; y <= width + 0.1; y += 0.05) {
+                    assertSameZones(x, y);
+                }
+                for (double yEdge : yEdges) {
+                    for (DoubleUnaryOperator yNudge : nudges) {
+                        assertSameZones(x, yNudge.applyAsDouble(yEdge));
+                    }
+                }
+            }
+        }
+        for (double yEdge : yEdges) {
+            for (DoubleUnaryOperator nudge : nudges) {
+                double y = nudge.applyAsDouble(yEdge);
+                for (double x = -0.1; x <= length + 0.1; x += 0.05) {
+                    assertSameZones(x, y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesTheOldTriggersOnTheReefRange() {
+        double[] centersX = {reefX, length - reefX};
+        double[] centersY = {reefY, width - reefY};
+        for (int c = 0; c < 2; c++) {
+            for (double angle = 0; angle < 2 * Math.PI; angle += Math.toRadians(0.5)) {
+                for (double radius :
+                        new double[] {reefRange - 1e-9, reefRange, reefRange + 1e-9}) {
+                    assertSameZones(
+                            centersX[c] + radius * Math.cos(angle),
+                            centersY[c] + radius * Math.sin(angle));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package frc.reefscape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import org.junit.jupiter.api.Test;
+
+/** The sector math against the atan2, flip and tag switch FieldHelpers used before */
+class ReefSectorsTest {
+    /* Field.Reef's blue center, without loading Field and its Triggers */
+    private static final Translation2d center =
+            new Translation2d(Units.inchesToMeters(176.746), Units.inchesToMeters(158.501));
+
+    private static final double hysteresis = Math.toRadians(3);
+
+    private static final ReefSectors sectors =
+            new ReefSectors(center.getX(), center.getY(), 4.5, hysteresis);
+
+    /* The old FieldHelpers.getReefZoneTagID, flipIfRedSide, getReefZone and blueToRedTagID */
+    private static int oldTagID(double x, double y, boolean blueSide) {
+        Translation2d point = new Translation2d(x, y);
+        if (!blueSide) {
+            point = new Translation2d(Field.fieldLength - x, Field.fieldWidth - y);
+        }
+        int tag = oldZone(point) + 17;
+        if (!blueSide) {
+            switch (tag) {
+                case 17:
+                    return 8;
+                case 18:
+                    return 7;
+                case 19:
+                    return 6;
+                case 20:
+                    return 11;
+                case 21:
+                    return 10;
+                case 22:
+                    return 9;
+                default:
+                    return tag;
+            }
+        }
+        return tag;
+    }
+
+    private static int oldZone(Translation2d point) {
+        Translation2d relativePoint = point.minus(center);
+        double angle = Math.atan2(relativePoint.getX(), relativePoint.getY());
+        double distance = relativePoint.getNorm();
+        if (angle < 0) {
+            angle += 2 * Math.PI;
+        }
+        if (distance > 4.5) {
+            return -1;
+        }
+        int index = (int) ((angle + Math.PI) / (Math.PI / 3));
+        return index % 6;
+    }
+
+    private static int newTagID(double x, double y, boolean blueSide) {
+        int zone = ReefSectors.getZone(sectors.getPosition(x, y, blueSide));
+        return ReefSectors.getTag(zone, blueSide);
+    }
+
+    private static void assertSameTag(double x, double y) {
+        assertEquals(oldTagID(x, y, true), newTagID(x, y, true), "blue side " + x + ", " + y);
+        assertEquals(oldTagID(x, y, false), newTagID(x, y, false), "red side " + x + ", " + y);
+    }
+
+    @Test
+    void matchesTheOldLookupOverTheField() {
+        for (double x = -0.5; x <= Field.fieldLength + 0.5; x += 0.02) {
+            for (double y = -0.5; y <= Field.fieldWidth + 0.5; y += 0.02) {
+                assertSameTag(x, y);
+            }
+        }
+    }
+
+    @Test
+    void matchesTheOldLookupAtTheSectorEdges() {
+        double[] offsets = {-1e-9, 0, 1e-9};
+        for (int edge = 0; edge < 6; edge++) {
+            double angle = edge * Math.PI / 3;
+            for (double distance = 0; distance <= 4.6; distance += 0.05) {
+                for (double offset : offsets) {
+                    double x = center.getX() + distance * Math.sin(angle + offset);
+                    double y = center.getY() + distance * Math.cos(angle + offset);
+                    assertSameTag(x, y);
+                    assertSameTag(Field.fieldLength - x, Field.fieldWidth - y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesTheOldLookupAtTheRadius() {
+        double[] radii = {4.5 - 1e-9, 4.5, 4.5 + 1e-9};
+        for (double angle = 0; angle < 2 * Math.PI; angle += Math.toRadians(0.5)) {
+            for (double radius : radii) {
+                double x = center.getX() + radius * Math.sin(angle);
+                double y = center.getY() + radius * Math.cos(angle);
+                assertSameTag(x, y);
+                assertSameTag(Field.fieldLength - x, Field.fieldWidth - y);
+            }
+        }
+        assertEquals(ReefSectors.outsideTag, newTagID(center.getX() + 4.51, center.getY(), true));
+    }
+
+    /** Position in zone widths of an angle from the first zone's start edge */
+    private static double position(double degrees) {
+        return Math.toRadians(degrees) / (Math.PI / 3);
+    }
+
+    @Test
+    void keepsTheLastZoneInsideTheBand() {
+        // zone 2 covers 120 to 180 degrees, the band is 3 degrees past each edge
+        assertEquals(2, sectors.getZoneWithHysteresis(position(182), 2));
+        assertEquals(2, sectors.getZoneWithHysteresis(position(118), 2));
+        assertEquals(3, sectors.getZoneWithHysteresis(position(184), 2));
+        assertEquals(1, sectors.getZoneWithHysteresis(position(116), 2));
+        // moving inside a zone doesn't depend on the band
+        assertEquals(3, sectors.getZoneWithHysteresis(position(182), 3));
+    }
+
+    @Test
+    void bandWrapsBetweenTheLastAndFirstZones() {
+        assertEquals(5, sectors.getZoneWithHysteresis(position(1), 5));
+        assertEquals(0, sectors.getZoneWithHysteresis(position(5), 5));
+        assertEquals(0, sectors.getZoneWithHysteresis(position(358), 0));
+        assertEquals(5, sectors.getZoneWithHysteresis(position(355), 0));
+    }
+
+    @Test
+    void bandDoesNotHoldOutsideTheZones() {
+        assertEquals(-1, sectors.getZoneWithHysteresis(-1, 2));
+        assertEquals(4, sectors.getZoneWithHysteresis(position(250), -1));
+        // jumping across the reef isn't held by the band either
+        assertEquals(5, sectors.getZoneWithHysteresis(position(301), 2));
+    }
+
+    @Test
+    void zeroBandIsThePlainZone() {
+        ReefSectors noBand = new ReefSectors(center.getX(), center.getY(), 4.5, 0);
+        for (double degrees = 0; degrees < 360; degrees += 0.25) {
+            double position = position(degrees);
+            for (int last = -1; last < 6; last++) {
+                int zone = ReefSectors.getZone(position);
+                assertEquals(zone, noBand.getZoneWithHysteresis(position, last));
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package frc.robot.swerve;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.reefscape.Field;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** The Swerve constructor builds this before Robot.getSwerve() is set */
+class PoseIntegrityTest {
+    private static final double robotLength = 0.9;
+
+    @BeforeAll
+    static void initHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void buildsWithTheReefsBeforeThereIsASwerve() {
+        PoseIntegrity integrity = Swerve.createPoseIntegrity(robotLength, true);
+        Translation2d blueReef = Field.Reef.getCenter();
+        double outside = Field.Reef.getApothem() + robotLength / 2;
+
+        Pose2d inBlueReef = new Pose2d(blueReef.getX() + 0.1, blueReef.getY(), new Rotation2d());
+        Pose2d corrected = integrity.correct(inBlueReef);
+        assertEquals(blueReef.getX() + outside, corrected.getX(), 1e-9);
+        assertEquals(blueReef.getY(), corrected.getY(), 1e-9);
+
+        double redX = Field.fieldLength - blueReef.getX();
+        double redY = Field.fieldWidth - blueReef.getY();
+        corrected = integrity.correct(new Pose2d(redX - 0.1, redY, new Rotation2d()));
+        assertEquals(redX - outside, corrected.getX(), 1e-9);
+        assertEquals(redY, corrected.getY(), 1e-9);
+        assertEquals(2, integrity.getObstacleCorrections());
+    }
+
+    @Test
+    void leavesPosesTheRobotCanBeAt() {
+        PoseIntegrity integrity = Swerve.createPoseIntegrity(robotLength, true);
+        Pose2d open = new Pose2d(Field.fieldLength / 2, 1.5, new Rotation2d());
+        assertSame(open, integrity.correct(open));
+    }
+
+    @Test
+    void keepsThePoseOffTheWalls() {
+        PoseIntegrity integrity = Swerve.createPoseIntegrity(robotLength, false);
+        Pose2d offField = new Pose2d(-1, Field.fieldWidth + 1, new Rotation2d());
+        Pose2d corrected = integrity.correct(offField);
+        assertEquals(robotLength / 2, corrected.getX(), 1e-9);
+        assertEquals(Field.fieldWidth - robotLength / 2, corrected.getY(), 1e-9);
+        assertEquals(1, integrity.getFieldCorrections());
+        assertEquals(0, integrity.getObstacleCorrections());
+    }
+}
@@ -0,0 +1,114 @@
+package frc.robot.vision;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.util.datalog.DataLogWriter;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import frc.robot.vision.Vision.IntegrationPhase;
+import frc.robot.vision.VisionPolicy.Feature;
+import frc.spectrumLib.vision.LimelightFrame;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** The replay has to run on a laptop, without a Robot, Swerve or FieldHelpers */
+class VisionReplayTest {
+    private static final String camera = VisionRecorder.prefix + "limelight-front";
+
+    /** A MegaTag1 botpose_wpiblue array with one close, unambiguous tag */
+    private static double[] botpose(double x, double y) {
+        return new double[] {x, y, 0, 0, 0, 0, 0, 1, 0, 1.5, 5, 18, 0, 0, 5, 1.6, 1.5, 0.1};
+    }
+
+    private static double[] cameraRecord(double[] botpose, long time) {
+        double[] orb = {botpose[0], botpose[1], 0, 0, 0, 0, 0, 1};
+        int header = VisionRecorder.cameraHeader;
+        double[] values = new double[header + botpose.length + orb.length];
+        values[0] = 1; // tv
+        values[3] = 5; // ta
+        values[4] = 18; // tid
+        values[5] = time;
+        values[6] = time;
+        values[7] = botpose.length;
+        values[8] = orb.length;
+        System.arraycopy(botpose, 0, values, header, botpose.length);
+        System.arraycopy(orb, 0, values, header + botpose.length, orb.length);
+        return values;
+    }
+
+    private static double[] odometryRecord(double x, double y) {
+        double[] values = new double[VisionRecorder.odometryHeader + 8];
+        values[0] = IntegrationPhase.DISABLED.ordinal();
+        values[1] = x;
+        values[2] = y;
+        return values;
+    }
+
+    @Test
+    void evaluatesFramesOffTheRobot() {
+        VisionIngestContext ctx = new VisionIngestContext();
+        VisionPolicy policy = VisionPolicies.defaults().getMt1Disabled();
+        LimelightFrame frame = new LimelightFrame();
+        ctx.setRobotState(2, 4, 0, 0, 0, true);
+
+        double[] none = new double[0];
+        frame.updateFrom(1, 0, 0, 5, 18, botpose(2, 4), 1_000_000, none, 0, none);
+        assertTrue(ctx.evaluate(frame, false, policy));
+        assertEquals(0, ctx.features[Feature.OUT_OF_FIELD.ordinal()]);
+
+        frame.updateFrom(1, 0, 0, 5, 18, botpose(-1, 4), 2_000_000, none, 0, none);
+        assertFalse(ctx.evaluate(frame, false, policy));
+        assertEquals(1, ctx.features[Feature.OUT_OF_FIELD.ordinal()]);
+    }
+
+    @Test
+    void outOfFieldMatchesTheFieldBounds() {
+        assertFalse(VisionIngestContext.isOutOfField(new Pose2d(2, 4, new Rotation2d())));
+        // on the wall counts as out, like FieldHelpers.poseOutOfField
+        assertTrue(VisionIngestContext.isOutOfField(new Pose2d(0, 4, new Rotation2d())));
+        assertTrue(VisionIngestContext.isOutOfField(new Pose2d(2, 9, new Rotation2d())));
+    }
+
+    @Test
+    void replaysARecordedLog(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("replay.wpilog").toFile();
+        DataLogWriter log = new DataLogWriter(file.getPath());
+        DoubleArrayLogEntry modules =
+                new DoubleArrayLogEntry(log, VisionRecorder.moduleLocationsEntry, 1);
+        DoubleArrayLogEntry odometry =
+                new DoubleArrayLogEntry(log, VisionRecorder.odometryEntry, 1);
+        DoubleArrayLogEntry frames = new DoubleArrayLogEntry(log, camera, 1);
+
+        modules.append(new double[] {0.3, 0.3, 0.3, -0.3, -0.3, 0.3, -0.3, -0.3}, 1);
+        odometry.append(odometryRecord(2, 4), 900_000);
+        odometry.append(odometryRecord(2, 4), 950_000);
+        frames.append(cameraRecord(botpose(2, 4), 1_000_000), 1_000_000);
+        odometry.append(odometryRecord(2, 4), 1_020_000);
+        frames.append(cameraRecord(botpose(-1, 4), 1_100_000), 1_100_000);
+        // the same frame again, the camera hasn't published a new one
+        frames.append(cameraRecord(botpose(-1, 4), 1_100_000), 1_120_000);
+        log.close();
+
+        DataLogReader reader = new DataLogReader(file.getPath());
+        assertTrue(reader.isValid());
+        VisionReplay replay = new VisionReplay(VisionPolicies.defaults(), null);
+        for (DataLogRecord record : reader) {
+            replay.process(record);
+        }
+        replay.flush();
+        String report = replay.report(file.getName(), 1);
+
+        assertTrue(report.contains("3 odometry records, 3 camera frames"), report);
+        assertTrue(report.contains("MT1: 2 evaluated, 1 accepted"), report);
+        assertTrue(report.contains("0 no target, 1 duplicate"), report);
+        assertTrue(report.contains("MT2: 0 evaluated"), report);
+    }
+}
@@ -0,0 +1,88 @@
+package frc.spectrumLib.mechanism;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import frc.spectrumLib.LoopEpoch;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** Bands are polled through get() with LoopEpoch advanced by hand, one advance per loop */
+class ThresholdBankTest {
+    @BeforeAll
+    static void initHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @Test
+    void convertsABoundOnlyWhenItChanges() {
+        ThresholdBank bank = new ThresholdBank();
+        double[] rotations = {0.2};
+        double[] degrees = {90};
+        int[] conversions = {0};
+        int channel = bank.addChannel(() -> rotations[0]);
+        bank.below(
+                channel,
+                () -> degrees[0],
+                d -> {
+                    conversions[0]++;
+                    return d / 360;
+                });
+
+        for (int loop = 0; loop < 5; loop++) {
+            LoopEpoch.advance();
+            assertTrue(bank.get(0));
+        }
+        assertEquals(1, conversions[0]);
+
+        // A new tunable value is converted and used the loop it changes
+        degrees[0] = 45;
+        LoopEpoch.advance();
+        assertFalse(bank.get(0));
+        assertEquals(2, conversions[0]);
+
+        LoopEpoch.advance();
+        assertFalse(bank.get(0));
+        assertEquals(2, conversions[0]);
+    }
+
+    @Test
+    void atFollowsAMovingTarget() {
+        ThresholdBank bank = new ThresholdBank();
+        double[] value = {10};
+        double[] target = {10};
+        int channel = bank.addChannel(() -> value[0]);
+        bank.at(channel, () -> target[0], () -> 1, d -> d);
+
+        LoopEpoch.advance();
+        assertTrue(bank.get(0));
+
+        target[0] = 20;
+        LoopEpoch.advance();
+        assertFalse(bank.get(0));
+
+        value[0] = 20.5;
+        LoopEpoch.advance();
+        assertTrue(bank.get(0));
+    }
+
+    @Test
+    void unboundedSideNeverLimits() {
+        ThresholdBank bank = new ThresholdBank();
+        double[] amps = {-1000};
+        int channel = bank.addChannel(() -> amps[0]);
+        bank.below(channel, () -> 40, d -> d);
+        bank.above(channel, () -> 40, d -> d);
+
+        LoopEpoch.advance();
+        assertTrue(bank.get(0));
+        assertFalse(bank.get(1));
+
+        amps[0] = 1000;
+        LoopEpoch.advance();
+        assertFalse(bank.get(0));
+        assertTrue(bank.get(1));
+    }
+}
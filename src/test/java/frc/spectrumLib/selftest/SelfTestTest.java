@@ -0,0 +1,73 @@
+package frc.spectrumLib.selftest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/** Runs a plan through the command scheduler with sim time stepped by hand */
+class SelfTestTest {
+    @BeforeAll
+    static void initHal() {
+        assertTrue(HAL.initialize(500, 0));
+        DriverStationSim.setEnabled(true);
+        DriverStationSim.notifyNewData();
+        SimHooks.pauseTiming();
+    }
+
+    @AfterAll
+    static void resumeTiming() {
+        CommandScheduler.getInstance().cancelAll();
+        SimHooks.resumeTiming();
+    }
+
+    private static void loop() {
+        SimHooks.stepTiming(0.02);
+        CommandScheduler.getInstance().run();
+    }
+
+    private static SelfTestStep step(String name, Subsystem mechanism) {
+        return new SelfTestStep(name, Commands.idle(mechanism), 0.1)
+                .sample("value", () -> 1)
+                .expectMean("value", 1, 0.1);
+    }
+
+    @Test
+    void rerunDoesNotReportTheLastRunsPasses() {
+        Subsystem mechanism = new Subsystem() {};
+        SelfTestStep first = step("first", mechanism);
+        SelfTestStep second = step("second", mechanism);
+        SelfTest selfTest = new SelfTest("rerun").add(first).add(second);
+        Command command = selfTest.getCommand();
+
+        CommandScheduler.getInstance().schedule(command);
+        for (int i = 0; i < 50 && command.isScheduled(); i++) {
+            loop();
+        }
+        assertFalse(command.isScheduled());
+        assertTrue(selfTest.isPassed());
+        assertTrue(second.isFinished());
+        assertTrue(second.isPassed());
+
+        // Both steps use the same mechanism, cancel the re-run while the first one is going
+        CommandScheduler.getInstance().schedule(command);
+        loop();
+        command.cancel();
+
+        assertFalse(selfTest.isPassed());
+        assertTrue(first.isFinished());
+        assertFalse(first.isPassed());
+        assertFalse(second.isFinished());
+        assertFalse(second.isPassed());
+        assertTrue(second.getResults().isEmpty());
+    }
+}
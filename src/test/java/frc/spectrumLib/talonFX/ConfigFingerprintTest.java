@@ -0,0 +1,220 @@
+package frc.spectrumLib.talonFX;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+import edu.wpi.first.hal.HAL;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Applies against sim TalonFXs, the counters are static so each check looks at the change */
+class ConfigFingerprintTest {
+    private static final int groupCount = ConfigFingerprint.getGroupCount();
+
+    private TalonFX talon;
+
+    @TempDir Path dir;
+
+    @BeforeAll
+    static void initHal() {
+        assertTrue(HAL.initialize(500, 0));
+    }
+
+    @AfterEach
+    void close() {
+        if (talon != null) {
+            talon.close();
+        }
+        ConfigFingerprint.setTrustFile(false);
+    }
+
+    private static TalonFXConfiguration config() {
+        TalonFXConfiguration config = new TalonFXConfiguration();
+        config.MotorOutput.Inverted = InvertedValue.Clockwise_Positive;
+        config.CurrentLimits.StatorCurrentLimit = 60;
+        config.CurrentLimits.StatorCurrentLimitEnable = true;
+        config.Slot0.kP = 2;
+        return config;
+    }
+
+    @Test
+    void skipsAConfigTheDeviceAlreadyHas() {
+        talon = new TalonFX(51);
+        TalonFXConfiguration config = config();
+        assertTrue(ConfigFingerprint.apply(talon, config).isOK());
+
+        int applied = ConfigFingerprint.getGroupsApplied();
+        int skipped = ConfigFingerprint.getGroupsSkipped();
+        int full = ConfigFingerprint.getFullApplies();
+        assertTrue(ConfigFingerprint.apply(talon, config()).isOK());
+
+        assertEquals(applied, ConfigFingerprint.getGroupsApplied());
+        assertEquals(skipped + groupCount, ConfigFingerprint.getGroupsSkipped());
+        assertEquals(full, ConfigFingerprint.getFullApplies());
+    }
+
+    @Test
+    void appliesOnlyTheChangedGroup() {
+        talon = new TalonFX(52);
+        TalonFXConfiguration config = config();
+        assertTrue(ConfigFingerprint.apply(talon, config).isOK());
+
+        int applied = ConfigFingerprint.getGroupsApplied();
+        int skipped = ConfigFingerprint.getGroupsSkipped();
+        int full = ConfigFingerprint.getFullApplies();
+        config.CurrentLimits.StatorCurrentLimit = 40;
+        assertTrue(ConfigFingerprint.apply(talon, config).isOK());
+
+        assertEquals(applied + 1, ConfigFingerprint.getGroupsApplied());
+        assertEquals(skipped + groupCount - 1, ConfigFingerprint.getGroupsSkipped());
+        assertEquals(full, ConfigFingerprint.getFullApplies());
+
+        // the group really got to the device, and the others weren't reset
+        TalonFXConfiguration reported = new TalonFXConfiguration();
+        assertTrue(talon.getConfigurator().refresh(reported).isOK());
+        assertEquals(40, reported.CurrentLimits.StatorCurrentLimit, 1e-6);
+        assertEquals(InvertedValue.Clockwise_Positive, reported.MotorOutput.Inverted);
+        assertEquals(2, reported.Slot0.kP, 1e-6);
+    }
+
+    @Test
+    void firstApplyWritesWhatTheDeviceIsMissing() {
+        talon = new TalonFX(53);
+        int applied = ConfigFingerprint.getGroupsApplied();
+        assertTrue(ConfigFingerprint.apply(talon, config()).isOK());
+
+        // a fresh sim device has the defaults, so at least the three changed groups are written
+        assertTrue(ConfigFingerprint.getGroupsApplied() - applied >= 3);
+        TalonFXConfiguration reported = new TalonFXConfiguration();
+        assertTrue(talon.getConfigurator().refresh(reported).isOK());
+        assertEquals(60, reported.CurrentLimits.StatorCurrentLimit, 1e-6);
+        assertEquals(2, reported.Slot0.kP, 1e-6);
+    }
+
+    /** Change the device behind our back, like a swapped or factory reset motor */
+    private static void setStatorLimit(TalonFX talon, double amps) {
+        CurrentLimitsConfigs limits = new CurrentLimitsConfigs();
+        assertTrue(talon.getConfigurator().refresh(limits).isOK());
+        limits.StatorCurrentLimit = amps;
+        assertTrue(talon.getConfigurator().apply(limits).isOK());
+    }
+
+    private static double getStatorLimit(TalonFX talon) {
+        CurrentLimitsConfigs limits = new CurrentLimitsConfigs();
+        assertTrue(talon.getConfigurator().refresh(limits).isOK());
+        return limits.StatorCurrentLimit;
+    }
+
+    /** A file saying the device already has our CurrentLimits, and reported them back the same */
+    private File staleFile(String key) throws IOException {
+        String hash = Long.toHexString(ConfigFingerprint.hash(config().CurrentLimits.serialize()));
+        File file = dir.resolve("fingerprints.txt").toFile();
+        Files.write(file.toPath(), List.of(key + " CurrentLimits " + hash + " " + hash));
+        return file;
+    }
+
+    @Test
+    void writesAGroupTheDeviceLostSinceTheLastApply() {
+        ConfigFingerprint.reload(dir.resolve("none.txt").toFile());
+        talon = new TalonFX(54);
+        assertTrue(talon.getConfigurator().apply(config()).isOK());
+        setStatorLimit(talon, 20);
+
+        int applied = ConfigFingerprint.getGroupsApplied();
+        assertTrue(ConfigFingerprint.apply(talon, config()).isOK());
+
+        // the refresh shows CurrentLimits differs, so it has to be written
+        assertTrue(ConfigFingerprint.getGroupsApplied() > applied);
+        assertEquals(60, getStatorLimit(talon), 1e-6);
+    }
+
+    @Test
+    void staleFileDoesNotHideADeviceMismatch() throws IOException {
+        ConfigFingerprint.reload(staleFile("rio:55"));
+        talon = new TalonFX(55);
+        assertTrue(talon.getConfigurator().apply(config()).isOK());
+        setStatorLimit(talon, 20);
+
+        assertTrue(ConfigFingerprint.apply(talon, config()).isOK());
+
+        assertEquals(60, getStatorLimit(talon), 1e-6);
+    }
+
+    @Test
+    void trustFileIsIgnoredInSim() throws IOException {
+        ConfigFingerprint.reload(staleFile("rio:56"));
+        ConfigFingerprint.setTrustFile(true);
+        talon = new TalonFX(56);
+        assertTrue(talon.getConfigurator().apply(config()).isOK());
+        setStatorLimit(talon, 20);
+
+        // a sim device starts fresh every run, so the file can't be trusted to match it
+        assertTrue(ConfigFingerprint.apply(talon, config()).isOK());
+
+        assertEquals(60, getStatorLimit(talon), 1e-6);
+    }
+
+    @Test
+    void loadSkipsLinesItDoesNotKnow() throws IOException {
+        long hash = ConfigFingerprint.hash(config().CurrentLimits.serialize());
+        String hex = Long.toHexString(hash);
+        File file = dir.resolve("fingerprints.txt").toFile();
+        Files.write(
+                file.toPath(),
+                List.of(
+                        "rio:57 CurrentLimits " + hex + " " + hex,
+                        "rio:57 NotAGroup " + hex + " " + hex,
+                        "rio:58 CurrentLimits " + hex,
+                        ""));
+        ConfigFingerprint.reload(file);
+
+        long[][] saved = ConfigFingerprint.getSaved("rio:57");
+        assertNotNull(saved);
+        assertEquals(1, Arrays.stream(saved[0]).filter(h -> h == hash).count());
+        assertArrayEquals(saved[0], saved[1]);
+        assertNull(ConfigFingerprint.getSaved("rio:58"));
+    }
+
+    @Test
+    void corruptFileIsDroppedAndTheDeviceStillConfigured() throws IOException {
+        File file = dir.resolve("fingerprints.txt").toFile();
+        Files.write(file.toPath(), List.of("rio:59 CurrentLimits nothex 12", "rio:59 Slot0 1 2"));
+        ConfigFingerprint.reload(file);
+        assertNull(ConfigFingerprint.getSaved("rio:59"));
+
+        talon = new TalonFX(59);
+        assertTrue(ConfigFingerprint.apply(talon, config()).isOK());
+        assertEquals(60, getStatorLimit(talon), 1e-6);
+    }
+
+    @Test
+    void saveThenLoadRoundTrips() {
+        File file = dir.resolve("fingerprints.txt").toFile();
+        ConfigFingerprint.reload(file);
+        talon = new TalonFX(60);
+        assertTrue(ConfigFingerprint.apply(talon, config()).isOK());
+        long[][] before = ConfigFingerprint.getSaved("rio:60");
+        assertNotNull(before);
+        ConfigFingerprint.save();
+
+        ConfigFingerprint.reload(file);
+        long[][] after = ConfigFingerprint.getSaved("rio:60");
+        assertArrayEquals(before[0], after[0]);
+        assertArrayEquals(before[1], after[1]);
+    }
+}
@@ -0,0 +1,102 @@
+package frc.spectrumLib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Welford's running stats against a two pass mean and variance */
+class StreamingStatsTest {
+    @Test
+    void matchesTwoPassMeanAndVariance() {
+        Random random = new Random(1);
+        double[] samples = new double[1000];
+        StreamingStats stats = new StreamingStats();
+        for (int i = 0; i < samples.length; i++) {
+            // Large offset, the case a naive sum of squares loses precision on
+            samples[i] = 1e6 + random.nextGaussian() * 3;
+            stats.add(samples[i]);
+        }
+
+        double mean = 0;
+        for (double sample : samples) {
+            mean += sample;
+        }
+        mean /= samples.length;
+        double squares = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double sample : samples) {
+            squares += (sample - mean) * (sample - mean);
+            min = Math.min(min, sample);
+            max = Math.max(max, sample);
+        }
+
+        assertEquals(samples.length, stats.getCount());
+        assertEquals(mean, stats.getMean(), 1e-6);
+        assertEquals(squares / (samples.length - 1), stats.getVariance(), 1e-6);
+        assertEquals(min, stats.getMin());
+        assertEquals(max, stats.getMax());
+    }
+
+    @Test
+    void emptyAndSingleSample() {
+        StreamingStats stats = new StreamingStats();
+        assertTrue(Double.isNaN(stats.getMean()));
+        assertTrue(Double.isNaN(stats.getPeak()));
+        assertEquals(0, stats.getVariance());
+
+        stats.add(4);
+        assertEquals(4, stats.getMean());
+        assertEquals(0, stats.getVariance());
+    }
+
+    @Test
+    void ignoresNaNSamples() {
+        StreamingStats stats = new StreamingStats();
+        stats.add(2);
+        stats.add(Double.NaN);
+        stats.add(4);
+        assertEquals(2, stats.getCount());
+        assertEquals(3, stats.getMean());
+    }
+
+    @Test
+    void peakIsTheLargestMagnitude() {
+        StreamingStats stats = new StreamingStats();
+        stats.add(-40);
+        stats.add(25);
+        assertEquals(40, stats.getPeak());
+    }
+
+    @Test
+    void timeToTargetCountsTheFirstReach() {
+        StreamingStats stats = new StreamingStats();
+        stats.start(10);
+        assertFalse(stats.hasReachedTarget());
+        stats.reached(10.5);
+        stats.reached(11);
+        assertEquals(0.5, stats.getTimeToTarget(), 1e-9);
+
+        stats.start(20);
+        assertFalse(stats.hasReachedTarget());
+    }
+
+    @Test
+    void resetClearsEverything() {
+        StreamingStats stats = new StreamingStats();
+        stats.start(1);
+        stats.add(5);
+        stats.add(7);
+        stats.reached(2);
+        stats.reset();
+
+        assertEquals(0, stats.getCount());
+        assertTrue(Double.isNaN(stats.getMean()));
+        assertTrue(Double.isNaN(stats.getMin()));
+        assertTrue(Double.isNaN(stats.getMax()));
+        assertFalse(stats.hasReachedTarget());
+    }
+}